@@ -2,6 +2,10 @@ package generation;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import gui.Constants;
@@ -15,6 +19,10 @@ import gui.Constants;
  * Paul Falstad granted permission to modify and use code for teaching purposes.
  * Refactored by Peter Kemper
  *
+ * In parallel mode, the two subtrees of a branch are built concurrently
+ * on the common ForkJoinPool once the walls are split, as they share no walls.
+ * Each subtree picks the same splitters as in a sequential build,
+ * so the resulting tree is the same.
  */
 public class BSPBuilder {
 	/**
@@ -30,8 +38,19 @@ public class BSPBuilder {
 	// colchange: reason for randomization unclear, used to determine color of wall 
 	private final int expectedPartiters ; 	// comes from Constants partct array, entry chosen according to skill level
 	// only usage is in updateProgressBar to estimate progress made in the BSP tree construction
-	int partiters = 0 ; // relocated from MazeBuilder attribute partiters here. 
+	private final AtomicInteger partiters = new AtomicInteger() ; // relocated from MazeBuilder attribute partiters here, shared by all threads in parallel mode
+	private int percentage ; // last progress value published to the order, only increases are published
 	private final Order order ; 		// current order
+	private final boolean parallel ; 	// tells if subtrees are built concurrently
+	private Thread owner ; 				// thread that called generateBSPNodes, worker threads check it for cancel requests
+	private volatile boolean canceled ;	// set once a worker saw the owner interrupted, outstanding tasks stop as well
+	private BSPStatistics statistics ;	// figures for the last generated tree, null before
+	private ListOfWallsBuilder wallsBuilder ; // merged the walls, cuts them back for the leaves
+	/**
+	 * Subtrees with fewer walls than this are built by a single thread,
+	 * as the overhead of a fork does not pay off for them.
+	 */
+	static final int PARALLEL_THRESHOLD = 256;
 	/**
 	 * Constructor
 	 * @param order provides the spec for the maze to be generated, will receive the result
@@ -43,6 +62,20 @@ public class BSPBuilder {
 	 * @param expectedPartiters the expected number of partition iterations
 	 */
 	public BSPBuilder(Order order, Distance dists, Floorplan floorplan, int width, int height, int colchange, int expectedPartiters) {
+		this(order, dists, floorplan, width, height, colchange, expectedPartiters, false);
+	}
+	/**
+	 * Constructor
+	 * @param order provides the spec for the maze to be generated, will receive the result
+	 * @param dists the distances to the exit
+	 * @param floorplan the floorplan
+	 * @param width the width of the maze
+	 * @param height the height of the maze
+	 * @param colchange
+	 * @param expectedPartiters the expected number of partition iterations
+	 * @param parallel true to build subtrees concurrently, false for a single thread
+	 */
+	public BSPBuilder(Order order, Distance dists, Floorplan floorplan, int width, int height, int colchange, int expectedPartiters, boolean parallel) {
 		this.order = order ;
 		this.dists = dists ;
 		this.floorplan = floorplan ;
@@ -50,8 +83,10 @@ public class BSPBuilder {
 		this.height = height ;
 		this.colchange = colchange ;
 		this.expectedPartiters = expectedPartiters ;
+		this.parallel = parallel ;
 
-		partiters = 0 ; // counter for keeping track of progress made in BSP calculation, starts at 0
+		partiters.set(0) ; // counter for keeping track of progress made in BSP calculation, starts at 0
+		percentage = -1 ; // nothing published yet
 	}
 
 	/**
@@ -76,34 +111,20 @@ public class BSPBuilder {
 	 * @throws InterruptedException if its executing thread is interrupted
 	 */
 	private BSPNode genNodes(List<Wall> walls) throws InterruptedException {
-		// Recursion anchor:
-		// if there is no wall with a partition bit set to false, 
-		// there is nothing else to do and we are at a leaf node
-		if (countNonPartitions(walls) == 0)
-			return new BSPLeaf(walls);
-		// Step: pick the wall that is used to partition all others into left and right
-		// Criterion: from the ones that have a partition bit set to false, 
-		// pick a candidate with a low grade
-		// Note: the splitter remains an element of the walls list but is marked as partitioned
-		Wall splitter = findSplitter(walls);
-		splitter.setPartition(true);
-		
-		// Step: split all walls into two lists
-		// left the resulting list of walls for the left side of the subtree
-		// right the resulting list of walls for the right side of the subtree
 		final ArrayList<Wall> left = new ArrayList<>();
 		final ArrayList<Wall> right = new ArrayList<>();
-		splitter.splitWalls(walls, left, right, colchange);
-		
+		final Wall splitter = split(walls, left, right);
+		if (null == splitter)
+			return createLeaf(walls);
 		// Recursion anchor
 		// Case: from the current node, the tree has only 1 branch.
 		// Note: the splitter is in one of the 2 lists, so if one list is empty,
 		// The current node is a leaf and 
 		// we just terminate the recursion with the non-empty list.
 		if (left.isEmpty())
-			return new BSPLeaf(right);
+			return createLeaf(right);
 		if (right.isEmpty())
-			return new BSPLeaf(left);
+			return createLeaf(left);
 		
 		// Case: two sided recursion, need to create a node
 		// and recursively calculate subtrees for both sides.
@@ -111,6 +132,126 @@ public class BSPBuilder {
 				splitter.getExtensionX(), splitter.getExtensionY(), 
 				genNodes(left), genNodes(right)); 
 	}
+	/**
+	 * Creates a leaf for the given walls, where pieces of merged walls
+	 * are cut back into the walls they were merged from.
+	 * @param walls the walls of the leaf
+	 * @return the leaf
+	 */
+	private BSPLeaf createLeaf(List<Wall> walls) {
+		return new BSPLeaf(wallsBuilder.restoreSegments(walls));
+	}
+	/**
+	 * Picks a splitter for the given walls and splits them into two lists,
+	 * see {@link #genNodes(List)}.
+	 * @param walls the list of walls (polygons) to partition
+	 * @param left receives the walls for the left side of the subtree
+	 * @param right receives the walls for the right side of the subtree
+	 * @return the splitter, null if all walls are partitioned and the walls form a leaf
+	 * @throws InterruptedException if its executing thread is interrupted
+	 */
+	private Wall split(List<Wall> walls, List<Wall> left, List<Wall> right) throws InterruptedException {
+		// Recursion anchor:
+		// if there is no wall with a partition bit set to false, 
+		// there is nothing else to do and we are at a leaf node
+		if (countNonPartitions(walls) == 0)
+			return null;
+		// Step: pick the wall that is used to partition all others into left and right
+		// Criterion: from the ones that have a partition bit set to false, 
+		// pick a candidate with a low grade
+		// Note: the splitter remains an element of the walls list but is marked as partitioned
+		Wall splitter = findSplitter(walls);
+		splitter.setPartition(true);
+		
+		// Step: split all walls into two lists
+		// left the resulting list of walls for the left side of the subtree
+		// right the resulting list of walls for the right side of the subtree
+		splitter.splitWalls(walls, left, right, colchange);
+		return splitter;
+	}
+	
+	/**
+	 * Task that builds the subtree for a list of walls as {@link #genNodes(List)} does,
+	 * but forks the left subtree and builds the right one on the current thread
+	 * if there are enough walls. Smaller subtrees are built sequentially.
+	 * An interrupt is passed on as the cause of a CompletionException.
+	 */
+	private final class GenNodesTask extends RecursiveTask<BSPNode> {
+		private static final long serialVersionUID = 1L;
+		private final List<Wall> walls;
+
+		GenNodesTask(List<Wall> walls) {
+			this.walls = walls;
+		}
+		@Override
+		protected BSPNode compute() {
+			try {
+				// tasks that were forked before a cancel request do not start to work
+				checkCanceled();
+				if (walls.size() < PARALLEL_THRESHOLD)
+					return genNodes(walls);
+				final ArrayList<Wall> left = new ArrayList<>();
+				final ArrayList<Wall> right = new ArrayList<>();
+				final Wall splitter = split(walls, left, right);
+				if (null == splitter)
+					return createLeaf(walls);
+				if (left.isEmpty())
+					return createLeaf(right);
+				if (right.isEmpty())
+					return createLeaf(left);
+				// the left and right walls are separate objects, so both sides can be built at the same time
+				checkCanceled();
+				final GenNodesTask leftTask = new GenNodesTask(left);
+				leftTask.fork();
+				final BSPNode rightNode;
+				try {
+					rightNode = new GenNodesTask(right).compute();
+				} catch (RuntimeException e) {
+					// nobody joins the left subtree anymore, it does not need to be built
+					leftTask.cancel(true);
+					throw e;
+				}
+				return new BSPBranch(splitter.getStartPositionX(), splitter.getStartPositionY(), 
+						splitter.getExtensionX(), splitter.getExtensionY(), 
+						leftTask.join(), rightNode);
+			} catch (InterruptedException e) {
+				throw new CompletionException(e);
+			}
+		}
+	}
+	/**
+	 * Checks for a cancel request in parallel mode, where tasks run on the threads of the ForkJoinPool.
+	 * The request is the interrupt of the thread that called generateBSPNodes. It is remembered,
+	 * such that tasks that are left over once that thread stopped waiting do not continue,
+	 * even if that thread's interrupt status is cleared in the meantime.
+	 * @throws InterruptedException if the owner was interrupted
+	 */
+	private void checkCanceled() throws InterruptedException {
+		if (canceled || owner.isInterrupted()) {
+			canceled = true;
+			throw new InterruptedException();
+		}
+	}
+	/**
+	 * Builds the BSP tree for the given walls on the common ForkJoinPool.
+	 * @param walls the list of walls (polygons) to partition
+	 * @return root node for BSP tree
+	 * @throws InterruptedException if the calling thread is interrupted
+	 */
+	private BSPNode genNodesInParallel(List<Wall> walls) throws InterruptedException {
+		try {
+			return ForkJoinPool.commonPool().invoke(new GenNodesTask(walls));
+		} catch (CompletionException e) {
+			// tasks that are still queued or running stop at their next check
+			canceled = true;
+			// the pool may wrap the exception once more when it passes it between threads
+			for (Throwable cause = e; null != cause; cause = cause.getCause()) {
+				if (cause instanceof InterruptedException)
+					throw (InterruptedException) cause;
+			}
+			throw e;
+		}
+	}
 	
 
     /**
@@ -129,31 +270,38 @@ public class BSPBuilder {
 
 	/**
 	 * It finds the wall which has the minimum grade value.
+	 * All walls where the partition flag is not set are graded
+	 * and each grade counts all walls, see {@link SplitterIndex}.
+	 * Of walls with the same grade, the first one in the list is selected.
 	 * @param walls list of walls, remains unchanged
 	 * @return wall that is best candidate according to grade partition (smallest grade)
 	 * @throws InterruptedException if its executing thread is interrupted
 	 */
 	private Wall findSplitter(List<Wall> walls) throws InterruptedException {
 		Wall result = null ;
-		int bestgrade = 5000; // used to compute the minimum of all observed grade values, set to some high initial value
+		int bestgrade = Integer.MAX_VALUE; // used to compute the minimum of all observed grade values
+		final SplitterIndex index = new SplitterIndex(walls);
 		final int maxtries = 50; // constant, only used to determine skip
-		// consider a subset of walls proportional to the number of tries, here 50, seems to randomize the access a bit
+		// progress is counted for a subset of walls proportional to the number of tries, here 50,
+		// as the expected number of partition iterations in Constants was measured this way
 		int skip = (walls.size() / maxtries);
 		if (skip == 0)
 			skip = 1;
-		assert 0 < skip : "Increment for loop must be positive";
-		for (int i = 0; i < walls.size(); i += skip) {
+		assert 0 < skip : "Increment for progress count must be positive";
+		for (int i = 0; i < walls.size(); i++) {
 			Wall wall = walls.get(i);
 			// skip walls where the partition flag was set
 			if (wall.isPartition())
 				continue;
 			// provide feedback for progress bar every 32 iterations
-			partiters++;
-			if ((partiters & 31) == 0) {
-				updateProgressBar(partiters); // side effect: update progress bar
+			if (i % skip == 0) {
+				final int iterations = partiters.incrementAndGet();
+				if ((iterations & 31) == 0) {
+					updateProgressBar(iterations); // side effect: update progress bar
+				}
 			}
 			// check grade and keep track of minimum
-			int grade = wall.calculateGrade(walls);
+			int grade = index.calculateGrade(wall);
 			if (grade < bestgrade) {
 				bestgrade = grade;
 				result = wall; // determine wall with smallest grade
@@ -165,28 +313,39 @@ public class BSPBuilder {
 	/**
 	 * Push information on progress into maze such that UI can update progress bar.
 	 * The published progress value may reach 100 before the actual maze generation is complete but it will never exceed 100.
+	 * The order is only notified if the percentage increased, so there are at most 101 calls per maze.
+	 * In parallel mode, worker threads call this method concurrently, the lock keeps the
+	 * published values increasing and the thread that called generateBSPNodes is checked for cancel requests.
+	 * The method also checks for cancel requests, it does not pause the executing thread.
 	 * @param partiters counting partition iterations (precise semantics obscure)
 	 * @throws InterruptedException if executing thread is interrupted
 	 */
-	private void updateProgressBar(int partiters) throws InterruptedException {
+	private synchronized void updateProgressBar(int partiters) throws InterruptedException {
 		// During maze generation, the most time consuming part needs to occasionally update the current screen
-		// 
+		// and to recognize if it is notified to stop
+		if (parallel) {
+			checkCanceled();
+		}
+		else {
+			MazeBuilder.checkInterrupted();
+		}
 		if (null != order) {
 			// the current level of progress is estimated
 			// the expectedPartiters value is sometimes too low
 			// so it is necessary to adjust the max value that is placed into the progress bar
 			// this also means that 100 does not mean the generation is complete
-			int percentage = partiters*100/expectedPartiters ;
-			if (percentage > 100) {
-				LOGGER.warning("Progress estimate exceeds 100, set to 100 to mitigate issue");
-				percentage = 100;
+			int current = partiters*100/expectedPartiters ;
+			if (current > 100) {
+				current = 100;
 			}
+			if (current <= percentage)
+				return;
+			if (100 == current) {
+				LOGGER.fine("Progress estimate reached 100 before BSP tree is complete");
+			}
+			percentage = current;
 			//  update progress bar
 			order.updateProgress(percentage) ;
-			// give main thread a chance to process keyboard events
-			if (percentage < 100) {
-				Thread.sleep(10);
-			}
 		}
 	}
 
@@ -217,8 +376,10 @@ public class BSPBuilder {
 		// the floorplan only lists wallboards.
 		// We need to determine walls, i.e. wallboards over multiple cells in
 		// a vertical or horizontal direction.
-		ListOfWallsBuilder builder = new ListOfWallsBuilder(width, height, floorplan, dists, colchange);
-		List<Wall> walls = builder.generateWalls(); 
+		wallsBuilder = new ListOfWallsBuilder(width, height, floorplan, dists, colchange);
+		// Walls continue beyond crossing wallboards, merging them gives fewer polygons to partition,
+		// the leaves get the walls as generated such that the map marks them as seen one by one
+		List<Wall> walls = wallsBuilder.mergeCollinearWalls(wallsBuilder.generateWalls()); 
 
 		// The size and balance of the resulting BSP tree depends on 
 		// which polygons are selected for the partitioning.
@@ -234,6 +395,24 @@ public class BSPBuilder {
 		
 		// Start the recursive BSP calculation for the list of polygons
 		// and return the root node of the tree
-		return genNodes(walls); 
+		final int initialWalls = walls.size();
+		final BSPNode root;
+		if (parallel) {
+			owner = Thread.currentThread();
+			canceled = false;
+			root = genNodesInParallel(walls);
+		}
+		else {
+			root = genNodes(walls);
+		}
+		statistics = new BSPStatistics(root, initialWalls, partiters.get());
+		return root;
+	}
+	/**
+	 * Gives figures on the size and shape of the tree that was generated last.
+	 * @return the statistics, null if {@link #generateBSPNodes()} did not complete yet
+	 */
+	public BSPStatistics getStatistics() {
+		return statistics;
 	}
 }
@@ -0,0 +1,173 @@
+package generation;
+
+import java.util.List;
+
+/**
+ * Figures that describe the shape and size of a tree of BSPNodes.
+ * The FirstPersonView traverses the tree for each frame it draws,
+ * so a deep tree or a tree with many walls slows down drawing.
+ * The figures help to tune how the BSPBuilder picks splitters
+ * and to recognize trees that are badly balanced.
+ *
+ * The BSPBuilder computes the statistics for each tree it generates,
+ * including the number of walls before partitioning and the number of partition iterations.
+ * For a tree that is read from a file, these two figures are unknown.
+ * The object is immutable.
+ */
+public class BSPStatistics {
+	/**
+	 * Value of figures that only the BSPBuilder knows for a tree that was not generated.
+	 */
+	public static final int UNKNOWN = -1;
+
+	private final int nodes ;			// number of branches and leaves
+	private final int leaves ;			// number of leaves
+	private final int maxDepth ;		// longest path from the root to a leaf, the root has depth 0
+	private final long leafDepths ;		// sum of the depths of all leaves
+	private final int walls ;			// number of walls in all leaves
+	private final int minWallsPerLeaf ;
+	private final int maxWallsPerLeaf ;
+	private final int initialWalls ;	// number of walls before partitioning, UNKNOWN if not generated
+	private final int partiters ;		// number of partition iterations, UNKNOWN if not generated
+
+	/**
+	 * Constructor computes the figures for a tree without information on its generation.
+	 * @param root of a tree of BSPNodes, not null
+	 */
+	public BSPStatistics(BSPNode root) {
+		this(root, UNKNOWN, UNKNOWN);
+	}
+	/**
+	 * Constructor computes the figures for a tree that was just generated.
+	 * @param root of a tree of BSPNodes, not null
+	 * @param initialWalls the number of walls before partitioning, UNKNOWN if not known
+	 * @param partiters the number of partition iterations, UNKNOWN if not known
+	 */
+	public BSPStatistics(BSPNode root, int initialWalls, int partiters) {
+		// nodes, leaves, max depth, walls, min walls, max walls
+		final int[] counts = {0, 0, 0, 0, Integer.MAX_VALUE, 0};
+		final long[] depths = new long[1];
+		collect(root, 0, counts, depths);
+		nodes = counts[0];
+		leaves = counts[1];
+		maxDepth = counts[2];
+		walls = counts[3];
+		minWallsPerLeaf = counts[4];
+		maxWallsPerLeaf = counts[5];
+		leafDepths = depths[0];
+		this.initialWalls = initialWalls;
+		this.partiters = partiters;
+	}
+	/**
+	 * Collects the figures for a subtree.
+	 * @param node the root of the subtree
+	 * @param depth the depth of the node
+	 * @param counts accumulates nodes, leaves, max depth, walls, min walls and max walls per leaf
+	 * @param depths accumulates the sum of the depths of all leaves
+	 */
+	private static void collect(BSPNode node, int depth, int[] counts, long[] depths) {
+		counts[0]++;
+		if (node.isIsleaf()) {
+			final List<Wall> list = ((BSPLeaf) node).getAllWalls();
+			counts[1]++;
+			counts[2] = Math.max(counts[2], depth);
+			counts[3] += list.size();
+			counts[4] = Math.min(counts[4], list.size());
+			counts[5] = Math.max(counts[5], list.size());
+			depths[0] += depth;
+			return;
+		}
+		final BSPBranch branch = (BSPBranch) node;
+		collect(branch.getLeftBranch(), depth + 1, counts, depths);
+		collect(branch.getRightBranch(), depth + 1, counts, depths);
+	}
+
+	/**
+	 * @return the number of nodes, branches and leaves
+	 */
+	public int getNodeCount() {
+		return nodes;
+	}
+	/**
+	 * @return the number of leaves
+	 */
+	public int getLeafCount() {
+		return leaves;
+	}
+	/**
+	 * @return the length of the longest path from the root to a leaf, 0 if the root is a leaf
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+	/**
+	 * @return the average length of a path from the root to a leaf
+	 */
+	public double getAverageDepth() {
+		return (double) leafDepths / leaves;
+	}
+	/**
+	 * Gives the depth of a perfectly balanced tree with the same number of leaves
+	 * for a comparison with {@link #getMaxDepth()}.
+	 * @return the smallest possible max depth for the number of leaves
+	 */
+	public int getMinimalDepth() {
+		// ceil(log2(leaves))
+		return 32 - Integer.numberOfLeadingZeros(leaves - 1);
+	}
+	/**
+	 * @return the number of walls in all leaves
+	 */
+	public int getWallCount() {
+		return walls;
+	}
+	/**
+	 * @return the smallest number of walls in a leaf
+	 */
+	public int getMinWallsPerLeaf() {
+		return minWallsPerLeaf;
+	}
+	/**
+	 * @return the largest number of walls in a leaf
+	 */
+	public int getMaxWallsPerLeaf() {
+		return maxWallsPerLeaf;
+	}
+	/**
+	 * @return the average number of walls in a leaf
+	 */
+	public double getAverageWallsPerLeaf() {
+		return (double) walls / leaves;
+	}
+	/**
+	 * @return the number of walls before partitioning, UNKNOWN if the tree was not generated
+	 */
+	public int getInitialWallCount() {
+		return initialWalls;
+	}
+	/**
+	 * Gives the number of walls that were split by a splitter.
+	 * Each split replaces one wall by two, so this is the number of
+	 * additional walls the FirstPersonView may need to draw.
+	 * @return the number of splits, UNKNOWN if the tree was not generated
+	 */
+	public int getSplitCount() {
+		return (UNKNOWN == initialWalls) ? UNKNOWN : walls - initialWalls;
+	}
+	/**
+	 * @return the number of partition iterations counted for the progress bar,
+	 * UNKNOWN if the tree was not generated
+	 */
+	public int getPartitionIterations() {
+		return partiters;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("nodes %d, leaves %d, depth max %d avg %.1f min %d, walls %d, per leaf min %d avg %.1f max %d, splits %s, partiters %s",
+				nodes, leaves, maxDepth, getAverageDepth(), getMinimalDepth(), walls,
+				minWallsPerLeaf, getAverageWallsPerLeaf(), maxWallsPerLeaf,
+				(UNKNOWN == getSplitCount()) ? "unknown" : Integer.toString(getSplitCount()),
+				(UNKNOWN == partiters) ? "unknown" : Integer.toString(partiters));
+	}
+}
@@ -23,7 +23,32 @@ package generation;
  *
  */
 public enum CardinalDirection {
-	North, East, South, West ;
+	North(0, -1), East(1, 0), South(0, 1), West(-1, 0) ;
+	
+	// (dx,dy) pair as in Floorplan.java, fixed per direction
+	private final int dx;
+	private final int dy;
+	
+	private CardinalDirection(int dx, int dy) {
+		this.dx = dx;
+		this.dy = dy;
+	}
+	/**
+	 * Gives the x part of the (dx,dy) pair for the current direction
+	 * without allocating an array as getDxDyDirection does.
+	 * @return dx in {-1,0,1}
+	 */
+	public int getDx() {
+		return dx;
+	}
+	/**
+	 * Gives the y part of the (dx,dy) pair for the current direction
+	 * without allocating an array as getDxDyDirection does.
+	 * @return dy in {-1,0,1}
+	 */
+	public int getDy() {
+		return dy;
+	}
 	/** 
 	 * Gives the direction that results from a 90 degree clockwise rotation
 	 * applied to the current direction. 
@@ -64,10 +89,18 @@ public enum CardinalDirection {
 	}
 	/**
 	 * Gives a random direction. Values are picked with equal probabilities.
+	 * @param random is the stream of random numbers to draw from, can not be null
 	 * @return a random direction, distribution is uniform
 	 */
-	public CardinalDirection randomDirection() {
-		int i = SingleRandom.getRandom().nextIntWithinInterval(0, 3) ;
+	public CardinalDirection randomDirection(RandomStream random) {
+		return getDirectionForIndex(random.nextIntWithinInterval(0, 3)) ;
+	}
+	/**
+	 * Gives the direction for the given number.
+	 * @param i is the number, {@code 0 <= i <= 3}
+	 * @return North, East, South, West for 0, 1, 2, 3 respectively
+	 */
+	private static CardinalDirection getDirectionForIndex(int i) {
 		switch(i) {
 		case 0 : 
 			return CardinalDirection.North ;
@@ -122,28 +155,8 @@ public enum CardinalDirection {
 		public static int[] DIRS_X = { 1, 0, -1, 0 };
 		public static int[] DIRS_Y = { 0, 1, 0, -1 };
 		 */
-		int[] result = new int[2] ;
-		switch(this) {
-		case North: // flipped North : 
-			result[0] = 0 ;
-			result[1] = -1 ;
-			break ;
-		case East : 
-			result[0] = 1 ;
-			result[1] = 0 ;
-			break ;
-		case South: // flipped South : 
-			result[0] = 0 ;
-			result[1] = 1 ;
-			break ;
-		case West : 
-			result[0] = -1 ;
-			result[1] = 0 ;
-			break ;
-		default:
-			throw new RuntimeException("Inconsistent enum type") ;
-		}
-		return result ;
+		// new array on each call as callers are free to modify it
+		return new int[] {dx, dy} ;
 	}
 	/**
 	 * Maps the given angle to the closest (dx,dy) pair
@@ -0,0 +1,280 @@
+package generation;
+
+import java.util.List;
+
+/**
+ * An immutable, array-based copy of a tree of BSPNodes for fast traversal.
+ * The FirstPersonView walks the BSP tree for every frame it draws.
+ * With BSPBranch and BSPLeaf objects, this means following references,
+ * calling isIsleaf and getters on each node and iterating over a list of walls
+ * for each leaf. A compiled tree keeps the same information in a few parallel
+ * int arrays instead, such that the traversal works on indices only.
+ *
+ * Nodes are numbered in preorder, the root has index 0,
+ * the left child of a branch directly follows the branch
+ * and the index of its right child is stored.
+ * The walls of all leaves are packed into a single array in the same order,
+ * such that the walls of a leaf are consecutive.
+ *
+ * The geometry of the walls is copied, the Wall objects themselves are kept
+ * only to update their seen flag, as the seen flag is shared with the map
+ * and stored with a maze.
+ */
+public class CompiledBSPTree {
+	/**
+	 * Value of {@link #getRightChild(int)} for a leaf.
+	 */
+	public static final int LEAF = -1;
+	/**
+	 * Number of ints per wall in the packed wall array.
+	 */
+	private static final int WALL_SIZE = 5;
+
+	// per node: bounds of all walls in the subtree
+	private final int[] lowX;
+	private final int[] lowY;
+	private final int[] highX;
+	private final int[] highY;
+	// per node: splitter line of a branch, position (x,y) and extension (dx,dy), 0 for leaves
+	private final int[] splitX;
+	private final int[] splitY;
+	private final int[] splitDx;
+	private final int[] splitDy;
+	// per node: index of the right child of a branch, LEAF for leaves
+	private final int[] right;
+	// per node and one more: walls of node n have indices wallStart[n] to wallStart[n+1]-1, none for branches
+	private final int[] wallStart;
+	// per wall: start x, start y, end x, end y, color
+	private final int[] wallData;
+	// per wall: the original object
+	private final Wall[] walls;
+
+	/**
+	 * Constructor compiles the tree with the given root.
+	 * The given tree is not modified.
+	 * @param root of a tree of BSPNodes, not null
+	 */
+	public CompiledBSPTree(BSPNode root) {
+		// count nodes and walls to allocate arrays of the exact size
+		final int[] counts = new int[2];
+		count(root, counts);
+		final int nodes = counts[0];
+		lowX = new int[nodes];
+		lowY = new int[nodes];
+		highX = new int[nodes];
+		highY = new int[nodes];
+		splitX = new int[nodes];
+		splitY = new int[nodes];
+		splitDx = new int[nodes];
+		splitDy = new int[nodes];
+		right = new int[nodes];
+		wallStart = new int[nodes + 1];
+		wallData = new int[WALL_SIZE*counts[1]];
+		walls = new Wall[counts[1]];
+		final int[] next = new int[2];
+		compile(root, next);
+		wallStart[nodes] = next[1];
+	}
+	/**
+	 * Counts the nodes and walls of a BSP tree.
+	 * @param node the root of the tree
+	 * @param counts accumulates the number of nodes at index 0 and the number of walls at index 1
+	 */
+	private static void count(BSPNode node, int[] counts) {
+		counts[0]++;
+		if (node.isIsleaf()) {
+			counts[1] += ((BSPLeaf) node).getAllWalls().size();
+		}
+		else {
+			count(((BSPBranch) node).getLeftBranch(), counts);
+			count(((BSPBranch) node).getRightBranch(), counts);
+		}
+	}
+	/**
+	 * Copies a BSP tree in preorder into the arrays.
+	 * @param node the root of the tree
+	 * @param next holds the index of the next free node at index 0 and the next free wall at index 1
+	 */
+	private void compile(BSPNode node, int[] next) {
+		final int index = next[0]++;
+		lowX[index] = node.getLowerBoundX();
+		lowY[index] = node.getLowerBoundY();
+		highX[index] = node.getUpperBoundX();
+		highY[index] = node.getUpperBoundY();
+		wallStart[index] = next[1];
+		if (node.isIsleaf()) {
+			right[index] = LEAF;
+			final List<Wall> list = ((BSPLeaf) node).getAllWalls();
+			for (Wall wall : list) {
+				final int w = next[1]++;
+				final int offset = WALL_SIZE*w;
+				wallData[offset] = wall.getStartPositionX();
+				wallData[offset+1] = wall.getStartPositionY();
+				wallData[offset+2] = wall.getEndPositionX();
+				wallData[offset+3] = wall.getEndPositionY();
+				wallData[offset+4] = wall.getColor();
+				walls[w] = wall;
+			}
+			return;
+		}
+		final BSPBranch branch = (BSPBranch) node;
+		splitX[index] = branch.getX();
+		splitY[index] = branch.getY();
+		splitDx[index] = branch.getDx();
+		splitDy[index] = branch.getDy();
+		compile(branch.getLeftBranch(), next);
+		// the right subtree starts after the complete left subtree
+		right[index] = next[0];
+		compile(branch.getRightBranch(), next);
+	}
+
+	/////////////////////// nodes //////////////////////////////////////////////
+	/**
+	 * @return the number of nodes, the root has index 0
+	 */
+	public int getNodeCount() {
+		return right.length;
+	}
+	/**
+	 * @param node index of a node
+	 * @return true if the node is a leaf, false if it is a branch
+	 */
+	public boolean isLeaf(int node) {
+		return LEAF == right[node];
+	}
+	/**
+	 * @param node index of a branch
+	 * @return index of the left child
+	 */
+	public int getLeftChild(int node) {
+		return node + 1;
+	}
+	/**
+	 * @param node index of a node
+	 * @return index of the right child for a branch, LEAF for a leaf
+	 */
+	public int getRightChild(int node) {
+		return right[node];
+	}
+	/**
+	 * @param node index of a node
+	 * @return the lower bound of x coordinates of walls in the subtree
+	 */
+	public int getLowerBoundX(int node) {
+		return lowX[node];
+	}
+	/**
+	 * @param node index of a node
+	 * @return the lower bound of y coordinates of walls in the subtree
+	 */
+	public int getLowerBoundY(int node) {
+		return lowY[node];
+	}
+	/**
+	 * @param node index of a node
+	 * @return the upper bound of x coordinates of walls in the subtree
+	 */
+	public int getUpperBoundX(int node) {
+		return highX[node];
+	}
+	/**
+	 * @param node index of a node
+	 * @return the upper bound of y coordinates of walls in the subtree
+	 */
+	public int getUpperBoundY(int node) {
+		return highY[node];
+	}
+	/**
+	 * @param node index of a branch
+	 * @return x coordinate of the starting position of the splitter
+	 */
+	public int getX(int node) {
+		return splitX[node];
+	}
+	/**
+	 * @param node index of a branch
+	 * @return y coordinate of the starting position of the splitter
+	 */
+	public int getY(int node) {
+		return splitY[node];
+	}
+	/**
+	 * @param node index of a branch
+	 * @return extension of the splitter in x direction
+	 */
+	public int getDx(int node) {
+		return splitDx[node];
+	}
+	/**
+	 * @param node index of a branch
+	 * @return extension of the splitter in y direction
+	 */
+	public int getDy(int node) {
+		return splitDy[node];
+	}
+	/**
+	 * @param node index of a node
+	 * @return index of the first wall of a leaf
+	 */
+	public int getFirstWall(int node) {
+		return wallStart[node];
+	}
+	/**
+	 * @param node index of a node
+	 * @return index after the last wall of a leaf, the same as {@link #getFirstWall(int)} for a branch
+	 */
+	public int getEndWall(int node) {
+		return wallStart[node + 1];
+	}
+
+	/////////////////////// walls //////////////////////////////////////////////
+	/**
+	 * @return the number of walls in all leaves
+	 */
+	public int getWallCount() {
+		return walls.length;
+	}
+	/**
+	 * @param wall index of a wall
+	 * @return x coordinate of the starting position
+	 */
+	public int getStartPositionX(int wall) {
+		return wallData[WALL_SIZE*wall];
+	}
+	/**
+	 * @param wall index of a wall
+	 * @return y coordinate of the starting position
+	 */
+	public int getStartPositionY(int wall) {
+		return wallData[WALL_SIZE*wall+1];
+	}
+	/**
+	 * @param wall index of a wall
+	 * @return x coordinate of the end position
+	 */
+	public int getEndPositionX(int wall) {
+		return wallData[WALL_SIZE*wall+2];
+	}
+	/**
+	 * @param wall index of a wall
+	 * @return y coordinate of the end position
+	 */
+	public int getEndPositionY(int wall) {
+		return wallData[WALL_SIZE*wall+3];
+	}
+	/**
+	 * @param wall index of a wall
+	 * @return the color of the wall
+	 */
+	public int getColor(int wall) {
+		return wallData[WALL_SIZE*wall+4];
+	}
+	/**
+	 * Gives the original wall, for example to update its seen flag.
+	 * @param wall index of a wall
+	 * @return the wall object of the BSP tree that was compiled
+	 */
+	public Wall getWall(int wall) {
+		return walls[wall];
+	}
+}
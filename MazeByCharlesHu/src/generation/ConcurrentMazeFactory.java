@@ -0,0 +1,329 @@
+package generation;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * This class is a maze factory for many orders at a time.
+ * Unlike the MazeFactory, which refuses an order while it is busy,
+ * it accepts orders into a bounded queue and a fixed number of worker threads
+ * take orders from the queue and run the matching maze builder.
+ * An order is only refused if the queue is full or the factory has been shut down.
+ *
+ * Each builder works with its own random number stream, so the delivered maze
+ * only depends on the order, not on other orders that are processed at the same time.
+ * The deliver and updateProgress methods of an order are called
+ * on the worker thread that builds its maze.
+ *
+ * Orders can be canceled one by one with {@link #cancel(Order)}
+ * or all together with {@link #cancel()}. For monitoring, the factory tells
+ * how many orders are waiting, being built and delivered as well as the throughput.
+ *
+ * Workers are platform threads by default. Any other kind of thread,
+ * e.g., virtual threads on a Java version that supports them, can be used
+ * by providing a corresponding thread factory.
+ */
+public class ConcurrentMazeFactory implements Factory {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(ConcurrentMazeFactory.class.getName());
+
+	// worker threads with a bounded queue of orders that wait to be built
+	private final ThreadPoolExecutor executor;
+	// accepted orders that are not completed yet, with the task that builds them
+	private final Map<Order, OrderTask> pendingOrders = new ConcurrentHashMap<>();
+	// counters for monitoring
+	private final AtomicInteger deliveredCount = new AtomicInteger();
+	private final AtomicInteger canceledCount = new AtomicInteger();
+	// time of construction, throughput is measured from here on
+	private final long startTime = System.nanoTime();
+	// time when the last maze was delivered
+	private final AtomicLong lastDeliveryTime = new AtomicLong(startTime);
+
+	//////////////////////// Constructor ////////////////////////////////////////
+	/**
+	 * Constructor for a factory with the given number of workers,
+	 * which are platform threads that do not prevent the JVM from exiting.
+	 * @param workers the number of orders that are built at the same time, {@code 0 < workers}
+	 * @param queueCapacity the number of orders that can wait to be built, {@code 0 < queueCapacity}
+	 */
+	public ConcurrentMazeFactory(int workers, int queueCapacity) {
+		this(workers, queueCapacity, new WorkerThreadFactory());
+	}
+	/**
+	 * Constructor for a factory with the given number of workers
+	 * that are created with the given thread factory.
+	 * @param workers the number of orders that are built at the same time, {@code 0 < workers}
+	 * @param queueCapacity the number of orders that can wait to be built, {@code 0 < queueCapacity}
+	 * @param threadFactory creates the worker threads, can not be null
+	 */
+	public ConcurrentMazeFactory(int workers, int queueCapacity, ThreadFactory threadFactory) {
+		executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+		LOGGER.config("Concurrent maze factory with " + workers + " workers and a queue for " + queueCapacity + " orders");
+	}
+
+	//////////////////////// Factory interface //////////////////////////////////
+	/**
+	 * Takes or rejects an order. The order is refused if
+	 * the queue is full, if the factory has been shut down,
+	 * if the requested algorithm is not supported or if the
+	 * same order object has been accepted before and is not completed yet.
+	 */
+	@Override
+	public boolean order(Order order) {
+		final MazeBuilder builder = MazeFactory.createBuilder(order);
+		if (null == builder)
+			return false;
+		final OrderTask task = new OrderTask(order, builder);
+		if (null != pendingOrders.putIfAbsent(order, task)) {
+			LOGGER.warning("Refusing to take order, it is already in production");
+			return false;
+		}
+		try {
+			// the builder reads the order on the worker thread, right before it starts
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			pendingOrders.remove(order);
+			LOGGER.warning("Refusing to take order, queue is full or factory is shut down");
+			return false;
+		}
+		return true;
+	}
+	/**
+	 * Cancels all orders that are not completed yet.
+	 * Waiting orders are removed from the queue,
+	 * builders that are working on an order are interrupted.
+	 */
+	@Override
+	public void cancel() {
+		LOGGER.fine("Received call to cancel all orders");
+		for (Order order : new ArrayList<>(pendingOrders.keySet())) {
+			cancel(order);
+		}
+	}
+	/**
+	 * Cancels the given order if it is not completed yet.
+	 * A waiting order is removed from the queue,
+	 * the builder of an order in production is interrupted.
+	 * The order does not get a maze delivered, unless its builder
+	 * is already past its last check for an interrupt.
+	 * @param order is an order that has been accepted by this factory
+	 * @return true if the order has been canceled, false if it was completed or unknown
+	 */
+	public boolean cancel(Order order) {
+		final OrderTask task = pendingOrders.get(order);
+		if (null == task || !task.cancel(true))
+			return false;
+		// free the slot in the queue right away
+		executor.remove(task);
+		return true;
+	}
+	/**
+	 * Waits till all orders that have been accepted so far are either
+	 * delivered or canceled.
+	 */
+	@Override
+	public void waitTillDelivered() {
+		for (OrderTask task : new ArrayList<>(pendingOrders.values())) {
+			try {
+				// canceled or failed orders are complete as well, failures are logged by the task
+				task.completed.await();
+			} catch (InterruptedException e) {
+				LOGGER.warning("Interrupted while waiting for orders to be delivered");
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	/**
+	 * Stops taking orders, cancels all orders that are not completed yet
+	 * and lets the worker threads terminate.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+		cancel();
+	}
+
+	//////////////////////// Monitoring //////////////////////////////////////////
+	/**
+	 * Gives the number of orders that wait for a worker.
+	 * @return number of orders in the queue
+	 */
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+	/**
+	 * Gives the number of orders that are built right now.
+	 * @return number of busy workers
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+	/**
+	 * Gives the number of mazes delivered so far.
+	 * @return number of delivered orders
+	 */
+	public int getDeliveredCount() {
+		return deliveredCount.get();
+	}
+	/**
+	 * Gives the number of orders canceled so far.
+	 * @return number of canceled orders
+	 */
+	public int getCanceledCount() {
+		return canceledCount.get();
+	}
+	/**
+	 * Gives the number of mazes delivered per second, measured from the
+	 * construction of this factory till the latest delivery.
+	 * @return delivered mazes per second, 0 if nothing has been delivered yet
+	 */
+	public double getThroughput() {
+		final int delivered = deliveredCount.get();
+		final long elapsed = lastDeliveryTime.get() - startTime;
+		return (0 == delivered || 0 == elapsed) ? 0 : delivered * 1e9 / elapsed;
+	}
+
+	//////////////////////// Extension //////////////////////////////////////////
+	/**
+	 * Is called once for each accepted order when it is complete, i.e., when its
+	 * maze was delivered, its builder failed or it was canceled. For an order that
+	 * was in production, this happens after its builder has stopped.
+	 * The call happens before {@link #waitTillDelivered()} returns for the order,
+	 * either on the worker thread or on the thread that canceled a waiting order.
+	 * Does nothing by default, subclasses can override it to release resources
+	 * that were reserved for the order.
+	 * @param order the completed order
+	 */
+	protected void orderCompleted(Order order) {
+		// nothing to do by default
+	}
+
+	///////////////////////// private classes ///////////////////////////////////
+	/**
+	 * Task that builds the maze for a single order on a worker thread
+	 * and keeps track of the outcome once it is complete.
+	 */
+	private final class OrderTask extends FutureTask<Void> {
+		// the task is waiting, is run by a worker or was canceled before a worker took it
+		private static final int WAITING = 0;
+		private static final int RUNNING = 1;
+		private static final int SKIPPED = 2;
+
+		private final Order order;
+		// WAITING till either a worker starts to build the maze or the task is canceled before
+		private final AtomicInteger state;
+		// counted down once the counters are updated, which happens after the builder has stopped
+		private final CountDownLatch completed = new CountDownLatch(1);
+
+		/**
+		 * Constructor
+		 * @param order the order to build a maze for
+		 * @param builder the builder that matches the order
+		 */
+		OrderTask(Order order, MazeBuilder builder) {
+			this(order, builder, new AtomicInteger(WAITING));
+		}
+		/**
+		 * Constructor that shares the state with the call that builds the maze.
+		 * The builder only starts if the task was not canceled before.
+		 */
+		private OrderTask(Order order, MazeBuilder builder, AtomicInteger state) {
+			super(() -> {
+				if (state.compareAndSet(WAITING, RUNNING)) {
+					builder.buildOrder(order);
+					builder.run();
+				}
+				return null;
+			});
+			this.order = order;
+			this.state = state;
+		}
+
+		/**
+		 * Runs the builder on the worker thread and records the outcome
+		 * once the builder has stopped, also if the task was canceled while it was running.
+		 */
+		@Override
+		public void run() {
+			try {
+				super.run();
+			} finally {
+				// a task that was canceled before it started is completed by done()
+				if (RUNNING == state.get())
+					complete();
+			}
+		}
+
+		/**
+		 * Completes a task that was canceled before a worker started to build its maze.
+		 * A task that was running is completed by run() after the builder has stopped,
+		 * as the builder may still deliver a maze after the task was canceled.
+		 */
+		@Override
+		protected void done() {
+			if (state.compareAndSet(WAITING, SKIPPED))
+				complete();
+		}
+
+		/**
+		 * Records the outcome of the order and releases threads that wait for it.
+		 */
+		private void complete() {
+			try {
+				recordOutcome();
+				orderCompleted(order);
+			} finally {
+				completed.countDown();
+			}
+		}
+
+		/**
+		 * Updates counters and removes the order from the pending orders.
+		 */
+		private void recordOutcome() {
+			pendingOrders.remove(order, this);
+			if (isCancelled()) {
+				canceledCount.incrementAndGet();
+				return;
+			}
+			try {
+				get();
+				deliveredCount.incrementAndGet();
+				lastDeliveryTime.set(System.nanoTime());
+			} catch (ExecutionException e) {
+				LOGGER.severe("Maze generation failed for order: " + e.getCause());
+			} catch (InterruptedException e) {
+				// can not happen, task is complete
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	/**
+	 * Creates the worker threads, they are numbered and marked as daemons.
+	 */
+	private static final class WorkerThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			final Thread thread = new Thread(runnable, "MazeWorker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
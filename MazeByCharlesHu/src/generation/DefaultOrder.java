@@ -93,6 +93,28 @@ public class DefaultOrder implements Order {
 	 */
 	int seed;
 	
+	/**
+	 * The maze generation can be allowed to distribute its
+	 * work across multiple threads. Builder algorithms that 
+	 * support it, e.g. Boruvka's algorithm, then work in parallel.
+	 * The distance computation works in parallel for all algorithms.
+	 * The resulting maze is the same as for a sequential generation.
+	 * Default is false.
+	 * 
+	 * The MazeFactory needs this information to select
+	 * a corresponding builder.
+	 */
+	boolean parallel;
+	
+	/**
+	 * The renderer denotes how the first person view 
+	 * will draw the maze. Only the BSP renderer needs a 
+	 * tree of BSP nodes, so the MazeFactory skips building
+	 * it for the Grid renderer.
+	 * Default is BSP.
+	 */
+	Renderer renderer;
+	
 	/**
 	 * The maze field provides a reference to the maze
 	 * that the factory generates. 
@@ -100,8 +122,9 @@ public class DefaultOrder implements Order {
 	 * to the MazeFactory.
 	 * This field is set by the MazeFactory once
 	 * the maze generation is complete. 
+	 * It is volatile as the maze is delivered by a worker thread.
 	 */
-	Maze maze;
+	volatile Maze maze;
 	
 	/**
 	 * Progress denotes the current progress value.
@@ -111,8 +134,9 @@ public class DefaultOrder implements Order {
 	 * to completion or completed.
 	 * This field is set by the MazeFactory and updated
 	 * during the maze generation.
+	 * It is volatile as progress is reported by a worker thread.
 	 */
-	int progress;
+	volatile int progress;
 	
 	/**
 	 * Constructor that initializes fields to meaningful default values.
@@ -127,7 +151,7 @@ public class DefaultOrder implements Order {
 		// seed = 13; // some arbitrary starting value
 		// maze = null; // there is no maze object at this moment
 		// progress = 0; // 0 is an ok starting value for progress
-		init(0, Builder.DFS, true, 13, null, 0);
+		init(0, Builder.DFS, true, 13, false, null, 0);
 		
 	}
 	/**
@@ -137,7 +161,7 @@ public class DefaultOrder implements Order {
 	 * @param skillLevel the selected size of the maze, {@literal 0 <= skillLevel <= 15}
 	 */
     public DefaultOrder(int skillLevel) {
-    	init(skillLevel, Builder.DFS, true, 13, null, 0);
+    	init(skillLevel, Builder.DFS, true, 13, false, null, 0);
     }
 	/**
 	 * Constructor that initializes fields to the given values.
@@ -153,7 +177,21 @@ public class DefaultOrder implements Order {
     	// assign parameter values
     	// resulting maze reference is null at this point
     	// current level of progress is 0
-        init(skillLevel, builder, perfect, seed, null, 0);
+        init(skillLevel, builder, perfect, seed, false, null, 0);
+    }
+	/**
+	 * Constructor that initializes fields to the given values.
+	 * If parameter values are chosen accordingly, 
+	 * a newly constructed object is sufficiently configured to 
+	 * make the MazeFactory deliver a fully functional maze. 
+	 * @param skillLevel the selected size of the maze, {@literal 0 <= skillLevel <= 15}
+	 * @param builder the selected builder algorithm
+	 * @param perfect the maze shall be perfect or not
+	 * @param seed the seed for the random number generator
+	 * @param parallel the maze may be generated with multiple threads or not
+	 */    
+    public DefaultOrder(int skillLevel, Builder builder, boolean perfect, int seed, boolean parallel) {
+        init(skillLevel, builder, perfect, seed, parallel, null, 0);
     }
     
     /**
@@ -163,20 +201,24 @@ public class DefaultOrder implements Order {
      * @param builder the builder algorithm
      * @param perfect if the maze is perfect or not
      * @param seed the random number generator seed
+     * @param parallel if the maze may be generated with multiple threads
      * @param maze the maze
      * @param progress the current level of progress
      */
-    private void init(int size, Builder builder, boolean perfect, int seed, Maze maze, int progress) {
+    private void init(int size, Builder builder, boolean perfect, int seed, boolean parallel, Maze maze, int progress) {
     	setSkillLevel(size); // benefits from checking range constraints
     	this.builder = builder;
     	perfectMaze = perfect;
     	this.seed = seed;
+    	this.parallel = parallel;
+    	renderer = Renderer.BSP; // set separately with setRenderer
     	this.maze = maze;
     	this.progress = progress; // do not use updateProgress method, subject to override in subclasses!
     	LOGGER.fine("Constructor asks for maze of size " + skillLevel 
     			+ ", algorithm " + builder 
     			+ ", perfect? " + perfectMaze 
     			+ ", seed " + seed 
+    			+ ", parallel? " + parallel 
     			+ ", resulting maze " + maze 
     			+ ", progress "  + progress);
     }
@@ -259,6 +301,40 @@ public class DefaultOrder implements Order {
 		return seed;
 	}
 
+	/**
+	 * @return true if the maze may be generated with multiple threads, false otherwise
+	 */
+	@Override
+	public boolean isParallel() {
+		LOGGER.fine("provide info about parallel generation, parallel? " + parallel);
+		return parallel;
+	}
+	/**
+	 * Selects if the maze generation may distribute its work across multiple threads. 
+	 * @param parallel if true the builder algorithm may work in parallel if it supports it
+	 */
+	public void setParallel(boolean parallel) {
+		LOGGER.fine("receive info about parallel generation, parallel? " + parallel);
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @return the renderer that will draw the first person view of the maze
+	 */
+	@Override
+	public Renderer getRenderer() {
+		LOGGER.fine("provide renderer info: " + renderer);
+		return renderer;
+	}
+	/**
+	 * Selects the renderer for the first person view.
+	 * @param renderer if Grid, the maze is delivered without a tree of BSP nodes
+	 */
+	public void setRenderer(Renderer renderer) {
+		LOGGER.fine("receive renderer info: " + renderer);
+		this.renderer = renderer;
+	}
+
 
 	/**
 	 * @return a reference to the computed maze once it is computed, null otherwise
@@ -1,5 +1,17 @@
 package generation;
 
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
 /**
  * This class has the responsibility to provide the distance
  * for each cell to the exit of a maze.
@@ -48,6 +60,14 @@ public class Distance {
 	 * obtain it and manipulate its content. 
 	 */
 	private int[][] dists; 
+	/**
+	 * Distance values that are read in place, for example from a file
+	 * that is mapped into memory, with the value for (x,y) at index y*width+x.
+	 * Only one of dists and mappedDists is non-null.
+	 * Methods that need the matrix copy the values into dists first,
+	 * see {@link #materialize()}.
+	 */
+	private IntBuffer mappedDists;
 	/** 
 	 * The exit position has a distance of 1
 	 * which is also the minimum of all values in dists.
@@ -93,6 +113,20 @@ public class Distance {
 		// exitPosition and startPosition
 		setAllDistanceValues(distances);
 	}
+	/**
+	 * Constructor that reads distance values in place from the given buffer,
+	 * for example a buffer that is mapped to a file with FileChannel.map.
+	 * Values are not copied unless the matrix is requested or distances are computed.
+	 * @param w is the width of the maze in the horizontal direction
+	 * @param h is the height of the maze in the vertical direction
+	 * @param distances holds w * h values in row-major order, the value for (x,y) at index y*w+x
+	 */
+	public Distance(int w, int h, IntBuffer distances) {
+		assert distances.limit() >= w*h : "Distance needs a value for each cell";
+		width = w;
+		height = h;
+		mappedDists = distances;
+	}
 	/**
 	 * Sets the internal attribute to the given parameter value.
 	 * Can be used to provide precomputed distance values to an object
@@ -107,6 +141,7 @@ public class Distance {
 		width = distances.length;
 		height = distances[0].length;
 		this.dists = distances;
+		mappedDists = null;
 		// reset exit and start positions
 		// note: lazy evaluation in the sense that positions are
 		// computed on demand and then cached on corresponding
@@ -122,6 +157,7 @@ public class Distance {
 	 * @return array with distance values
 	 */
 	public int[][] getAllDistanceValues() {
+		materialize();
 		return dists;
 	}
 	/**
@@ -131,7 +167,7 @@ public class Distance {
 	 * @return the distance value for the given (x,y) position
 	 */
 	public int getDistanceValue(int x, int y) {
-		return dists[x][y] ;
+		return (null != dists) ? dists[x][y] : mappedDists.get(y*width+x) ;
 	}
 	/**
 	 * Compute distances for given cells object of a maze.
@@ -151,7 +187,27 @@ public class Distance {
 	 * @return exit position somewhere on the  border
 	 */
 	public int[] computeDistances(Floorplan cells) {
+		return computeDistances(cells, false);
+	}
+	/**
+	 * Compute distances for given cells object of a maze,
+	 * see {@link #computeDistances(Floorplan)}.
+	 * In parallel mode, each frontier of the breadth-first search
+	 * is expanded with multiple threads. The resulting distance values,
+	 * exit and starting position are the same as for a sequential computation.
+	 * @param cells with information on wallboards for a maze, can not be null, read only
+	 * @param parallel true to compute distances with multiple threads, false for a single thread
+	 * @return exit position somewhere on the  border
+	 */
+	public int[] computeDistances(Floorplan cells, boolean parallel) {
 		// constraint: cells must be of size (width x height)
+		materialize();
+		if (parallel) {
+			computeDistsInParallel(cells, width/2, height/2);
+			exitPosition = getPositionWithMaxDistanceOnBorder();
+			computeDistsInParallel(cells, exitPosition[0], exitPosition[1]);
+			return exitPosition ;
+		}
 		
 		// Step 1: find a suitable exit position
 		// Heuristic:
@@ -167,6 +223,136 @@ public class Distance {
 		return exitPosition ;
 	}
 
+	/**
+	 * Compute distances for given cells object of a maze
+	 * with respect to the given exit position.
+	 * Unlike {@link #computeDistances(Floorplan)}, the exit position
+	 * is not searched for but kept as is.
+	 * The starting position is determined on demand afterwards.
+	 * @param cells with information on wallboards for a maze, can not be null, read only
+	 * @param exitX is the x coordinate of the exit, {@code 0 <= exitX < width}
+	 * @param exitY is the y coordinate of the exit, {@code 0 <= exitY < height}
+	 */
+	public void computeDistances(Floorplan cells, int exitX, int exitY) {
+		materialize();
+		computeDists(cells, exitX, exitY);
+		exitPosition = new int[] {exitX, exitY};
+	}
+	
+	/**
+	 * Updates distance values after wallboards of the maze have been added or removed,
+	 * for example with {@link Floorplan#addWallboard(Wallboard, boolean)} or 
+	 * {@link Floorplan#deleteWallboard(Wallboard)}.
+	 * The given cells must already reflect the changes.
+	 * For each given wallboard, the cells tells if it is now up or down.
+	 * The exit position stays the same and keeps a distance of 1.
+	 * 
+	 * Only the affected region is repaired instead of recomputing all distances:
+	 * an added wallboard can only increase distances, namely for those cells 
+	 * whose shortest paths to the exit all relied on the wallboard being down.
+	 * Such cells are identified first and their distances are invalidated.
+	 * A removed wallboard can only decrease distances, starting at its two sides.
+	 * Invalidated cells and both sides of removed wallboards are then relaxed 
+	 * outward with a work queue until no distance improves anymore.
+	 * 
+	 * Cells that can no longer reach the exit get the value INFINITY,
+	 * which is for example the case if a wallboard closes off a dead end.
+	 * The starting position is determined again on demand afterwards,
+	 * it is the reachable cell that is farthest away from the exit.
+	 * @param cells with information on wallboards for a maze, can not be null, read only
+	 * @param changedWallboards wallboards that have been added or removed since distances were computed
+	 * @return list of positions {@code (x,y)=(array[0],array[1])} whose distance value changed
+	 */
+	public List<int[]> updateDistances(Floorplan cells, Collection<Wallboard> changedWallboards) {
+		materialize();
+		final int[] exit = getExitPosition();
+		final int exitCell = exit[0]*height+exit[1];
+		// distance values before the update for every cell that is touched, to tell which ones changed
+		final Map<Integer, Integer> previous = new HashMap<>();
+		final ArrayDeque<Integer> queue = new ArrayDeque<>();
+		// Step 1: invalidate cells that lost all shortest paths due to added wallboards
+		for (Wallboard wallboard : changedWallboards) {
+			if (!isOnBoard(wallboard.getNeighborX(), wallboard.getNeighborY()) ||
+					cells.hasNoWall(wallboard.getX(), wallboard.getY(), wallboard.getDirection()))
+				continue;
+			// the side farther away from the exit may have lost its shortest path
+			queue.add(wallboard.getX()*height+wallboard.getY());
+			queue.add(wallboard.getNeighborX()*height+wallboard.getNeighborY());
+		}
+		final List<Integer> invalidated = new ArrayList<>();
+		while (!queue.isEmpty()) {
+			final int cell = queue.poll();
+			final int x = cell / height;
+			final int y = cell - x*height;
+			final int distance = dists[x][y];
+			if (cell == exitCell || INFINITY == distance || hasNeighborWithDistance(cells, x, y, distance-1)) 
+				continue;
+			// no path of this length is left, neighbors that depend on this cell need to be checked as well
+			previous.putIfAbsent(cell, distance);
+			dists[x][y] = INFINITY;
+			invalidated.add(cell);
+			for (CardinalDirection cd : DIRECTIONS) {
+				final int nx = x + cd.getDx();
+				final int ny = y + cd.getDy();
+				if (isOnBoard(nx, ny) && cells.hasNoWall(x, y, cd) && distance+1 == dists[nx][ny]) {
+					queue.add(nx*height+ny);
+				}
+			}
+		}
+		// Step 2: give each invalidated cell a tentative distance from its valid neighbors
+		for (int cell : invalidated) {
+			final int x = cell / height;
+			final int y = cell - x*height;
+			for (CardinalDirection cd : DIRECTIONS) {
+				final int nx = x + cd.getDx();
+				final int ny = y + cd.getDy();
+				if (isOnBoard(nx, ny) && cells.hasNoWall(x, y, cd) && 
+						INFINITY != dists[nx][ny] && dists[nx][ny]+1 < dists[x][y]) {
+					dists[x][y] = dists[nx][ny]+1;
+				}
+			}
+			if (INFINITY != dists[x][y])
+				queue.add(cell);
+		}
+		// both sides of a removed wallboard may offer a shorter path to the other side
+		for (Wallboard wallboard : changedWallboards) {
+			if (!isOnBoard(wallboard.getNeighborX(), wallboard.getNeighborY()) ||
+					cells.hasWall(wallboard.getX(), wallboard.getY(), wallboard.getDirection()))
+				continue;
+			queue.add(wallboard.getX()*height+wallboard.getY());
+			queue.add(wallboard.getNeighborX()*height+wallboard.getNeighborY());
+		}
+		// Step 3: relax distances outward until no cell can be improved anymore
+		while (!queue.isEmpty()) {
+			final int cell = queue.poll();
+			final int x = cell / height;
+			final int y = cell - x*height;
+			if (INFINITY == dists[x][y])
+				continue;
+			final int nextDistance = dists[x][y] + 1;
+			for (CardinalDirection cd : DIRECTIONS) {
+				final int nx = x + cd.getDx();
+				final int ny = y + cd.getDy();
+				if (isOnBoard(nx, ny) && cells.hasNoWall(x, y, cd) && nextDistance < dists[nx][ny]) {
+					previous.putIfAbsent(nx*height+ny, dists[nx][ny]);
+					dists[nx][ny] = nextDistance;
+					queue.add(nx*height+ny);
+				}
+			}
+		}
+		// report cells whose final value differs from the value before the update
+		final List<int[]> changed = new ArrayList<>();
+		for (Map.Entry<Integer, Integer> entry : previous.entrySet()) {
+			final int x = entry.getKey() / height;
+			final int y = entry.getKey() - x*height;
+			if (dists[x][y] != entry.getValue())
+				changed.add(new int[] {x, y});
+		}
+		if (!changed.isEmpty())
+			startPosition = null;
+		return changed;
+	}
+
 	/**
 	 * Gets the starting position.
 	 * Assumes that computeDistances() was called before.
@@ -180,7 +366,7 @@ public class Distance {
 	/**
 	 * Gets maximum distance present in maze
 	 * Assumes that computeDistances() was called before
-	 * @return the maximum distance
+	 * @return the maximum distance of a cell that can reach the exit
 	 */
 	public int getMaxDistance() {
 		// the maximum distance is at the starting position
@@ -264,6 +450,7 @@ public class Distance {
 	 * exceeds the given threshold for the distance value. If so
 	 * it updates the result coordinates accordingly and returns 
 	 * the new threshold value.
+	 * A position that can not reach the exit is never a candidate.
 	 * @param x the x coordinate
 	 * @param y the y coordinate
 	 * @param d the current maximum distance as a threshold for comparison
@@ -271,10 +458,11 @@ public class Distance {
 	 * @return the new maximum distance after the comparison
 	 */
 	private int keepMaxDistance(int x, int y, int d, int[] result) {
-		if (dists[x][y] > d) {
+		final int value = getDistanceValue(x, y);
+		if (value > d && INFINITY != value) {
 			result[0] = x;
 			result[1] = y;
-			d = dists[x][y];
+			d = value;
 		}
 		return d;
 	}
@@ -289,10 +477,11 @@ public class Distance {
 		int[] result = new int[2] ;
 		for (int x = 0; x != width; x++)
 			for (int y = 0; y != height; y++) {
-				if (dists[x][y] < d) {
+				final int value = getDistanceValue(x, y);
+				if (value < d) {
 					result[0] = x;
 					result[1] = y;
-					d = dists[x][y];
+					d = value;
 				}
 			}
 		return result ;
@@ -307,161 +496,215 @@ public class Distance {
 
 	/**
 	 * Computes distances to the given position (ax,ay) for all cells in array dists.
+	 * Performs a breadth-first search from (ax,ay) such that cells are reached in order
+	 * of increasing distance and each cell receives its final value when it is reached first.
+	 * This takes time linear in the number of cells.
+	 * The work queue is a flat int array that holds each cell at most once,
+	 * encoded as x*height+y, and wallboards are checked directly on the bits of the floorplan.
+	 * Cells that can not be reached keep the value INFINITY.
 	 * @param cells with information on wallboards for a maze, can not be null
 	 * @param ax, position, x coordinate
 	 * @param ay, position, y coordinate
 	 */
 	private void computeDists(Floorplan cells, int ax, int ay) {
-		//int x, y;
 		// initialize the distance array with a value for infinity 
 		setAllDistanceValues(INFINITY) ;
 		// set the final distance at the exit position
 		dists[ax][ay] = 1;
-		// distribute values from this position to get started
-		pushDistanceValuesDFS2(cells, ax, ay);
-		int toDoCounter = countInfinity();
-		int progress; // used to recognize fixpoint, no progress, then stop
-		// go over this array as long as we can find something to do
-		// MEMO: there are likely to be much smarter ways to distribute distances in a breadth first manner...
-		// why not push identified cells with infinite distance on a "work to do" heap
-		// TODO: limit iterations to upperbound which is #cells == width * height
-		// in each iteration at least one cell should benefit from neighbor
-		// in each iteration at least one cell should receive its final value
-		// TODO: do a final checkup for enclosed areas left over with Max Int
-		do {
-			// check all entries in the distance array
-			for (int x = 0; x != width; x++) {
-				for (int y = 0; y != height; y++) 
-				{
-					if (dists[x][y] == INFINITY) {
-						continue;
-					}
-					// if the distance is not infinite, 
-					// let's see if the cell has a neighbor that we can update and 
-					// perform a depth first search on.
-					pushDistanceValuesDFS2(cells, x, y);
-				}
+		final int[] queue = new int[width*height];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = ax*height+ay;
+		while (head < tail) {
+			final int cell = queue[head++];
+			final int x = cell / height;
+			final int y = cell - x*height;
+			final int wallboards = cells.getValueOfCell(x, y);
+			final int nextDistance = dists[x][y] + 1; // distance of a neighbor
+			// check all four directions for reachable neighbors on the board that have not been reached yet
+			if ((wallboards & Floorplan.CW_TOP) == 0 && 0 < y && dists[x][y-1] == INFINITY) {
+				dists[x][y-1] = nextDistance;
+				queue[tail++] = cell-1;
 			}
-			progress = toDoCounter - countInfinity();
-			toDoCounter -= progress; // update to current value
-		} while (0 < progress);
-		//if (0 < countInfinity())
-		//	System.out.println("Distance: ERROR: All positions should have a finite distance to the exit, counted: " + countInfinity() );
-		assert (0 == countInfinity()) : 
+			if ((wallboards & Floorplan.CW_RIGHT) == 0 && x+1 < width && dists[x+1][y] == INFINITY) {
+				dists[x+1][y] = nextDistance;
+				queue[tail++] = cell+height;
+			}
+			if ((wallboards & Floorplan.CW_BOT) == 0 && y+1 < height && dists[x][y+1] == INFINITY) {
+				dists[x][y+1] = nextDistance;
+				queue[tail++] = cell+1;
+			}
+			if ((wallboards & Floorplan.CW_LEFT) == 0 && 0 < x && dists[x-1][y] == INFINITY) {
+				dists[x-1][y] = nextDistance;
+				queue[tail++] = cell-height;
+			}
+		}
+		assert (width*height == tail) : 
 			"All positions should have a finite distance to the exit";
-		// the computation is not good enough to have truly minimum values
-		saturateDistances(cells);
 	}
+	
 	/**
-	 * Follows a path as far as possible to push small distance values
-	 * into the maze
-	 * @param cells needed for checking wallboards, read only
-	 * @param sx starting position
-	 * @param sy starting position
-	 */
-	private void pushDistanceValuesDFS2(Floorplan cells, int sx, int sy) {
-		while (true) {
-			CardinalDirection nextn = updateNeighborDistancesAndDirection(cells, sx, sy);
-			if (nextn == null)
-				break; // exit the loop if we cannot find another cell to proceed with
-			// update coordinates for next cell
-			int[] dir = nextn.getDxDyDirection();
-			sx += dir[0];
-			sy += dir[1];
-			// follow the nextn node on a depth-first-search path
-		}
+	 * Directions to reach the neighbors of a cell, avoids a copy of the values array on each call
+	 */
+	private static final CardinalDirection[] DIRECTIONS = CardinalDirection.values();
+	
+	/**
+	 * Tells if the given position is inside the maze.
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return true if {@code 0 <= x < width} and {@code 0 <= y < height}, false otherwise
+	 */
+	private boolean isOnBoard(int x, int y) {
+		return 0 <= x && x < width && 0 <= y && y < height;
 	}
-
 	
 	/**
-	 * Sets all values in dists to given value
-	 * @param value
+	 * Tells if the given cell has a neighbor with the given distance 
+	 * that it can reach without crossing a wallboard.
+	 * @param cells with information on wallboards for a maze, can not be null
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param distance the distance value to look for
+	 * @return true if such a neighbor exists, false otherwise
 	 */
-	private void setAllDistanceValues(int value) {
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				dists[x][y] = value ;
-			}
+	private boolean hasNeighborWithDistance(Floorplan cells, int x, int y, int distance) {
+		for (CardinalDirection cd : DIRECTIONS) {
+			final int nx = x + cd.getDx();
+			final int ny = y + cd.getDy();
+			if (isOnBoard(nx, ny) && cells.hasNoWall(x, y, cd) && distance == dists[nx][ny])
+				return true;
 		}
+		return false;
 	}
+	
 	/**
-	 * Counts how often infinity values is present in matrix
-	 * @return the number of cells with an infinite distance to the exit
+	 * Frontiers with fewer cells than this are expanded by the calling thread alone,
+	 * as a parallel stream does not pay off for a handful of cells.
+	 * Corridors of a perfect maze give many such small frontiers.
 	 */
-	private int countInfinity() {
-		int result = 0;
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				if (dists[x][y] == INFINITY)
-					result++;
+	static final int PARALLEL_FRONTIER_THRESHOLD = 512;
+	
+	/**
+	 * Computes distances to the given position (ax,ay) for all cells in array dists
+	 * with a level-synchronous breadth-first search.
+	 * All cells of the current frontier have the same distance, their neighbors
+	 * are expanded in parallel on the common ForkJoinPool and form the next frontier.
+	 * A cell is claimed with a compare-and-set on a flat array of distances, 
+	 * so it enters the next frontier exactly once. 
+	 * As every cell in the next frontier gets the same distance, the order in which
+	 * threads claim cells does not matter and results match {@link #computeDists(Floorplan, int, int)}.
+	 * @param cells with information on wallboards for a maze, can not be null
+	 * @param ax, position, x coordinate
+	 * @param ay, position, y coordinate
+	 */
+	private void computeDistsInParallel(Floorplan cells, int ax, int ay) {
+		final int cellCount = width*height;
+		// cells are encoded as x*height+y, 0 means not reached yet
+		final AtomicIntegerArray distances = new AtomicIntegerArray(cellCount);
+		final AtomicInteger nextSize = new AtomicInteger();
+		int[] frontier = new int[cellCount];
+		int[] next = new int[cellCount];
+		frontier[0] = ax*height+ay;
+		distances.set(frontier[0], 1);
+		int size = 1;
+		int distance = 1;
+		int reached = 1;
+		while (size > 0) {
+			distance++;
+			nextSize.set(0);
+			final int[] current = frontier;
+			final int[] target = next;
+			final int d = distance;
+			if (size < PARALLEL_FRONTIER_THRESHOLD) {
+				for (int i = 0; i < size; i++) {
+					expandInParallel(cells, current[i], d, distances, target, nextSize);
+				}
+			}
+			else {
+				IntStream.range(0, size).parallel().forEach(i ->
+					expandInParallel(cells, current[i], d, distances, target, nextSize));
 			}
+			size = nextSize.get();
+			reached += size;
+			frontier = target;
+			next = current;
 		}
-		return result;
+		assert (cellCount == reached) : 
+			"All positions should have a finite distance to the exit";
+		// copy results into dists, unreached cells get INFINITY
+		IntStream.range(0, width).parallel().forEach(x -> {
+			for (int y = 0; y < height; y++) {
+				final int value = distances.get(x*height+y);
+				dists[x][y] = (0 == value) ? INFINITY : value;
+			}
+		});
 	}
+	
 	/**
-	 * Updates distance values for adjacent cells that are reachable
-	 * if value can be reduced to current distance plus 1. 
-	 * @param cells with information on wallboards for a maze, can not be null, read only
-	 * @param currentX x coordinate of current position
-	 * @param currentY y coordinate of current position
-	 * @return direction for a neighbor that has been updated or null if there is none
-	 */
-	private CardinalDirection updateNeighborDistancesAndDirection(Floorplan cells, int currentX, int currentY) {
-		CardinalDirection result = null; // returns null by default
-		int nextDistance = dists[currentX][currentY] + 1; // distance of a neighbor
-		int[] dir;
-		int nextX;
-		int nextY;
-		// check all four directions, update distance as needed
-		for (CardinalDirection cd: CardinalDirection.values()) {
-			// check for reachable neighbors
-			if (cells.hasNoWall(currentX, currentY, cd)) {
-				// check if neighbor is on board
-				dir = cd.getDxDyDirection();
-				nextX = currentX+dir[0];
-				nextY = currentY+dir[1];
-				// check if cell at (nextX,nextY) is within bounds
-				if ((0 <= nextX && nextX < width) && (0 <= nextY && nextY < height)) {
-					// check if neigbor's distance needs update
-					if (dists[nextX][nextY] > nextDistance) {
-						// update the neighbor's distance value
-						// mark that cell as the next one
-						dists[nextX][nextY] = nextDistance;
-						result = cd;
-					}
-				}
-			}
+	 * Claims all neighbors of the given cell that are reachable and not reached yet
+	 * and adds them to the next frontier. Safe to call concurrently for different cells.
+	 * @param cells with information on wallboards for a maze, can not be null
+	 * @param cell the cell to expand, encoded as x*height+y
+	 * @param distance the distance value for the neighbors
+	 * @param distances distance values shared by all threads, 0 for cells not reached yet
+	 * @param next the next frontier
+	 * @param nextSize the number of cells in the next frontier
+	 */
+	private void expandInParallel(Floorplan cells, int cell, int distance, 
+			AtomicIntegerArray distances, int[] next, AtomicInteger nextSize) {
+		final int x = cell / height;
+		final int y = cell - x*height;
+		final int wallboards = cells.getValueOfCell(x, y);
+		if ((wallboards & Floorplan.CW_TOP) == 0 && 0 < y) 
+			claim(cell-1, distance, distances, next, nextSize);
+		if ((wallboards & Floorplan.CW_RIGHT) == 0 && x+1 < width) 
+			claim(cell+height, distance, distances, next, nextSize);
+		if ((wallboards & Floorplan.CW_BOT) == 0 && y+1 < height) 
+			claim(cell+1, distance, distances, next, nextSize);
+		if ((wallboards & Floorplan.CW_LEFT) == 0 && 0 < x) 
+			claim(cell-height, distance, distances, next, nextSize);
+	}
+	
+	/**
+	 * Sets the distance of the given cell if it is not reached yet
+	 * and adds it to the next frontier if this thread won the race for it.
+	 * @param cell the cell, encoded as x*height+y
+	 * @param distance the distance value for the cell
+	 * @param distances distance values shared by all threads, 0 for cells not reached yet
+	 * @param next the next frontier
+	 * @param nextSize the number of cells in the next frontier
+	 */
+	private static void claim(int cell, int distance, 
+			AtomicIntegerArray distances, int[] next, AtomicInteger nextSize) {
+		if (0 == distances.get(cell) && distances.compareAndSet(cell, 0, distance)) {
+			next[nextSize.getAndIncrement()] = cell;
 		}
-		return result;
 	}
 	
 	/**
-	 * Fix-point iteration on distance matrix.
-	 * @param  cells with information on wallboards for a maze, can not be null, read only
-	 */
-	private void saturateDistances(Floorplan cells) {
-		boolean progress = false; 
-		//int count = 0;
-		int[] dir = null;
-		CardinalDirection nextn;
-		do {
-			progress = false; // reset termination criterion
-			// go through all positions
-			// check if we can update a neighbor to 
-			// a shorter distance, if so we made progress
+	 * Copies distance values that are read in place into the matrix dists.
+	 * Does nothing if the matrix is already in use.
+	 */
+	private void materialize() {
+		if (null == mappedDists)
+			return;
+		final int[][] matrix = new int[width][height];
+		for (int y = 0; y < height; y++) {
 			for (int x = 0; x < width; x++) {
-				for (int y = 0; y < height; y++) {
-					nextn = updateNeighborDistancesAndDirection(cells, x, y);
-					if (null != nextn) {
-						progress = true; // something changed
-						// follow neighbor on a depth-first-search path
-						dir = nextn.getDxDyDirection();
-						pushDistanceValuesDFS2(cells, x+dir[0], y+dir[1]);		
-					}
-				}
+				matrix[x][y] = mappedDists.get(y*width+x);
 			}
-			//count++;
-		} while (progress);
-		//System.out.println("Distance.saturate: #iterations needed " + count);
+		}
+		dists = matrix;
+		mappedDists = null;
+	}
+	
+	/**
+	 * Sets all values in dists to given value
+	 * @param value
+	 */
+	private void setAllDistanceValues(int value) {
+		for (int x = 0; x < width; x++) {
+			Arrays.fill(dists[x], value);
+		}
 	}
 }
\ No newline at end of file
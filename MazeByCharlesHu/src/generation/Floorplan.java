@@ -2,6 +2,8 @@ package generation;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -11,7 +13,7 @@ import java.util.NoSuchElementException;
  * with a 2 dimensional grid and it encapsulates access to each 
  * cell in that grid.
  *  
- * The internal two-dimensional array matches with a grid of cells as follows:
+ * The internal array of cells matches with a grid of cells as follows:
  * floorplan[0,y] form the left border, hence there is a wallboard on  left.
  * floorplan[width-1,y] form the right border, hence there is a wallboard on right.
  * floorplan[x,0] form the top border, hence there is a wallboard on top.
@@ -46,6 +48,12 @@ import java.util.NoSuchElementException;
  * and thus error prone. The encapsulation within this class 
  * localizes all bit operations for this encoding.
  * 
+ * Cells are stored in a single one-dimensional array in row-major order,
+ * i.e. cell (x,y) is at index y*width+x, such that a scan of a row
+ * walks through consecutive memory. As all flags fit into the lower 10 bits,
+ * a floorplan can store each cell in a short instead of an int, 
+ * see {@link Encoding}, which halves the memory needed for a large maze.
+ * 
  * This code is refactored code from Maze.java by Paul Falstad, www.falstad.com, Copyright (C) 1998, all rights reserved
  * Paul Falstad granted permission to modify and use code for teaching purposes.
  * The class resulted from refactoring the int[][] cells area in the original Maze and Mazebuilder classes into a class of its own.
@@ -88,17 +96,22 @@ public class Floorplan {
 	//west  = (-1,0)
 	//north = (0,-1)
 	
+	/**
+	 * Encodings for the internal storage of cells.
+	 * INT uses 4 bytes per cell and can hold any integer value.
+	 * SHORT uses 2 bytes per cell, which is sufficient for all 
+	 * CW_* flags up to CW_IN_ROOM. It is intended for large mazes.
+	 */
+	public enum Encoding { INT, SHORT };
+	
 	private int width;
 	private int height ;
-	private int[][] cells; // width x height array of cells, cells[width][height]
+	private final Encoding encoding;
+	private final CellStore cells; // width * height cells in row-major order, picked once by the constructor
 	// each cell contains an integer which encodes presence/absence of wallboards
-	// cells[i][j] can be read as (i,j) coordinates much like (x,y) coordinates
-	// where the first dimension x grows towards the right and 
-	// the second dimension y grows towards the bottom
-	// as if the (0,0) position is in the top-left corner.
-	// cells[i][j] is not intuitive in terms of rows and column indices in matrix notation 
-	// as position (i,j) would be column i and row j which is opposite to the normal  
-	// use of rows and columns indices for matrices.
+	// cell (x,y) is at index y*width+x where x grows towards the right and 
+	// y grows towards the bottom as if the (0,0) position is in the top-left corner.
+	// So the cells of a row are next to each other in memory.
 	
 	/**
 	 * Constructor
@@ -106,32 +119,78 @@ public class Floorplan {
 	 * @param h height, {@code 0 < h}
 	 */
 	public Floorplan(int w, int h) {
+		this(w, h, Encoding.INT);
+	}
+	
+	/**
+	 * Constructor with a choice of encoding for the internal storage.
+	 * @param w width, {@code 0 < w}
+	 * @param h height, {@code 0 < h}
+	 * @param encoding the encoding for the storage of each cell, can not be null
+	 */
+	public Floorplan(int w, int h, Encoding encoding) {
 		width = w ;
 		height = h ;
-		cells = new int[w][h];
+		this.encoding = encoding;
+		if (Encoding.SHORT == encoding)
+			cells = new ShortCells(new short[w*h]);
+		else
+			cells = new IntCells(new int[w*h]);
 	}
 
 	/**
 	 * Constructor that dimensions and initializes cells with the values from the given matrix.
 	 * This constructor is useful to obtain a duplicate of a floorplan.
-	 * @param input provides input data to copy cell content from
+	 * @param input provides input data to copy cell content from, input[x][y] is the value for cell (x,y)
 	 * precondition input != null
 	 */
 	public Floorplan(int[][] input){
-		// Alternative, 2d array is a 1d array with arrays as elements
-		width = input.length ;
-		height = input[0].length ;
-		cells = new int[width][];
-		for(int i = 0; i < width; i++)
-		    cells[i] = input[i].clone(); // clone row
-		/* Basic version
-		this(input.length, input[0].length);
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				cells[i][j] = input[i][j];
+		this(input.length, input[0].length, Encoding.INT);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				cells.set(y*width+x, input[x][y]);
 			}
 		}
-		*/
+	}
+	
+	/**
+	 * Constructor for encoding SHORT that directly uses the given array of cell values.
+	 * Warning: the given array is shared, not copied.
+	 * It is intended for readers that load a floorplan from a file.
+	 * @param w width, {@code 0 < w}
+	 * @param h height, {@code 0 < h}
+	 * @param input w * h cell values in row-major order, the value for cell (x,y) is at index y*w+x
+	 */
+	public Floorplan(int w, int h, short[] input) {
+		assert input.length == w*h : "Floorplan needs a value for each cell";
+		width = w ;
+		height = h ;
+		encoding = Encoding.SHORT;
+		cells = new ShortCells(input);
+	}
+	
+	/**
+	 * Constructor for encoding SHORT that reads and writes cell values in place in the given buffer,
+	 * for example a buffer that is mapped to a file with FileChannel.map.
+	 * The values are not copied, so a large floorplan is available right away.
+	 * @param w width, {@code 0 < w}
+	 * @param h height, {@code 0 < h}
+	 * @param input w * h cell values in row-major order starting at index 0, the value for cell (x,y) is at index y*w+x
+	 */
+	public Floorplan(int w, int h, ShortBuffer input) {
+		assert input.limit() >= w*h : "Floorplan needs a value for each cell";
+		width = w ;
+		height = h ;
+		encoding = Encoding.SHORT;
+		cells = new BufferCells(input);
+	}
+	
+	/**
+	 * Gets the encoding of the internal storage for cells.
+	 * @return the encoding
+	 */
+	public Encoding getEncoding() {
+		return encoding;
 	}
 	
 	/**
@@ -179,13 +238,7 @@ public class Floorplan {
 		final Floorplan o = (Floorplan)other ; // type cast safe after checking class objects
 		if ((width != o.width)||(height != o.height))
 			return false ;
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				if (cells[i][j] != o.cells[i][j])
-					return false ;
-			}
-		}
-		return true ;
+		return cells.hasSameValues(o.cells, width*height) ;
 	}
 	/**
 	 * Hashcode method is not implemented as it is not needed here.
@@ -206,7 +259,7 @@ public class Floorplan {
 	 */
 	public int getValueOfCell( int x, int y )
 	{
-		return cells[x][y] ;
+		return cells.get(getIndex(x, y)) ;
 	}
 	
 	/**
@@ -220,15 +273,13 @@ public class Floorplan {
 	public boolean canTearDown(Wallboard wallboard) {
 		int x = wallboard.getX();
 		int y = wallboard.getY();
-		int[] d = wallboard.getDirection().getDxDyDirection() ;
-		int dx = d[0];
-		int dy = d[1];
+		CardinalDirection cd = wallboard.getDirection();
 		// borders limit rooms (but for potential doors) and the outside limit of the maze
-		if (hasBorder(x, y, dx, dy))
+		if (hasBorder(x, y, cd))
 			return false;
 		// if there is no border, neighbor should be in legal range of values
 		// return true if neighbor has not been visited before
-		return isFirstVisit(x+dx, y+dy);
+		return isFirstVisit(x+cd.getDx(), y+cd.getDy());
 	}
 	/**
 	 * Checks if the given wall board contributes to a border.
@@ -239,27 +290,20 @@ public class Floorplan {
 	 * @return true is the wall board is part of a border
 	 */
 	public boolean isPartOfBorder(Wallboard wallboard) {
-		int x = wallboard.getX();
-		int y = wallboard.getY();
-		int[] d = wallboard.getDirection().getDxDyDirection() ;
-		int dx = d[0];
-		int dy = d[1];
 		// borders limit rooms (but for potential doors) 
 		// and the outside limit of the maze
-		return hasBorder(x, y, dx, dy);
+		return hasBorder(wallboard.getX(), wallboard.getY(), wallboard.getDirection());
 	}
 	/**
-	 * checks if cell (x,y) has a border in the given direction (dx,dy)
+	 * checks if cell (x,y) has a border in the given direction
 	 * @param x coordinate of cell
 	 * @param y coordinate of cell
-	 * @param dx direction towards side
-	 * @param dy direction towards side
+	 * @param cd direction towards side
 	 * precondition {@code 0 <= x < width, 0 <= y < height}
-	 * precondition {@code dx, dy in {-1,0,1}}
 	 * @return true if that side is marked as a border, false otherwise
 	 */
-	private boolean hasBorder(int x, int y, int dx, int dy) {
-		return hasMaskedBitsTrue(x, y, (getBoundForBit(getBit(dx, dy))));
+	private boolean hasBorder(int x, int y, CardinalDirection cd) {
+		return hasMaskedBitsTrue(x, y, (getBoundForBit(getCWConstantForDirection(cd))));
 	}
 
 	/// Methods that deal with visiting a particular cell //////////////////////////////////
@@ -416,14 +460,17 @@ public class Floorplan {
 	 * The wallboards of a room are declared as borders to prevent the generation mechanism from tearing them down.
 	 * Of course there must be a few walls where doors can be created so the border protection is removed
 	 * for .
+	 * Doors are picked with the given stream of random numbers, 
+	 * so a maze builder gets the same rooms for the same seed.
 	 * @param rw room width
 	 * @param rh room height
 	 * @param rx 1st corner, x coordinate
 	 * @param ry 1st corner, y coordinate
 	 * @param rxl 2nd corner, x coordinate
 	 * @param ryl 2nd corner, y coordinate
+	 * @param random is the stream of random numbers to draw from, can not be null
 	 */
-	public void markAreaAsRoom(int rw, int rh, int rx, int ry, int rxl, int ryl) {
+	public void markAreaAsRoom(int rw, int rh, int rx, int ry, int rxl, int ryl, RandomStream random) {
 		// Step 1: 
 		// clear all cells in area of room from all wallboards and borders
 		// mark all cells in area as being inside the room
@@ -446,7 +493,6 @@ public class Floorplan {
 		// so a maze generation algorithm can identify
 		// these wallboards and delete them to get into the room
 		int numBoards = (rw+rh)*2; // counter for the total number of wallboards
-		SingleRandom random = SingleRandom.getRandom() ;
 		// pick at most 5 wallboards
 		for (int ct = 0; ct != 5; ct++) { 
 			int door = random.nextIntWithinInterval(0, numBoards-1); // pick a random wallboard
@@ -583,12 +629,13 @@ public class Floorplan {
 	public void addWallboard(Wallboard wallboard, boolean internalWall) {
 		int x = wallboard.getX();
 		int y = wallboard.getY();
-		int[] d = wallboard.getDirection().getDxDyDirection() ;
+		int dx = wallboard.getDirection().getDx();
+		int dy = wallboard.getDirection().getDy();
 		// add wallboard on (x,y)
-		setWallToOne(x, y, d[0], d[1]);
+		setWallToOne(x, y, dx, dy);
 		// add same wallboard but for adjacent cell
 		if (internalWall)
-			setWallToOne(x+d[0], y+d[1], -d[0], -d[1]);
+			setWallToOne(x+dx, y+dy, -dx, -dy);
 	}
 
 	/**
@@ -603,9 +650,8 @@ public class Floorplan {
 	public void deleteWallboard(Wallboard wallboard) {
 		int x = wallboard.getX();
 		int y = wallboard.getY();
-		int[] d = wallboard.getDirection().getDxDyDirection() ;
-		int dx = d[0];
-		int dy = d[1];
+		int dx = wallboard.getDirection().getDx();
+		int dy = wallboard.getDirection().getDy();
 		// delete wallboard on (x,y)
 		setWallToZero(x, y, dx, dy);
 		// delete same wallboard but for adjacent cell
@@ -907,7 +953,8 @@ public class Floorplan {
 	 * @param cw_bit like CW_LEFT, CW_RIGHT, CW_TOP, CW_BOTTOM
 	 */
 	private void setBitToZero(int x, int y, int cw_bit) {
-		cells[x][y] &= ~cw_bit;
+		final int index = getIndex(x, y);
+		cells.set(index, cells.get(index) & ~cw_bit);
 	}
 	/**
 	 * Sets all wallboard bits to zero for a given cell
@@ -924,10 +971,10 @@ public class Floorplan {
 	// better to directly change client classes
 	//
 	protected boolean hasMaskedBitsTrue(int x, int y, int bitmask) {
-		return (cells[x][y] & bitmask) != 0;
+		return (cells.get(getIndex(x, y)) & bitmask) != 0;
 	}
 	protected boolean hasMaskedBitsFalse(int x, int y, int bitmask) {
-		return (cells[x][y] & bitmask) == 0;
+		return (cells.get(getIndex(x, y)) & bitmask) == 0;
 	}
 
 	/**
@@ -959,7 +1006,126 @@ public class Floorplan {
 	 * @param bitmask is the bitmask to use for adding 1's
 	 */
 	private void setBitToOne(int x, int y, int bitmask) {
-		cells[x][y] |= bitmask ;
+		final int index = getIndex(x, y);
+		cells.set(index, cells.get(index) | bitmask);
+	}
+	/**
+	 * Gives the position of a cell in the internal array.
+	 * A flat array does not catch an x out of range by itself,
+	 * it would wrap around to the next row, so the position is checked here.
+	 * @param x coordinate of cell, {@code 0 <= x < width}
+	 * @param y coordinate of cell, {@code 0 <= y < height}
+	 * @return index of the cell in row-major order
+	 * @throws IndexOutOfBoundsException if the position is outside of the floorplan
+	 */
+	private int getIndex(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new IndexOutOfBoundsException("Position (" + x + "," + y + ") is outside of floorplan");
+		return y*width+x;
+	}
+
+	////////////////// internal storage of cells //////////////////////////////////////////////////////////////
+	/**
+	 * Storage for the values of all cells in row-major order.
+	 * The constructor picks one implementation for the encoding and the source
+	 * of the values, so an access to a cell does not need to check
+	 * which kind of storage is in use.
+	 */
+	private interface CellStore {
+		/**
+		 * Gets the value of the cell at the given index
+		 * @param index position in row-major order
+		 * @return value of cell
+		 */
+		int get(int index);
+		/**
+		 * Sets the value of the cell at the given index
+		 * @param index position in row-major order
+		 * @param value new value of cell, must fit into 16 bits for encoding SHORT
+		 */
+		void set(int index, int value);
+		/**
+		 * Checks if the given store holds the same values for the first size cells.
+		 * @param other the store to compare with
+		 * @param size number of cells
+		 * @return true if all values match, false otherwise
+		 */
+		default boolean hasSameValues(CellStore other, int size) {
+			for (int i = 0; i < size; i++) {
+				if (get(i) != other.get(i))
+					return false ;
+			}
+			return true ;
+		}
+	}
+	/**
+	 * Storage for encoding INT, an int per cell.
+	 */
+	private static final class IntCells implements CellStore {
+		private final int[] values;
+
+		IntCells(int[] values) {
+			this.values = values;
+		}
+		@Override
+		public int get(int index) {
+			return values[index];
+		}
+		@Override
+		public void set(int index, int value) {
+			values[index] = value;
+		}
+		@Override
+		public boolean hasSameValues(CellStore other, int size) {
+			// same storage: compare arrays directly
+			if (other instanceof IntCells)
+				return Arrays.equals(values, ((IntCells) other).values);
+			return CellStore.super.hasSameValues(other, size);
+		}
+	}
+	/**
+	 * Storage for encoding SHORT, a short per cell in an array.
+	 */
+	private static final class ShortCells implements CellStore {
+		private final short[] values;
+
+		ShortCells(short[] values) {
+			this.values = values;
+		}
+		@Override
+		public int get(int index) {
+			return values[index];
+		}
+		@Override
+		public void set(int index, int value) {
+			values[index] = (short) value;
+		}
+		@Override
+		public boolean hasSameValues(CellStore other, int size) {
+			// same storage: compare arrays directly
+			if (other instanceof ShortCells)
+				return Arrays.equals(values, ((ShortCells) other).values);
+			return CellStore.super.hasSameValues(other, size);
+		}
+	}
+	/**
+	 * Storage for encoding SHORT that reads and writes values in place in a buffer,
+	 * e.g., a buffer that is mapped to a file.
+	 */
+	private static final class BufferCells implements CellStore {
+		private final ShortBuffer values;
+
+		BufferCells(ShortBuffer values) {
+			this.values = values;
+		}
+		@Override
+		public int get(int index) {
+			return values.get(index);
+		}
+		@Override
+		public void set(int index, int value) {
+			values.put(index, (short) value);
+		}
 	}
 
 	///////////////// code for debugging ///////////////////////////////////////
@@ -977,7 +1143,7 @@ public class Floorplan {
 		{
 			prefix = " i:" + i + " j:";
 			for (int j = 0 ; j < height ; j++)
-				s += prefix + j + "=" + cells[i][j] ;
+				s += prefix + j + "=" + getValueOfCell(i, j) ;
 			s += "\n" ;
 		}
 		return s ;
@@ -1,8 +1,11 @@
 package generation;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import gui.Constants;
 
@@ -25,6 +28,9 @@ public class ListOfWallsBuilder {
 	private final Distance dists ; 			// distance matrix
 	private final Floorplan floorplan ;		// floorplan with maze layout
 	private int colchange;
+	// walls that were merged by mergeCollinearWalls, for each line and side
+	// by their lowest coordinate on the line, see segmentKey method
+	private final Map<Long, TreeMap<Integer, Wall>> segments = new HashMap<>();
 	
 	/**
 	 * Constructor
@@ -53,6 +59,150 @@ public class ListOfWallsBuilder {
 		return result ;
 	}
 
+	/**
+	 * Merges walls that continue each other into a single wall.
+	 * A sequence of wallboards ends where a wallboard crosses it,
+	 * so generateWalls may deliver two walls where the wallboards
+	 * on the same side of a line continue beyond a crossing.
+	 * Two such walls are merged if they face the same way,
+	 * one starts where the other ends and both have the same color,
+	 * such that the merged wall looks the same in the FirstPersonView.
+	 * The merged wall keeps the distance of the wall that comes first in the list.
+	 * Only walls that are next to each other in the list are considered,
+	 * generateWalls lists the walls of each side and line in increasing order.
+	 * The walls that are merged are remembered, such that
+	 * {@link #restoreSegments(List)} can cut pieces of a merged wall back into them.
+	 * @param walls list of walls as delivered by generateWalls, remains unchanged
+	 * @return list of walls where walls that continue each other are merged
+	 */
+	public List<Wall> mergeCollinearWalls(List<Wall> walls) {
+		ArrayList<Wall> result = new ArrayList<>(walls.size());
+		int i = 0;
+		while (i < walls.size()) {
+			final Wall first = walls.get(i++);
+			// the merged wall extends from (x,y) by (dx,dy)
+			int x = first.getStartPositionX();
+			int y = first.getStartPositionY();
+			int dx = first.getExtensionX();
+			int dy = first.getExtensionY();
+			int merged = 1;
+			while (i < walls.size()) {
+				final Wall next = walls.get(i);
+				if (Integer.signum(dx) != Integer.signum(next.getExtensionX()) ||
+						Integer.signum(dy) != Integer.signum(next.getExtensionY()) ||
+						first.getColor() != next.getColor())
+					break;
+				// south and west wallboards: next continues at the end
+				final boolean atEnd = (x + dx == next.getStartPositionX() && y + dy == next.getStartPositionY());
+				// north and east wallboards, whose walls start at the end of their sequence: next ends at the start
+				final boolean atStart = (next.getEndPositionX() == x && next.getEndPositionY() == y);
+				if (!atEnd && !atStart)
+					break;
+				if (atStart) {
+					x = next.getStartPositionX();
+					y = next.getStartPositionY();
+				}
+				dx += next.getExtensionX();
+				dy += next.getExtensionY();
+				merged++;
+				i++;
+			}
+			if (1 == merged)
+				result.add(first);
+			else {
+				result.add(new Wall(x, y, dx, dy, first.getDistance(), colchange));
+				for (Wall part : walls.subList(i - merged, i)) {
+					segments.computeIfAbsent(segmentKey(part), k -> new TreeMap<>()).put(getLow(part), part);
+				}
+			}
+		}
+		return result;
+	}
+	/**
+	 * Cuts walls that are pieces of a merged wall back into the walls
+	 * that were merged, as far as they overlap with a piece.
+	 * Partitioning works with the merged walls, but the walls in the leaves
+	 * keep the extent that generateWalls gave them, so the map marks
+	 * the wallboards of each of them as seen on its own.
+	 * A piece of a merged wall keeps its partition bit, all other walls are kept as they are.
+	 * The method only reads what mergeCollinearWalls remembered,
+	 * so it can be called by several threads at the same time.
+	 * @param walls list of walls, e.g., of a leaf of the BSP tree, remains unchanged
+	 * @return list of walls where pieces of merged walls are cut back
+	 */
+	public List<Wall> restoreSegments(List<Wall> walls) {
+		if (segments.isEmpty())
+			return walls;
+		ArrayList<Wall> result = new ArrayList<>(walls.size());
+		for (Wall wall : walls) {
+			final TreeMap<Integer, Wall> line = segments.get(segmentKey(wall));
+			if (null == line) {
+				result.add(wall);
+				continue;
+			}
+			final int low = getLow(wall);
+			final int high = low + wall.getLength();
+			// the wall that covers the low end may start before it
+			final Integer from = line.floorKey(low);
+			final int size = result.size();
+			for (Wall part : line.subMap((null == from) ? low : from, high).values()) {
+				final int partLow = Math.max(low, getLow(part));
+				final int partHigh = Math.min(high, getLow(part) + part.getLength());
+				if (partLow >= partHigh)
+					continue;
+				result.add(createPiece(wall, part, partLow, partHigh));
+			}
+			// a wall that was not merged may share the line with merged ones
+			if (size == result.size())
+				result.add(wall);
+		}
+		return result;
+	}
+	/**
+	 * Creates the piece of a merged wall that lies on one of the walls it was merged from.
+	 * @param wall the piece of the merged wall, gives direction and partition bit
+	 * @param part the wall that was merged, gives the distance
+	 * @param low the lowest coordinate of the piece on the line
+	 * @param high the highest coordinate of the piece on the line
+	 * @return the piece
+	 */
+	private Wall createPiece(Wall wall, Wall part, int low, int high) {
+		final Wall piece;
+		if (0 == wall.getExtensionY()) {
+			// horizontal, starts at the low end if it extends into the positive direction
+			piece = (wall.getExtensionX() > 0) ?
+					new Wall(low, wall.getStartPositionY(), high - low, 0, part.getDistance(), colchange) :
+					new Wall(high, wall.getStartPositionY(), low - high, 0, part.getDistance(), colchange);
+		}
+		else {
+			piece = (wall.getExtensionY() > 0) ?
+					new Wall(wall.getStartPositionX(), low, 0, high - low, part.getDistance(), colchange) :
+					new Wall(wall.getStartPositionX(), high, 0, low - high, part.getDistance(), colchange);
+		}
+		piece.setPartition(wall.isPartition());
+		return piece;
+	}
+	/**
+	 * Encodes the line a wall lies on and the direction it extends to.
+	 * @param wall the wall
+	 * @return key that is the same for walls on the same line and side
+	 */
+	private static long segmentKey(Wall wall) {
+		if (0 == wall.getExtensionY())
+			return ((long) wall.getStartPositionY() << 2) | (wall.getExtensionX() > 0 ? 0 : 1);
+		return ((long) wall.getStartPositionX() << 2) | 2 | (wall.getExtensionY() > 0 ? 0 : 1);
+	}
+	/**
+	 * Gives the lowest coordinate of a wall on its line.
+	 * @param wall the wall
+	 * @return the lowest x coordinate of a horizontal wall, the lowest y coordinate of a vertical one
+	 */
+	private static int getLow(Wall wall) {
+		if (0 == wall.getExtensionY())
+			return Math.min(wall.getStartPositionX(), wall.getEndPositionX());
+		return Math.min(wall.getStartPositionY(), wall.getEndPositionY());
+	}
+
 	/**
      * Identify continuous sequences of wallboards in a vertical direction
      * @param sl the list of walls that carries the result of the computation
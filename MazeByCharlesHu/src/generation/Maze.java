@@ -69,7 +69,7 @@ public interface Maze {
 	/**
 	 * Gets access to a tree of nodes for segments of wallboards which is
 	 * used for drawing the currently visible part.
-	 * @return the rootnode
+	 * @return the rootnode, null if the maze was generated for the grid renderer
 	 */
 	BSPNode getRootnode();
 
@@ -78,6 +78,12 @@ public interface Maze {
 	 * @param rootnode the rootnode to set
 	 */
 	void setRootnode(BSPNode rootnode);
+	/**
+	 * Gives figures on the size and shape of the tree of nodes for segments of wallboards,
+	 * for example to recognize trees that slow down drawing.
+	 * @return the statistics for the rootnode, null if there is no tree
+	 */
+	BSPStatistics getBSPStatistics();
 	/**
 	 * Tells if (x,y) coordinate is within range.
 	 * @param x is on the horizontal axis, {@code 0 <= x < width}
@@ -38,14 +38,23 @@ public class MazeBuilder implements Runnable {
 	// the distance to exit for a cell at position (i,j) in the floor plan.
 
 	// class internal local variables
-	protected SingleRandom random ; // random number stream, used to make randomized decisions, e.g for direction to go
+	protected RandomStream random ; // random number stream of this builder, used to make randomized decisions, e.g for direction to go
 	Order order; // describes what is wanted, e.g. a perfect maze or not
 	
 	// constants
-	static final long SLEEP_INTERVAL = 100 ; //constant used for brief breaks to recognize interrupted signal, unit is millisecond
 	static final int MAX_TRIES = 250 ; // room generation: max number of tries to find a random location for a room
 	static final int MIN_ROOM_DIMENSION = 3; // room generation: min dimension
 	static final int MAX_ROOM_DIMENSION = 8; // room generation: max dimension
+	// depth-first search: directions indexed by ordinal in clockwise order and their (dx,dy) steps
+	private static final CardinalDirection[] DIRECTIONS = CardinalDirection.values();
+	private static final int[] DIRECTION_DX = new int[DIRECTIONS.length];
+	private static final int[] DIRECTION_DY = new int[DIRECTIONS.length];
+	static {
+		for (CardinalDirection cd : DIRECTIONS) {
+			DIRECTION_DX[cd.ordinal()] = cd.getDx();
+			DIRECTION_DY[cd.ordinal()] = cd.getDy();
+		}
+	}
 
 	/**
 	 * Constructor for a randomized maze generation
@@ -59,9 +68,9 @@ public class MazeBuilder implements Runnable {
 	 */
 	public void buildOrder(Order order) {
 		this.order = order;
-		// configure and obtain the random number generator
-		SingleRandom.setSeed(order.getSeed());
-		random = SingleRandom.getRandom();
+		// each order gets its own random number stream, such that the maze only depends on its seed
+		// even if other mazes are generated at the same time
+		random = new RandomStream(order.getSeed());
 		// derive parameters 
 		int skill = order.getSkillLevel() ;
 		width = Constants.SKILL_X[skill];
@@ -71,7 +80,7 @@ public class MazeBuilder implements Runnable {
 		rooms = order.isPerfect() ? 0 : Constants.SKILL_ROOMS[skill];
 		expectedPartiters = Constants.SKILL_PARTCT[skill];
 		// instantiate data structures
-		floorplan = new Floorplan(width,height) ;
+		floorplan = new Floorplan(width, height, Floorplan.Encoding.SHORT) ;
 		dists = new Distance(width,height) ;
 	}
 	/**
@@ -87,24 +96,32 @@ public class MazeBuilder implements Runnable {
 			if (rooms > 0)
 				generateRooms();
 			
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+			checkInterrupted() ; // test if thread has been interrupted, i.e. notified to stop
 
 			// put pathways into the maze, determine its starting and end position and calculate distances
 			generate();
 
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+			checkInterrupted() ; // test if thread has been interrupted, i.e. notified to stop
 
-			final int colchange = random.nextIntWithinInterval(0, 255); // used in the constructor for Segments  class Seg
-			final BSPBuilder b = new BSPBuilder(order, dists, floorplan, width, height, colchange, expectedPartiters) ;
-			BSPNode root = b.generateBSPNodes(); // takes a long time, updates progressbar, 
-			// it also internally checks for cancel requests
-			// and throws an interrupted exception if that happens
+			// the grid renderer draws from the floorplan, it does not need a tree of BSP nodes
+			BSPNode root = null;
+			BSPStatistics statistics = null;
+			if (Order.Renderer.Grid != order.getRenderer()) {
+				final int colchange = random.nextIntWithinInterval(0, 255); // used in the constructor for Segments  class Seg
+				final BSPBuilder b = new BSPBuilder(order, dists, floorplan, width, height, colchange, expectedPartiters, order.isParallel()) ;
+				root = b.generateBSPNodes(); // takes a long time, updates progressbar, 
+				// it also internally checks for cancel requests
+				// and throws an interrupted exception if that happens
+				statistics = b.getStatistics();
 
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+				checkInterrupted() ; // test if thread has been interrupted, i.e. notified to stop
+			}
 
 			// communicate results back to Controller
 			order.updateProgress(100); // Order interface promises to communicate 100% upon delivery
-			order.deliver(new MazeContainer(width, height, floorplan, dists, root, startx, starty));
+			final MazeContainer maze = new MazeContainer(width, height, floorplan, dists, root, startx, starty);
+			maze.setBSPStatistics(statistics);
+			order.deliver(maze);
             // reset order and other fields for safe repeated operation and garbage collection
 			reset() ;
 		}
@@ -119,6 +136,18 @@ public class MazeBuilder implements Runnable {
 		}
 	}
 	
+	/**
+	 * Checks if the executing thread has been interrupted, i.e. notified to stop.
+	 * This replaces brief sleeps that were used for the same purpose,
+	 * the check itself takes no time. As with a sleep, the interrupted status
+	 * is cleared when the exception is thrown.
+	 * @throws InterruptedException if the executing thread is interrupted
+	 */
+	static void checkInterrupted() throws InterruptedException {
+		if (Thread.interrupted())
+			throw new InterruptedException();
+	}
+	
 	/**
 	 * Reset all fields to initial values
 	 */
@@ -189,7 +218,7 @@ public class MazeBuilder implements Runnable {
 			return false ;
 		// since the area is available, mark it for this room and remove all wallboards
 		// from this on it is clear that we can place the room on the maze
-		floorplan.markAreaAsRoom(rw, rh, rx, ry, rxl, ryl); 
+		floorplan.markAreaAsRoom(rw, rh, rx, ry, rxl, ryl, random); 
 		return true;
 	}
 
@@ -205,7 +234,7 @@ public class MazeBuilder implements Runnable {
 		// the search algorithms starts at some random point
 		generatePathways(); 
 
-		final int[] remote = dists.computeDistances(floorplan) ;
+		final int[] remote = dists.computeDistances(floorplan, order.isParallel()) ;
 
 		// identify cell with the greatest distance
 		final int[] pos = dists.getStartPosition();
@@ -216,13 +245,70 @@ public class MazeBuilder implements Runnable {
 		floorplan.setExitPosition(remote[0], remote[1]);
 	}
 	/**
-	 * This method generates pathways into the maze.
-	 * Comments have been removed to make students 
-	 * recognize the difference between readable and unreadable code
-	 * and what kind of comments are needed to understand code.
-	 * A previous version is kept below and commented out which is 
-	 * even worse than this one.
+	 * This method generates pathways into the maze with a randomized depth-first search.
+	 * The search starts at a random cell in the top row, tears down a wallboard towards a cell
+	 * that has not been visited yet and continues from there in a random direction.
+	 * If all four directions have been tried, it backtracks to the cell it came from
+	 * and continues with the next direction clockwise from the one it entered through.
+	 * The search ends when it backtracked to the starting cell.
+	 * 
+	 * The implementation avoids object allocation per step: 
+	 * directions are encoded by their ordinal (North, East, South, West is clockwise order),
+	 * the direction in which each cell was entered is stored in a flat byte array,
+	 * the (dx,dy) steps come from precomputed tables and random numbers are drawn 
+	 * directly from the random number generator of the builder.
+	 * A previous version is kept below and commented out.
 	 */
+	protected void generatePathways() {
+		// start in the top row
+		int x = random.nextIntWithinInterval(0, width-1);
+		int y = 0; 
+		final int firstx = x; 
+		final int firsty = y;
+		
+		// direction in which each cell (x,y) was entered, stored at index y*width+x as ordinal+1, 0 if not entered
+		// this replaces the stack of a depth-first search: backtracking steps back against that direction
+		final byte[] entered = new byte[width*height]; 
+		int cd = CardinalDirection.East.ordinal(); // current direction
+		int origcd = cd; // first direction tried at current cell, all are tried once cd gets back to it
+		
+		floorplan.setCellAsVisited(x, y); 
+		final Wallboard wallboard = new Wallboard(x, y, DIRECTIONS[cd]);
+		while (true) { 
+			wallboard.setLocationDirection(x, y, DIRECTIONS[cd]);
+			if (!floorplan.canTearDown(wallboard)) {
+				// try next direction in clockwise order
+				cd = (cd + 1) & 3;
+				if (origcd == cd) {
+					// all directions done, backtrack unless we are back at the start
+					if (x == firstx && y == firsty)
+						break; 
+					int back = entered[y*width+x] - 1;
+					x -= DIRECTION_DX[back];
+					y -= DIRECTION_DY[back];
+					if (0 == entered[y*width+x]) {
+						// Happens at starting position
+						assert (x == firstx && y == firsty) : "catching null elsewhere than starting position" ;
+						cd = random.nextIntWithinInterval(0, 3);
+					}
+					else
+						cd = entered[y*width+x] - 1;
+					cd = (cd + 1) & 3;
+					origcd = cd;
+				}
+			} else {
+				// open the wallboard and move on to the new cell
+				floorplan.deleteWallboard(wallboard);
+				x += DIRECTION_DX[cd];
+				y += DIRECTION_DY[cd];
+				floorplan.setCellAsVisited(x, y);
+				entered[y*width+x] = (byte) (cd + 1);
+				cd = random.nextIntWithinInterval(0, 3);
+				origcd = cd;
+			}
+		}
+	}
+	/* previous version with a direction matrix, kept for discussion in class
 	protected void generatePathways() {
 		int x = random.nextIntWithinInterval(0, width-1);
 		int y = 0; 
@@ -248,7 +334,7 @@ public class MazeBuilder implements Runnable {
 					if (null == origcds[x][y]) {
 						// Happens at starting position
 						assert (x == firstx && y == firsty) : "catching null elsewhere than starting position" ;
-						cd = cd.randomDirection() ;
+						cd = cd.randomDirection(random) ;
 					}
 					else
 						cd = origcds[x][y] ;
@@ -262,11 +348,12 @@ public class MazeBuilder implements Runnable {
 				y += dxy[1];
 				floorplan.setCellAsVisited(x, y);
 				origcds[x][y] = cd;
-				cd = cd.randomDirection();
+				cd = cd.randomDirection(random);
 				origcd = cd;
 			}
 		}
 	}
+	*/
 	/* original, kept  for discussion in class !!!!
 	protected void generatePathways() {
 		int[][] origdirs = new int[width][height] ; 
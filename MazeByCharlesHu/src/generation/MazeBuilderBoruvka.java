@@ -1,182 +1,106 @@
 package generation;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
+/**
+ * This class has the responsibility to create a maze of given dimensions (width, height)
+ * together with a solution based on a distance matrix.
+ * The MazeBuilder implements Runnable such that it can be run a separate thread.
+ * The MazeFactory has a MazeBuilder and handles the thread management.
+ *
+ * The maze is built with Boruvka's algorithm for a minimal spanning tree (MST).
+ * Every internal wallboard is an edge between two adjacent cells and carries a unique random weight.
+ * Each cell starts out as a tree of its own. In every round, each tree selects its cheapest edge
+ * towards a different tree and all selected edges are torn down, which merges trees.
+ * Rounds repeat until a single tree remains or no tree can be expanded any further.
+ *
+ * Edge weights are kept in a primitive array indexed by (cell, direction) and trees are tracked
+ * with a disjoint-set forest (union-find with path compression and union by size) such that
+ * each round is linear in the number of edges and at most log(#cells) rounds are necessary.
+ * Algorithm leaves wallboards in tact that carry the border flag.
+ *
+ * In parallel mode, each round searches the cheapest edges of all trees with a parallel stream
+ * over cell ranges (common ForkJoinPool) and merges trees with a lock-free union-find.
+ * Since edge weights are unique, the resulting spanning tree is unique and the maze
+ * is identical to the one of the sequential mode for the same seed.
+ */
 public class MazeBuilderBoruvka extends MazeBuilder implements Runnable {
-	
+
 	private static final Logger LOGGER = Logger.getLogger(MazeBuilderBoruvka.class.getName());
-	//Will hold association maps for a wall in the maze and its unique weight
-	private HashMap<Wallboard, Integer> weightsList;
-	//Will hold trees to track minimal spanning trees for each cell
-	private ArrayList<ArrayList<Integer[]>> treesList;
-	
+
+	// Every internal wallboard is stored exactly once, namely at the cell to its west or to its north.
+	// The index for cell (x,y) is y*width+x, the index of its edge is cell index * 2 + EDGE_EAST or EDGE_SOUTH.
+	// North and West edges are found as the South and East edges of the corresponding neighbor cell.
+	static final int EDGE_EAST = 0;
+	static final int EDGE_SOUTH = 1;
+	//Will hold unique weight for every edge, 0 for edges that do not exist or that can not be torn down
+	private int[] edgeWeights;
+	//Will hold the disjoint-set forest that tracks the tree each cell belongs to
+	private int[] parent;
+	//Will hold the number of cells of a tree, only valid for the root of a tree
+	private int[] treeSize;
+	//Tells if the rounds of the algorithm are computed in parallel
+	private final boolean parallel;
+
 	/**
-	 * Constructor for MazeBuilderBoruvka class; initializes hashmap for unique weight tracking and arraylist for tree storage
+	 * Constructor for MazeBuilderBoruvka class, rounds are computed sequentially
 	 */
 	public MazeBuilderBoruvka() {
+		this(false);
+	}
+	/**
+	 * Constructor for MazeBuilderBoruvka class
+	 * @param parallel true if rounds are computed in parallel, false for a sequential computation
+	 */
+	public MazeBuilderBoruvka(boolean parallel) {
 		super();
-		LOGGER.config("Using Boruvka's algorithm to generate maze.");
-		this.weightsList = new HashMap<Wallboard, Integer>();
-		this.treesList = new ArrayList<ArrayList<Integer[]>>();
+		this.parallel = parallel;
+		LOGGER.config("Using Boruvka's algorithm to generate maze" + (parallel ? " in parallel." : "."));
 	}
 	/**
-	 * Generate randomized weights for every cell in the maze and associate it with every wall in the maze via object hashmap attribute weightsList
+	 * Generate unique randomized weights for every internal wall in the maze.
+	 * Weights are a random permutation of 1,2,...,#walls.
+	 * Walls that are part of a border are set to 0 afterwards as they must stay in place.
 	 */
 	private void initializeWeights() {
-		ArrayList<Integer> cellWeights = new ArrayList<Integer>();
-		int cellsFilled = 0;
+		this.edgeWeights = new int[width * height * 2];
 		//Calculate amount of internal walls in a fully filled maze with no gaps
 		int wallCount = (width * (height - 1)) + ((width - 1) * height);
-		//Generate unique random numbers until we have a value for every wall in the maze
-		while (cellsFilled < wallCount) {
-			int weightToAdd = random.nextIntWithinInterval(1, wallCount);
-			if (!cellWeights.contains(weightToAdd) && weightToAdd > 0) {
-				cellWeights.add(weightToAdd);
-				cellsFilled++;
-			}
-		}
-		
-		//Want to assign a weight via the random values to each internal-facing wall of a cell
-		//First assign corner cell walls
-		//(0,0)
-		Wallboard wallEast = new Wallboard(0, 0, CardinalDirection.East);
-		Wallboard wallSouth = new Wallboard(0, 0, CardinalDirection.South);
-		this.weightsList.put(wallEast, cellWeights.remove(0));
-		this.weightsList.put(wallSouth, cellWeights.remove(0));
-		//(width-1,0)
-		wallSouth = new Wallboard(width - 1, 0, CardinalDirection.South);
-		Wallboard wallWest = new Wallboard(width - 1, 0, CardinalDirection.West);
-		this.weightsList.put(wallSouth, cellWeights.remove(0));
-		this.weightsList.put(wallWest, cellWeights.remove(0));
-		//(0, height-1)
-		Wallboard wallNorth = new Wallboard(0, height - 1, CardinalDirection.North);
-		wallEast = new Wallboard(0, height - 1, CardinalDirection.East);
-		this.weightsList.put(wallNorth, cellWeights.remove(0));
-		this.weightsList.put(wallEast, cellWeights.remove(0));
-		//(width-1,height-1)
-		wallNorth = new Wallboard(width - 1, height - 1, CardinalDirection.North);
-		wallWest = new Wallboard(width - 1, height - 1, CardinalDirection.West);
-		this.weightsList.put(wallNorth, cellWeights.remove(0));
-		this.weightsList.put(wallWest, cellWeights.remove(0));
-		
-		//Now intermediate side walls
-		//Upward cells; uniquely generate east and south, get existing west
-		for (int i = 1; i < width - 2; i++) {
-			wallEast = new Wallboard(i, 0, CardinalDirection.East);
-			wallSouth = new Wallboard(i, 0, CardinalDirection.South);
-			wallWest = new Wallboard(i, 0, CardinalDirection.West);
-			this.weightsList.put(wallEast, cellWeights.remove(0));
-			this.weightsList.put(wallSouth, cellWeights.remove(0));
-			this.weightsList.put(wallWest, getEdgeWeight(i - 1, 0, CardinalDirection.East));
-		}
-		//Account for cell adjacent to existing corner cell
-		wallEast = new Wallboard(width - 2, 0, CardinalDirection.East);
-		wallSouth = new Wallboard(width - 2, 0, CardinalDirection.South);
-		wallWest = new Wallboard(width - 2, 0, CardinalDirection.West);
-		this.weightsList.put(wallEast, getEdgeWeight(width - 1, 0, CardinalDirection.West));
-		this.weightsList.put(wallSouth, cellWeights.remove(0));
-		this.weightsList.put(wallWest, getEdgeWeight(width - 3, 0, CardinalDirection.East));		
-		//Rightward cells; uniquely generate south and west, get existing north
-		for (int i = 1; i < height - 2; i++) {
-			wallNorth = new Wallboard(width - 1, i, CardinalDirection.North);
-			wallSouth = new Wallboard(width - 1, i, CardinalDirection.South);
-			wallWest = new Wallboard(width - 1, i, CardinalDirection.West);
-			this.weightsList.put(wallNorth, getEdgeWeight(width - 1, i - 1, CardinalDirection.South));
-			this.weightsList.put(wallSouth, cellWeights.remove(0));
-			this.weightsList.put(wallWest, cellWeights.remove(0));
+		//Draw a random permutation of 1..wallCount with a Fisher-Yates shuffle
+		int[] cellWeights = new int[wallCount];
+		for (int i = 0; i < wallCount; i++) {
+			cellWeights[i] = i + 1;
 		}
-		//Account for cell adjacent to existing corner cell
-		wallNorth = new Wallboard(width - 1, height - 2, CardinalDirection.North);
-		wallSouth = new Wallboard(width - 1, height - 2, CardinalDirection.South);
-		wallWest = new Wallboard(width - 1, height - 2, CardinalDirection.West);
-		this.weightsList.put(wallNorth, getEdgeWeight(width - 1, height - 3, CardinalDirection.South));
-		this.weightsList.put(wallSouth, getEdgeWeight(width - 1, height - 1, CardinalDirection.North));
-		this.weightsList.put(wallWest, cellWeights.remove(0));
-		//Downward cells; uniquely generate north and east, get existing west
-		for (int i = 1; i < width - 2; i++) {
-			wallNorth = new Wallboard(i, height - 1, CardinalDirection.North);
-			wallEast = new Wallboard(i, height - 1, CardinalDirection.East);
-			wallWest = new Wallboard(i, height - 1, CardinalDirection.West);
-			this.weightsList.put(wallNorth, cellWeights.remove(0));
-			this.weightsList.put(wallEast, cellWeights.remove(0));
-			this.weightsList.put(wallWest, getEdgeWeight(i - 1, height - 1, CardinalDirection.East));
+		for (int i = wallCount - 1; i > 0; i--) {
+			int j = random.nextIntWithinInterval(0, i);
+			int tmp = cellWeights[i];
+			cellWeights[i] = cellWeights[j];
+			cellWeights[j] = tmp;
 		}
-		//Account for cell adjacent to existing corner cell
-		wallNorth = new Wallboard(width - 2, height - 1, CardinalDirection.North);
-		wallEast = new Wallboard(width - 2, height - 1, CardinalDirection.East);
-		wallWest = new Wallboard(width - 2, height - 1, CardinalDirection.West);
-		this.weightsList.put(wallNorth, cellWeights.remove(0));
-		this.weightsList.put(wallEast, getEdgeWeight(width - 1, height - 1, CardinalDirection.West));
-		this.weightsList.put(wallWest, getEdgeWeight(width - 3, height - 1, CardinalDirection.East));
-		//Leftward cells; uniquely generate east and south, get existing north
-		for (int i = 1; i < height - 2; i++) {
-			wallNorth = new Wallboard(0, i, CardinalDirection.North);
-			wallEast = new Wallboard(0, i, CardinalDirection.East);
-			wallSouth = new Wallboard(0, i, CardinalDirection.South);
-			this.weightsList.put(wallNorth, getEdgeWeight(0, i - 1, CardinalDirection.South));
-			this.weightsList.put(wallEast, cellWeights.remove(0));
-			this.weightsList.put(wallSouth, cellWeights.remove(0));
-		}
-		//Account for cell adjacent to existing corner cell
-		wallNorth = new Wallboard(0, height - 2, CardinalDirection.North);
-		wallEast = new Wallboard(0, height - 2, CardinalDirection.East);
-		wallSouth = new Wallboard(0, height - 2, CardinalDirection.South);
-		this.weightsList.put(wallNorth, getEdgeWeight(0, height - 3, CardinalDirection.South));
-		this.weightsList.put(wallEast, cellWeights.remove(0));
-		this.weightsList.put(wallSouth, getEdgeWeight(0, height - 1, CardinalDirection.North));
-		
-		//Now interior cells
-		//Uniquely generate east and south walls, get existing north and west walls
-		for (int i = 1; i < width - 2; i++) {
-			for (int j = 1; j < height - 2; j++) {
-				wallNorth = new Wallboard(i, j, CardinalDirection.North);
-				wallEast = new Wallboard(i, j, CardinalDirection.East);
-				wallSouth = new Wallboard(i, j, CardinalDirection.South);
-				wallWest = new Wallboard(i, j, CardinalDirection.West);
-				this.weightsList.put(wallNorth, getEdgeWeight(i, j - 1, CardinalDirection.South));
-				this.weightsList.put(wallEast, cellWeights.remove(0));
-				this.weightsList.put(wallSouth, cellWeights.remove(0));
-				this.weightsList.put(wallWest, getEdgeWeight(i - 1, j, CardinalDirection.East));
+		//Hand out weights to all internal walls, skip east walls on right border and south walls on bottom border
+		Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		int next = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int cell = y * width + x;
+				if (x < width - 1) {
+					wallboard.setLocationDirection(x, y, CardinalDirection.East);
+					this.edgeWeights[cell * 2 + EDGE_EAST] = floorplan.isPartOfBorder(wallboard) ? 0 : cellWeights[next];
+					next++;
+				}
+				if (y < height - 1) {
+					wallboard.setLocationDirection(x, y, CardinalDirection.South);
+					this.edgeWeights[cell * 2 + EDGE_SOUTH] = floorplan.isPartOfBorder(wallboard) ? 0 : cellWeights[next];
+					next++;
+				}
 			}
 		}
-		//Account for unique cases below interior cells and between bottom cells
-		//Generate east, get existing north, south, west
-		for (int i = 1; i < width - 2; i++) {
-			wallNorth = new Wallboard(i, height - 2, CardinalDirection.North);
-			wallEast = new Wallboard(i, height - 2, CardinalDirection.East);
-			wallSouth = new Wallboard(i, height - 2, CardinalDirection.South);
-			wallWest = new Wallboard(i, height - 2, CardinalDirection.West);
-			this.weightsList.put(wallNorth, getEdgeWeight(i, height - 3, CardinalDirection.South));
-			this.weightsList.put(wallEast, cellWeights.remove(0));
-			this.weightsList.put(wallSouth, getEdgeWeight(i, height - 1, CardinalDirection.North));
-			this.weightsList.put(wallWest, getEdgeWeight(i - 1, height - 2, CardinalDirection.East));
-		}
-		//Account for unique cases between interior cells rightward cells
-		//Generate south, get existing north, east, west
-		for (int i = 1; i < height - 2; i++) {
-			wallNorth = new Wallboard(width - 2, i, CardinalDirection.North);
-			wallEast = new Wallboard(width - 2, i, CardinalDirection.East);
-			wallSouth = new Wallboard(width - 2, i, CardinalDirection.South);
-			wallWest = new Wallboard(width - 2, i, CardinalDirection.West);
-			this.weightsList.put(wallNorth, getEdgeWeight(width - 2, i - 1, CardinalDirection.South));
-			this.weightsList.put(wallEast, getEdgeWeight(width - 1, i, CardinalDirection.West));
-			this.weightsList.put(wallSouth, cellWeights.remove(0));
-			this.weightsList.put(wallWest, getEdgeWeight(width - 3, i, CardinalDirection.East));
-		}
-		//Account for unique case of remaining cell to diagonal left-up of last cell in maze (width-1, height-1)
-		//Get all edges
-		wallNorth = new Wallboard(width - 2, height - 2, CardinalDirection.North);
-		wallEast = new Wallboard(width - 2, height - 2, CardinalDirection.East);
-		wallSouth = new Wallboard(width - 2, height - 2, CardinalDirection.South);
-		wallWest = new Wallboard(width - 2, height - 2, CardinalDirection.West);
-		this.weightsList.put(wallNorth, getEdgeWeight(width - 2, height - 3, CardinalDirection.South));
-		this.weightsList.put(wallEast, getEdgeWeight(width - 1, height - 2, CardinalDirection.West));
-		this.weightsList.put(wallSouth, getEdgeWeight(width - 2, height - 1, CardinalDirection.North));
-		this.weightsList.put(wallWest, getEdgeWeight(width - 3, height - 2, CardinalDirection.East));
+		assert (next == wallCount) : "Every internal wall must receive a weight";
 	}
-	
+
 	/**
 	 * Gets value of unique weight for desired wall edge
 	 * @param x integer coordinate of cell
@@ -185,158 +109,281 @@ public class MazeBuilderBoruvka extends MazeBuilder implements Runnable {
 	 * @return Weight of wall edge as integer value greater than 0; 0 if does not exist
 	 */
 	public int getEdgeWeight(int x, int y, CardinalDirection cd) {
-		//Using given x, y, and cd, pull from weight structure instantiated in generatePathways to get corresponding edge weight
-		for (Wallboard wall : this.weightsList.keySet()) {
-			if (wall.getX() == x && wall.getY() == y && wall.getDirection() == cd) {
-				return this.weightsList.get(wall);
-			}
+		int edge = getEdgeIndex(x, y, cd);
+		return (edge < 0) ? 0 : this.edgeWeights[edge];
+	}
+
+	/**
+	 * Gives the index into the edge weight array for the wall at cell (x,y) in the given direction
+	 * @param x integer coordinate of cell
+	 * @param y integer coordinate of cell
+	 * @param cd direction of edge as CardinalDirection
+	 * @return index of the edge, -1 if the wall is not an internal wall of the maze
+	 */
+	private int getEdgeIndex(int x, int y, CardinalDirection cd) {
+		if (null == this.edgeWeights || x < 0 || x >= width || y < 0 || y >= height) {
+			return -1;
+		}
+		//North and West walls are stored with the neighbor cell as South and East walls
+		switch (cd) {
+		case North:
+			return (y > 0) ? ((y - 1) * width + x) * 2 + EDGE_SOUTH : -1;
+		case West:
+			return (x > 0) ? (y * width + x - 1) * 2 + EDGE_EAST : -1;
+		case East:
+			return (x < width - 1) ? (y * width + x) * 2 + EDGE_EAST : -1;
+		case South:
+			return (y < height - 1) ? (y * width + x) * 2 + EDGE_SOUTH : -1;
+		default:
+			throw new RuntimeException("Inconsistent enum type");
 		}
-		return 0;
 	}
-	
+
 	/**
-	 * Create a tree for every cell in the maze; place such trees into an overall tree arraylist object treesList
+	 * Create a tree for every cell in the maze.
+	 * Adjacent cells without a wallboard in between, e.g. inside a room,
+	 * are connected already and start out in the same tree.
 	 */
 	private void initializeTrees() {
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				ArrayList<Integer[]> tree = new ArrayList<Integer[]>();
-				Integer[] cell = {i, j};
-				tree.add(cell);
-				this.treesList.add(tree);
+		this.parent = new int[width * height];
+		this.treeSize = new int[width * height];
+		for (int cell = 0; cell < parent.length; cell++) {
+			this.parent[cell] = cell;
+			this.treeSize[cell] = 1;
+		}
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (x < width - 1 && floorplan.hasNoWall(x, y, CardinalDirection.East)) {
+					union(y * width + x, y * width + x + 1);
+				}
+				if (y < height - 1 && floorplan.hasNoWall(x, y, CardinalDirection.South)) {
+					union(y * width + x, (y + 1) * width + x);
+				}
 			}
 		}
 	}
-	
+
+	/**
+	 * Finds the root of the tree that contains the given cell.
+	 * Compresses the path on the way up by pointing every other node at its grandparent (path halving).
+	 * @param cell index of cell
+	 * @return index of the root cell of its tree
+	 */
+	private int find(int cell) {
+		while (this.parent[cell] != cell) {
+			this.parent[cell] = this.parent[this.parent[cell]];
+			cell = this.parent[cell];
+		}
+		return cell;
+	}
+
+	/**
+	 * Merges the trees of the two given cells, the smaller tree is attached to the root of the larger one.
+	 * @param cell1 index of first cell
+	 * @param cell2 index of second cell
+	 * @return true if trees were merged, false if both cells are already in the same tree
+	 */
+	private boolean union(int cell1, int cell2) {
+		int root1 = find(cell1);
+		int root2 = find(cell2);
+		if (root1 == root2) {
+			return false;
+		}
+		if (this.treeSize[root1] < this.treeSize[root2]) {
+			int tmp = root1;
+			root1 = root2;
+			root2 = tmp;
+		}
+		this.parent[root2] = root1;
+		this.treeSize[root1] += this.treeSize[root2];
+		return true;
+	}
+
+	/**
+	 * Gives the index of the cell on the other side of the given edge
+	 * @param edge index of edge
+	 * @return index of cell to the east or to the south of the cell that stores the edge
+	 */
+	private int getNeighborCell(int edge) {
+		int cell = edge >> 1;
+		return ((edge & 1) == EDGE_EAST) ? cell + 1 : cell + width;
+	}
+
 	/**
 	 * Generates a maze by removing wallboards from a full maze utilizing the Boruvka algorithm.
-	 * Will first generate random unique weights for every cell and then create a tree for every cell.
-	 * Will follow Boruvka algorithm in maze generation: For each tree, observe the available weights of each cell contained by the tree and remove the walls of the lowest weight to effectively join trees.
+	 * Will first generate random unique weights for every wall and then create a tree for every cell.
+	 * Will follow Boruvka algorithm in maze generation: In each round, find the lowest weight edge leaving every tree
+	 * and remove those walls to join trees. Stops if no tree has an edge to another tree left.
 	 */
 	@Override
 	protected void generatePathways() {
-		//Instantiate <key,value> pair structure to store weights for edges between cells where key is set of x coordinate, y coordinate, and direction, and value is the edge weight
-		//getEdgeWeight will pull from this structure; should ensure consistency in persistent edge weights across maze
+		//Unique weights guarantee a unique MST, so trees can not close a cycle by picking edges of equal weight
 		initializeWeights();
-		
-		//Generate a structure to keep track of each tree on the maze
-		//This structure will contain information on 1) which tree is this 2) the cells that are part of this tree
-		//This tree will act as a tree tracker and manager for Boruvka during the component merging phase
-
 		//Mark every cell in maze as a tree
 		initializeTrees();
-		
-		//Access a tree from the tracking structure defined above
-		//Loop will access each available tree in structure until only one tree remains; should be our MST with correctly generated maze
-		while (this.treesList.size() > 1) {
-			//Lowest weight value found; arbitrarily assigned high value for comparison
-			int lowestWeight = 9999999;
-			//Wallboard of lowest weight cell; arbitrarily assigned value, will be overwritten when actually used
-			Wallboard lowestWeightCell = new Wallboard(0, 0, CardinalDirection.East);
-			//Pull out the first tree available; this will act as our reference point in the maze
-			ArrayList<Integer[]> currentTree = this.treesList.remove(0);
-			//For our accessed tree, iterate through all cells included in the tree
-			//Will check all available weights surrounding every cell that is in the currently observed tree
-			for (Integer[] cell : currentTree) {
-				//Pull weights that surround the cell
-				int weightNorth = getEdgeWeight(cell[0], cell[1], CardinalDirection.North);
-				int weightEast = getEdgeWeight(cell[0], cell[1], CardinalDirection.East);
-				int weightSouth = getEdgeWeight(cell[0], cell[1], CardinalDirection.South);
-				int weightWest = getEdgeWeight(cell[0], cell[1], CardinalDirection.West);
-				//Initialize walls that surround the cell
-				Wallboard wallNorth = new Wallboard(cell[0], cell[1], CardinalDirection.North);
-				Wallboard wallEast = new Wallboard(cell[0], cell[1], CardinalDirection.East);
-				Wallboard wallSouth = new Wallboard(cell[0], cell[1], CardinalDirection.South);
-				Wallboard wallWest = new Wallboard(cell[0], cell[1], CardinalDirection.West);
-				
-				//Corner case: When determining the lowest available weight, will sometimes pull a weight which connects to a cell which is already in the current tree
-				//Will lead to error where later iterations through remaining trees will result in indexing error due to cell not being found there
-				//Mitigate this by setting weight of all adjacent cells in the current tree to 0
-				for (Integer[] checkCell : currentTree) {
-					if (checkCell[0] == wallNorth.getNeighborX() && checkCell[1] == wallNorth.getNeighborY()) {
-						weightNorth = 0;
-					}
-					if (checkCell[0] == wallEast.getNeighborX() && checkCell[1] == wallEast.getNeighborY()) {
-						weightEast = 0;
-					}
-					if (checkCell[0] == wallSouth.getNeighborX() && checkCell[1] == wallSouth.getNeighborY()) {
-						weightSouth = 0;
-					}
-					if (checkCell[0] == wallWest.getNeighborX() && checkCell[1] == wallWest.getNeighborY()) {
-						weightWest = 0;
-					}
-				}
-				
-				//Iterate through all weights to find the lowest available one
-				if (weightNorth < lowestWeight && weightNorth > 0) {
-					lowestWeight = weightNorth;
-					lowestWeightCell = wallNorth;
+		if (this.parallel) {
+			generatePathwaysInParallel();
+			return;
+		}
+
+		//For every root of a tree, holds the index of the lowest weight edge to another tree, -1 if none found
+		int[] cheapest = new int[width * height];
+		Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		boolean merged = true;
+		while (merged) {
+			Arrays.fill(cheapest, -1);
+			//Check every edge once and update the lowest weight edge for the trees on both sides
+			for (int edge = 0; edge < this.edgeWeights.length; edge++) {
+				int weight = this.edgeWeights[edge];
+				if (weight == 0) {
+					continue;
 				}
-				if (weightEast < lowestWeight && weightEast > 0) {
-					lowestWeight = weightEast;
-					lowestWeightCell = wallEast;
+				int root1 = find(edge >> 1);
+				int root2 = find(getNeighborCell(edge));
+				if (root1 == root2) {
+					continue;
 				}
-				if (weightSouth < lowestWeight && weightSouth > 0) {
-					lowestWeight = weightSouth;
-					lowestWeightCell = wallSouth;
+				if (cheapest[root1] == -1 || weight < this.edgeWeights[cheapest[root1]]) {
+					cheapest[root1] = edge;
 				}
-				if (weightWest < lowestWeight && weightWest > 0) {
-					lowestWeight = weightWest;
-					lowestWeightCell = wallWest;
+				if (cheapest[root2] == -1 || weight < this.edgeWeights[cheapest[root2]]) {
+					cheapest[root2] = edge;
 				}
 			}
-			
-			//Need to find direction of neighbor cell edge that shares the wall found for the lowest weight edge
-			//Direction of neighbor cell that shares wall should always be opposite direction
-			//Arbitrarily assigned value for direction, will change when actually used
-			CardinalDirection neighborDirection = CardinalDirection.West;
-			if (lowestWeightCell.getDirection() == CardinalDirection.North) {
-				neighborDirection = CardinalDirection.South;
-			}
-			else if (lowestWeightCell.getDirection() == CardinalDirection.South) {
-				neighborDirection = CardinalDirection.North;
-			}
-			else if (lowestWeightCell.getDirection() == CardinalDirection.West) {
-				neighborDirection = CardinalDirection.East;
-			}
-			//Need to find which tree neighbor cell exists in for later tree union
-			//Initial values are arbitrarily assigned, will change when actually used
-			Wallboard neighborCell = new Wallboard(lowestWeightCell.getNeighborX(), lowestWeightCell.getNeighborY(), neighborDirection);
-			ArrayList<Integer[]> neighborTree = new ArrayList<Integer[]>();
-			int neighborTreeIndex = -1;
-			//Access the overall tree tracker structure and find the tree that contains the neighbor cell
-			for (int i = 0; i < this.treesList.size(); i++) {
-				ArrayList<Integer[]> iteratedTree = this.treesList.get(i);
-				for (Integer[] cell : iteratedTree) {
-					if (cell[0] == neighborCell.getX() && cell[1] == neighborCell.getY()) {
-						neighborTree = iteratedTree;
-						neighborTreeIndex = i;
-					}
+			//Merge trees along their lowest weight edges; two trees may have picked the same edge
+			merged = false;
+			for (int root = 0; root < cheapest.length; root++) {
+				int edge = cheapest[root];
+				if (edge == -1) {
+					continue;
+				}
+				int cell = edge >> 1;
+				if (union(cell, getNeighborCell(edge))) {
+					//Remove the wall in the direction of the lowest weight, deletes it from both sides
+					wallboard.setLocationDirection(cell % width, cell / width,
+							((edge & 1) == EDGE_EAST) ? CardinalDirection.East : CardinalDirection.South);
+					floorplan.deleteWallboard(wallboard);
+					merged = true;
 				}
 			}
-			//Append the cells from the newly accessed neighbor tree into the current tree
-			currentTree.addAll(neighborTree);
-			//Add current tree back into overall tree tracking structure
-			this.treesList.add(currentTree);
-			//Delete the neighbor tree; essentially trying to mimic tree union in Boruvka
-			this.treesList.remove(neighborTreeIndex);
-			
-			//Remove the wall in the direction of the lowest weight
-			floorplan.deleteWallboard(lowestWeightCell);
-			//Do the same on the neighbor cell in order to ensure that the wallboard is full removed from all directions
-			ArrayList<Wallboard> wallsToDelete = new ArrayList<Wallboard>();
-			//First find the weight <K,V> pair
-			for (Wallboard wall : this.weightsList.keySet()) {
-				if (wall.getX() == lowestWeightCell.getX() && wall.getY() == lowestWeightCell.getY() && wall.getDirection() == lowestWeightCell.getDirection()) {
-					wallsToDelete.add(wall);
+		}
+	}
+
+	/**
+	 * Parallel version of the rounds of the Boruvka algorithm, works on the trees set up by initializeTrees.
+	 * Each round has three phases that each run as a parallel stream:
+	 * the root of every cell is determined, every tree selects its cheapest edge with a compare-and-set minimum,
+	 * and every tree merges along its selected edge in a concurrent union-find.
+	 * Walls are then torn down sequentially as deleting a wallboard updates the cells on both sides.
+	 */
+	private void generatePathwaysInParallel() {
+		int cellCount = width * height;
+		//Concurrent copy of the disjoint-set forest, trees are linked by index to rule out cycles
+		AtomicIntegerArray forest = new AtomicIntegerArray(cellCount);
+		IntStream.range(0, cellCount).parallel().forEach(cell -> forest.set(cell, find(cell)));
+		//Root of every cell for the current round
+		int[] roots = new int[cellCount];
+		//For every root of a tree, holds the index of the lowest weight edge to another tree, -1 if none found
+		AtomicIntegerArray cheapest = new AtomicIntegerArray(cellCount);
+		//For every root of a tree, holds the edge that merged it into another tree in this round, -1 if none
+		int[] merges = new int[cellCount];
+		Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		boolean merged = true;
+		while (merged) {
+			//No merges happen in this phase, so concurrent path halving only shortens paths
+			IntStream.range(0, cellCount).parallel().forEach(cell -> {
+				roots[cell] = findConcurrent(forest, cell);
+				cheapest.set(cell, -1);
+			});
+			//Every cell checks its east and south edge, so every edge is checked exactly once
+			IntStream.range(0, cellCount).parallel().forEach(cell -> {
+				for (int edge = cell * 2; edge <= cell * 2 + 1; edge++) {
+					if (this.edgeWeights[edge] == 0) {
+						continue;
+					}
+					int root1 = roots[cell];
+					int root2 = roots[getNeighborCell(edge)];
+					if (root1 != root2) {
+						offerCheapest(cheapest, root1, edge);
+						offerCheapest(cheapest, root2, edge);
+					}
 				}
-				if (wall.getX() == neighborCell.getX() && wall.getY() == neighborCell.getY() && wall.getDirection() == neighborCell.getDirection()) {
-					wallsToDelete.add(wall);
+			});
+			//Merge trees along their lowest weight edges; two trees may have picked the same edge
+			//but only one of them succeeds in merging
+			IntStream.range(0, cellCount).parallel().forEach(root -> {
+				int edge = cheapest.get(root);
+				merges[root] = (edge != -1 && unionConcurrent(forest, edge >> 1, getNeighborCell(edge))) ? edge : -1;
+			});
+			//Remove the walls in the direction of the lowest weight, deletes them from both sides
+			merged = false;
+			for (int root = 0; root < cellCount; root++) {
+				int edge = merges[root];
+				if (edge != -1) {
+					int cell = edge >> 1;
+					wallboard.setLocationDirection(cell % width, cell / width,
+							((edge & 1) == EDGE_EAST) ? CardinalDirection.East : CardinalDirection.South);
+					floorplan.deleteWallboard(wallboard);
+					merged = true;
 				}
 			}
-			//Then delete
-			for (Wallboard wall : wallsToDelete) {
-				this.weightsList.remove(wall);
+		}
+	}
+
+	/**
+	 * Records the given edge as the cheapest edge of the given tree if it has a lower weight than the current one.
+	 * Safe to be called by multiple threads at once.
+	 * @param cheapest lowest weight edge per root of a tree, -1 if none found
+	 * @param root index of the root cell of the tree
+	 * @param edge index of edge
+	 */
+	private void offerCheapest(AtomicIntegerArray cheapest, int root, int edge) {
+		int weight = this.edgeWeights[edge];
+		int current = cheapest.get(root);
+		while ((current == -1 || weight < this.edgeWeights[current]) && !cheapest.compareAndSet(root, current, edge)) {
+			current = cheapest.get(root);
+		}
+	}
+
+	/**
+	 * Finds the root of the tree that contains the given cell in a forest shared by multiple threads.
+	 * Uses path halving, a failed compare-and-set is harmless as some other thread shortened the path.
+	 * @param forest disjoint-set forest of all cells
+	 * @param cell index of cell
+	 * @return index of the root cell of its tree
+	 */
+	private static int findConcurrent(AtomicIntegerArray forest, int cell) {
+		int parentCell = forest.get(cell);
+		while (parentCell != cell) {
+			int grandparent = forest.get(parentCell);
+			if (grandparent != parentCell) {
+				forest.compareAndSet(cell, parentCell, grandparent);
+			}
+			cell = parentCell;
+			parentCell = forest.get(cell);
+		}
+		return cell;
+	}
+
+	/**
+	 * Merges the trees of the two given cells in a forest shared by multiple threads.
+	 * The root with the lower index is attached to the root with the higher index, so no cycles can occur.
+	 * Retries if another thread changed one of the roots in the meantime.
+	 * @param forest disjoint-set forest of all cells
+	 * @param cell1 index of first cell
+	 * @param cell2 index of second cell
+	 * @return true if trees were merged by this call, false if both cells are already in the same tree
+	 */
+	private static boolean unionConcurrent(AtomicIntegerArray forest, int cell1, int cell2) {
+		while (true) {
+			int root1 = findConcurrent(forest, cell1);
+			int root2 = findConcurrent(forest, cell2);
+			if (root1 == root2) {
+				return false;
+			}
+			int lower = Math.min(root1, root2);
+			if (forest.compareAndSet(lower, lower, Math.max(root1, root2))) {
+				return true;
 			}
 		}
 	}
@@ -0,0 +1,464 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * This class has the responsibility to create a maze of given dimensions (width, height)
+ * together with a solution based on a distance matrix.
+ * The MazeBuilder implements Runnable such that it can be run a separate thread.
+ * The MazeFactory has a MazeBuilder and handles the thread management.
+ *
+ * The maze is built with Eller's algorithm, which carves the maze row by row.
+ * Every cell of the current row carries the label of the set of cells it is connected to.
+ * Adjacent sets in a row are joined at random, then every set extends to the next row
+ * through at least one randomly chosen wallboard. The last row joins all remaining sets.
+ * Only the labels of the current row are kept, so memory for the carving phase is
+ * proportional to the width of the maze rather than its area.
+ * Every row is handed to an optional RowSink as soon as it is finished.
+ *
+ * Algorithm leaves wallboards in tact that carry the border flag.
+ * Rooms are enclosed by borders and need some care as a set that continues only inside a room
+ * may find itself stuck in the bottom row of the room. So a set with cells outside of rooms
+ * always extends to a cell below that is outside of a room; doors into a room from above are
+ * only torn down at random in addition. This leaves sets that only consist of room cells.
+ * In the bottom row of the room, such a set is joined with a neighboring set if borders
+ * do not prevent that. Otherwise one of the doors of the room that was skipped earlier is torn down,
+ * which is why the rows of a room are handed to the RowSink only once the room is complete.
+ */
+public class MazeBuilderEller extends MazeBuilder implements Runnable {
+
+	private static final Logger LOGGER = Logger.getLogger(MazeBuilderEller.class.getName());
+
+	// Doors are stored with the cell to their west or to their north,
+	// the index of a door is cell index * 2 + EDGE_EAST or EDGE_SOUTH with cell index y*width+x.
+	static final int EDGE_EAST = 0;
+	static final int EDGE_SOUTH = 1;
+	// Flags that describe the cells of a set in the current row and their options to extend to the next row.
+	// A set can extend outward if it has a wallboard towards a cell below that is outside of a room.
+	static final int SET_CAN_EXTEND_OUTWARD = 1;
+	// A set has a cell outside of a room.
+	static final int SET_HAS_OUTSIDE_CELL = 2;
+	// A set has a room cell with another cell of the same room below.
+	static final int SET_CONTINUES_IN_ROOM = 4;
+
+	//Receives every finished row, may be null
+	private RowSink rowSink;
+	//Number of rows handed to the row sink so far
+	private int completedRows;
+
+	//Set label of every cell in the current row, labels are in range 0..width-1
+	private int[] rowLabels;
+	//Set label of every cell in the next row
+	private int[] nextLabels;
+	//Disjoint-set forest over the labels of the current row, sets are joined within a row
+	private int[] parent;
+	//Holds the SET_ flags for each set of the current row
+	private int[] setFlags;
+	//Tells for each set of the current row if it extends to the next row
+	private boolean[] carried;
+	//Number of wallboards towards the next row per set and a randomly selected one among them
+	private int[] optionCount;
+	private int[] optionCell;
+	//Maps a set of the current row to its label in the next row, -1 if the set does not extend
+	private int[] remap;
+
+	//Doors of rooms that were considered but not torn down, they are kept till the bottom row of their room
+	//as a last resort to connect a room whose set got stuck
+	private int[] doorEdges = new int[8];
+	private int[] doorLabels1 = new int[8];
+	private int[] doorLabels2 = new int[8];
+	private int[] doorLastRows = new int[8];
+	private int doorCount;
+
+	//Reused to avoid repeated object instantiation
+	private final Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+
+	/**
+	 * Constructor for MazeBuilderEller class
+	 */
+	public MazeBuilderEller() {
+		super();
+		LOGGER.config("Using Eller's algorithm to generate maze.");
+	}
+
+	/**
+	 * Sets the sink that receives every row of the floorplan as soon as it is finished.
+	 * The game itself does not stream rows, the sink is meant for clients that
+	 * write or show a tall maze while it is carved.
+	 * Rows are delivered before the exit is placed, see {@link RowSink}.
+	 * @param rowSink the receiver of finished rows, null if rows are not needed
+	 */
+	public void setRowSink(RowSink rowSink) {
+		this.rowSink = rowSink;
+	}
+
+	/**
+	 * Generates a maze by removing wallboards from a full maze utilizing Eller's algorithm.
+	 * Works on one row after the other: joins adjacent sets in the row at random,
+	 * rescues sets that can not extend to the next row and then extends every set to the next row.
+	 * The last row joins all sets that are left.
+	 */
+	@Override
+	protected void generatePathways() {
+		this.rowLabels = new int[width];
+		this.nextLabels = new int[width];
+		this.parent = new int[width];
+		this.setFlags = new int[width];
+		this.carried = new boolean[width];
+		this.optionCount = new int[width];
+		this.optionCell = new int[width];
+		this.remap = new int[width];
+		this.doorCount = 0;
+		this.completedRows = 0;
+		//Every cell of the first row starts out as a set of its own
+		for (int x = 0; x < width; x++) {
+			this.rowLabels[x] = x;
+		}
+		for (int y = 0; y < height - 1; y++) {
+			resetSets();
+			joinRandomly(y);
+			rescueStuckSets(y);
+			extendDown(y);
+			moveToNextRow(y);
+			//Rows that a stuck room may still need to reach back to are kept back
+			emitRows(Math.min(y, getFirstDoorRow() - 1));
+		}
+		resetSets();
+		joinLastRow(height - 1);
+		this.doorCount = 0;
+		emitRows(height - 1);
+	}
+
+	/**
+	 * Makes every label of the current row a set of its own.
+	 */
+	private void resetSets() {
+		for (int label = 0; label < width; label++) {
+			this.parent[label] = label;
+		}
+	}
+
+	/**
+	 * Finds the set that contains the given label.
+	 * Compresses the path on the way up by pointing every other node at its grandparent (path halving).
+	 * @param label label of a cell in the current row
+	 * @return representative label of its set
+	 */
+	private int find(int label) {
+		while (this.parent[label] != label) {
+			this.parent[label] = this.parent[this.parent[label]];
+			label = this.parent[label];
+		}
+		return label;
+	}
+
+	/**
+	 * Joins the two given sets of the current row.
+	 * @param set1 representative label of first set
+	 * @param set2 representative label of second set
+	 * @return representative label of the joined set
+	 */
+	private int union(int set1, int set2) {
+		this.parent[set2] = set1;
+		return set1;
+	}
+
+	/**
+	 * Joins adjacent sets of row y at random by tearing down the wallboard in between.
+	 * Cells without a wallboard in between, e.g. inside a room, are in the same set already.
+	 * Doors of rooms that are not torn down are kept for later.
+	 * @param y coordinate of current row
+	 */
+	private void joinRandomly(int y) {
+		for (int x = 0; x < width - 1; x++) {
+			int set1 = find(this.rowLabels[x]);
+			int set2 = find(this.rowLabels[x + 1]);
+			if (set1 == set2) {
+				continue;
+			}
+			if (floorplan.hasNoWall(x, y, CardinalDirection.East)) {
+				union(set1, set2);
+			}
+			else if (!isBorder(x, y, CardinalDirection.East)) {
+				if (random.nextIntWithinInterval(0, 1) == 0) {
+					tearDown(x, y, CardinalDirection.East);
+					union(set1, set2);
+				}
+				else if (floorplan.isInRoom(x, y) || floorplan.isInRoom(x + 1, y)) {
+					int roomX = floorplan.isInRoom(x, y) ? x : x + 1;
+					deferDoor((y * width + x) * 2 + EDGE_EAST, set1, set2, getRoomBottom(roomX, y));
+				}
+			}
+		}
+	}
+
+	/**
+	 * A set of row y is stuck if it would need to extend to the next row through an outside cell
+	 * but borders keep it from doing so. Without help it would end up cut off from the rest of the maze.
+	 * A stuck set is joined with an adjacent set in the same row or, if borders on both sides prevent that,
+	 * through a door of its room that was skipped before.
+	 * @param y coordinate of current row
+	 */
+	private void rescueStuckSets(int y) {
+		Arrays.fill(this.setFlags, 0);
+		for (int x = 0; x < width; x++) {
+			this.setFlags[find(this.rowLabels[x])] |= getCellFlags(x, y);
+		}
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			//Join stuck sets with their neighbors in the row
+			for (int x = 0; x < width - 1; x++) {
+				int set1 = find(this.rowLabels[x]);
+				int set2 = find(this.rowLabels[x + 1]);
+				if (set1 != set2 && (isStuck(set1) || isStuck(set2)) && !isBorder(x, y, CardinalDirection.East)) {
+					tearDown(x, y, CardinalDirection.East);
+					this.setFlags[union(set1, set2)] |= this.setFlags[set2];
+					changed = true;
+				}
+			}
+			//Join stuck sets through doors that were skipped in earlier rows
+			for (int i = 0; i < this.doorCount; i++) {
+				int set1 = find(this.doorLabels1[i]);
+				int set2 = find(this.doorLabels2[i]);
+				if (set1 != set2 && (isStuck(set1) || isStuck(set2))) {
+					int cell = this.doorEdges[i] >> 1;
+					tearDown(cell % width, cell / width,
+							((this.doorEdges[i] & 1) == EDGE_EAST) ? CardinalDirection.East : CardinalDirection.South);
+					this.setFlags[union(set1, set2)] |= this.setFlags[set2];
+					changed = true;
+				}
+			}
+		}
+		for (int x = 0; x < width; x++) {
+			if (isStuck(find(this.rowLabels[x]))) {
+				LOGGER.warning("Unable to connect cell (" + x + "," + y + ") with the rest of the maze");
+			}
+		}
+	}
+
+	/**
+	 * Gives the SET_ flags that cell (x,y) contributes to its set.
+	 * @param x coordinate of cell
+	 * @param y coordinate of cell
+	 * @return combination of SET_ flags
+	 */
+	private int getCellFlags(int x, int y) {
+		if (floorplan.isInRoom(x, y + 1)) {
+			return floorplan.isInRoom(x, y) ? SET_CONTINUES_IN_ROOM : SET_HAS_OUTSIDE_CELL;
+		}
+		int flags = floorplan.isInRoom(x, y) ? 0 : SET_HAS_OUTSIDE_CELL;
+		return isBorder(x, y, CardinalDirection.South) ? flags : flags | SET_CAN_EXTEND_OUTWARD;
+	}
+
+	/**
+	 * Tells if a set of the current row can not extend to the next row as required.
+	 * A set that has cells outside of rooms must extend outward, a set of room cells may also continue inside its room.
+	 * @param set representative label of set
+	 * @return true if the set is stuck, false otherwise
+	 */
+	private boolean isStuck(int set) {
+		int flags = this.setFlags[set];
+		return (flags & SET_CAN_EXTEND_OUTWARD) == 0
+				&& ((flags & SET_HAS_OUTSIDE_CELL) != 0 || (flags & SET_CONTINUES_IN_ROOM) == 0);
+	}
+
+	/**
+	 * Extends every set of row y to the next row.
+	 * Every wallboard towards the next row is torn down at random.
+	 * A set that did not extend outward that way gets one of its wallboards towards an outside cell torn down,
+	 * unless it only consists of room cells that continue inside their room anyway.
+	 * @param y coordinate of current row
+	 */
+	private void extendDown(int y) {
+		Arrays.fill(this.carried, false);
+		Arrays.fill(this.optionCount, 0);
+		for (int x = 0; x < width; x++) {
+			int set = find(this.rowLabels[x]);
+			if (floorplan.hasNoWall(x, y, CardinalDirection.South)) {
+				//Inside of a room, counts for a set of room cells only
+				this.carried[set] |= (this.setFlags[set] & SET_HAS_OUTSIDE_CELL) == 0;
+			}
+			else if (!isBorder(x, y, CardinalDirection.South)) {
+				boolean outward = !floorplan.isInRoom(x, y + 1);
+				if (outward) {
+					//Select one outward wallboard of the set with equal probability (reservoir sampling)
+					this.optionCount[set]++;
+					if (random.nextIntWithinInterval(0, this.optionCount[set] - 1) == 0) {
+						this.optionCell[set] = x;
+					}
+				}
+				if (random.nextIntWithinInterval(0, 1) == 0) {
+					tearDown(x, y, CardinalDirection.South);
+					this.carried[set] |= outward;
+				}
+			}
+		}
+		for (int x = 0; x < width; x++) {
+			int set = find(this.rowLabels[x]);
+			if (!this.carried[set] && this.optionCount[set] > 0) {
+				tearDown(this.optionCell[set], y, CardinalDirection.South);
+				this.carried[set] = true;
+			}
+		}
+	}
+
+	/**
+	 * Computes the labels of row y+1 and makes it the current row.
+	 * Cells connected to row y carry the label of their set, all other cells start a new set.
+	 * Labels of skipped doors are translated and doors of rooms that are complete are dropped.
+	 * @param y coordinate of current row
+	 */
+	private void moveToNextRow(int y) {
+		Arrays.fill(this.remap, -1);
+		int next = 0;
+		for (int x = 0; x < width; x++) {
+			if (floorplan.hasNoWall(x, y, CardinalDirection.South)) {
+				int set = find(this.rowLabels[x]);
+				if (this.remap[set] == -1) {
+					this.remap[set] = next++;
+				}
+				this.nextLabels[x] = this.remap[set];
+			}
+			else {
+				this.nextLabels[x] = -1;
+			}
+		}
+		for (int x = 0; x < width; x++) {
+			if (this.nextLabels[x] == -1) {
+				this.nextLabels[x] = next++;
+			}
+		}
+		//Keep doors that connect different sets and whose room continues in the next row
+		int kept = 0;
+		for (int i = 0; i < this.doorCount; i++) {
+			int label1 = this.remap[find(this.doorLabels1[i])];
+			int label2 = this.remap[find(this.doorLabels2[i])];
+			if (this.doorLastRows[i] > y && label1 != -1 && label2 != -1 && label1 != label2) {
+				this.doorEdges[kept] = this.doorEdges[i];
+				this.doorLabels1[kept] = label1;
+				this.doorLabels2[kept] = label2;
+				this.doorLastRows[kept] = this.doorLastRows[i];
+				kept++;
+			}
+		}
+		this.doorCount = kept;
+		//Keep doors into a room from above that were skipped
+		for (int x = 0; x < width; x++) {
+			if (!floorplan.isInRoom(x, y) && floorplan.isInRoom(x, y + 1)
+					&& floorplan.hasWall(x, y, CardinalDirection.South) && !isBorder(x, y, CardinalDirection.South)) {
+				int label = this.remap[find(this.rowLabels[x])];
+				if (label != -1) {
+					deferDoor((y * width + x) * 2 + EDGE_SOUTH, label, this.nextLabels[x], getRoomBottom(x, y + 1));
+				}
+			}
+		}
+		int[] tmp = this.rowLabels;
+		this.rowLabels = this.nextLabels;
+		this.nextLabels = tmp;
+	}
+
+	/**
+	 * Joins all remaining sets in the last row.
+	 * @param y coordinate of last row
+	 */
+	private void joinLastRow(int y) {
+		for (int x = 0; x < width - 1; x++) {
+			int set1 = find(this.rowLabels[x]);
+			int set2 = find(this.rowLabels[x + 1]);
+			if (set1 == set2) {
+				continue;
+			}
+			if (floorplan.hasWall(x, y, CardinalDirection.East)) {
+				if (isBorder(x, y, CardinalDirection.East)) {
+					continue;
+				}
+				tearDown(x, y, CardinalDirection.East);
+			}
+			union(set1, set2);
+		}
+	}
+
+	/**
+	 * Keeps a door of a room that was not torn down for later use.
+	 * @param edge index of door
+	 * @param label1 label of set on one side of the door
+	 * @param label2 label of set on the other side of the door
+	 * @param lastRow bottom row of the room, door is dropped after that row
+	 */
+	private void deferDoor(int edge, int label1, int label2, int lastRow) {
+		if (this.doorCount == this.doorEdges.length) {
+			this.doorEdges = Arrays.copyOf(this.doorEdges, this.doorCount * 2);
+			this.doorLabels1 = Arrays.copyOf(this.doorLabels1, this.doorCount * 2);
+			this.doorLabels2 = Arrays.copyOf(this.doorLabels2, this.doorCount * 2);
+			this.doorLastRows = Arrays.copyOf(this.doorLastRows, this.doorCount * 2);
+		}
+		this.doorEdges[this.doorCount] = edge;
+		this.doorLabels1[this.doorCount] = label1;
+		this.doorLabels2[this.doorCount] = label2;
+		this.doorLastRows[this.doorCount] = lastRow;
+		this.doorCount++;
+	}
+
+	/**
+	 * Gives the first row that a kept door touches, rows from there on may still change.
+	 * @return smallest row of a kept door, height if no door is kept
+	 */
+	private int getFirstDoorRow() {
+		int result = height;
+		for (int i = 0; i < this.doorCount; i++) {
+			result = Math.min(result, (this.doorEdges[i] >> 1) / width);
+		}
+		return result;
+	}
+
+	/**
+	 * Hands all rows up to and including the given row to the row sink that were not handed over yet.
+	 * @param y coordinate of last row to hand over
+	 */
+	private void emitRows(int y) {
+		while (this.completedRows <= y) {
+			if (null != this.rowSink) {
+				this.rowSink.rowCompleted(floorplan, this.completedRows);
+			}
+			this.completedRows++;
+		}
+	}
+
+	/**
+	 * Gives the bottom row of the room that contains the given cell.
+	 * @param x coordinate of a cell inside a room
+	 * @param y coordinate of a cell inside a room
+	 * @return y coordinate of the bottom row of the room
+	 */
+	private int getRoomBottom(int x, int y) {
+		while (y + 1 < height && floorplan.isInRoom(x, y + 1)) {
+			y++;
+		}
+		return y;
+	}
+
+	/**
+	 * Tells if the wallboard of cell (x,y) in the given direction is part of a border.
+	 * @param x coordinate of cell
+	 * @param y coordinate of cell
+	 * @param cd direction of wallboard
+	 * @return true if the wallboard must stay in place, false otherwise
+	 */
+	private boolean isBorder(int x, int y, CardinalDirection cd) {
+		this.wallboard.setLocationDirection(x, y, cd);
+		return floorplan.isPartOfBorder(this.wallboard);
+	}
+
+	/**
+	 * Removes the wallboard of cell (x,y) in the given direction, deletes it from both sides.
+	 * @param x coordinate of cell
+	 * @param y coordinate of cell
+	 * @param cd direction of wallboard
+	 */
+	private void tearDown(int x, int y, CardinalDirection cd) {
+		this.wallboard.setLocationDirection(x, y, cd);
+		floorplan.deleteWallboard(this.wallboard);
+	}
+}
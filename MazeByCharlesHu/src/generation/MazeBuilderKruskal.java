@@ -0,0 +1,169 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * This class has the responsibility to create a maze of given dimensions (width, height)
+ * together with a solution based on a distance matrix.
+ * The MazeBuilder implements Runnable such that it can be run a separate thread.
+ * The MazeFactory has a MazeBuilder and handles the thread management.
+ *
+ * The maze is built with a randomized version of Kruskal's algorithm for a minimal spanning tree (MST).
+ * Every internal wallboard is an edge between two adjacent cells. All edges are put in random order
+ * once and then considered one after the other: if the cells on both sides are not connected yet,
+ * the wallboard is torn down, which joins their trees.
+ *
+ * Edges are kept in a shuffled primitive array indexed by (cell, direction) and trees are tracked
+ * with a disjoint-set forest (union-find with path compression and union by size),
+ * so no Wallboard object is created per edge.
+ * Algorithm leaves wallboards in tact that carry the border flag.
+ * Cells of a room are connected from the start, so a room is entered by exactly one of its potential doors.
+ */
+public class MazeBuilderKruskal extends MazeBuilder implements Runnable {
+
+	private static final Logger LOGGER = Logger.getLogger(MazeBuilderKruskal.class.getName());
+
+	// Every internal wallboard is stored exactly once, namely at the cell to its west or to its north.
+	// The index for cell (x,y) is y*width+x, the index of its edge is cell index * 2 + EDGE_EAST or EDGE_SOUTH.
+	static final int EDGE_EAST = 0;
+	static final int EDGE_SOUTH = 1;
+	//Will hold the disjoint-set forest that tracks the tree each cell belongs to
+	private int[] parent;
+	//Will hold the number of cells of a tree, only valid for the root of a tree
+	private int[] treeSize;
+	//Will hold the number of trees that are left, algorithm is done once it reaches 1
+	private int treeCount;
+
+	/**
+	 * Constructor for MazeBuilderKruskal class
+	 */
+	public MazeBuilderKruskal() {
+		super();
+		LOGGER.config("Using Kruskal's algorithm to generate maze.");
+	}
+
+	/**
+	 * Collects every internal wallboard that can be torn down, i.e. that is up and not part of a border,
+	 * and puts them in random order with a Fisher-Yates shuffle.
+	 * @return array of edge indices in random order
+	 */
+	private int[] initializeEdges() {
+		int[] edges = new int[width * height * 2];
+		int count = 0;
+		Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int cell = y * width + x;
+				if (x < width - 1 && floorplan.hasWall(x, y, CardinalDirection.East)) {
+					wallboard.setLocationDirection(x, y, CardinalDirection.East);
+					if (!floorplan.isPartOfBorder(wallboard)) {
+						edges[count++] = cell * 2 + EDGE_EAST;
+					}
+				}
+				if (y < height - 1 && floorplan.hasWall(x, y, CardinalDirection.South)) {
+					wallboard.setLocationDirection(x, y, CardinalDirection.South);
+					if (!floorplan.isPartOfBorder(wallboard)) {
+						edges[count++] = cell * 2 + EDGE_SOUTH;
+					}
+				}
+			}
+		}
+		//Shuffle only the part of the array that holds edges
+		for (int i = count - 1; i > 0; i--) {
+			int j = random.nextIntWithinInterval(0, i);
+			int tmp = edges[i];
+			edges[i] = edges[j];
+			edges[j] = tmp;
+		}
+		return Arrays.copyOf(edges, count);
+	}
+
+	/**
+	 * Create a tree for every cell in the maze.
+	 * Adjacent cells without a wallboard in between, e.g. inside a room,
+	 * are connected already and start out in the same tree.
+	 */
+	private void initializeTrees() {
+		this.parent = new int[width * height];
+		this.treeSize = new int[width * height];
+		this.treeCount = width * height;
+		for (int cell = 0; cell < parent.length; cell++) {
+			this.parent[cell] = cell;
+			this.treeSize[cell] = 1;
+		}
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (x < width - 1 && floorplan.hasNoWall(x, y, CardinalDirection.East)) {
+					union(y * width + x, y * width + x + 1);
+				}
+				if (y < height - 1 && floorplan.hasNoWall(x, y, CardinalDirection.South)) {
+					union(y * width + x, (y + 1) * width + x);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the root of the tree that contains the given cell.
+	 * Compresses the path on the way up by pointing every other node at its grandparent (path halving).
+	 * @param cell index of cell
+	 * @return index of the root cell of its tree
+	 */
+	private int find(int cell) {
+		while (this.parent[cell] != cell) {
+			this.parent[cell] = this.parent[this.parent[cell]];
+			cell = this.parent[cell];
+		}
+		return cell;
+	}
+
+	/**
+	 * Merges the trees of the two given cells, the smaller tree is attached to the root of the larger one.
+	 * @param cell1 index of first cell
+	 * @param cell2 index of second cell
+	 * @return true if trees were merged, false if both cells are already in the same tree
+	 */
+	private boolean union(int cell1, int cell2) {
+		int root1 = find(cell1);
+		int root2 = find(cell2);
+		if (root1 == root2) {
+			return false;
+		}
+		if (this.treeSize[root1] < this.treeSize[root2]) {
+			int tmp = root1;
+			root1 = root2;
+			root2 = tmp;
+		}
+		this.parent[root2] = root1;
+		this.treeSize[root1] += this.treeSize[root2];
+		this.treeCount--;
+		return true;
+	}
+
+	/**
+	 * Generates a maze by removing wallboards from a full maze utilizing Kruskal's algorithm.
+	 * Will first put all wallboards that can be torn down in random order and create a tree for every cell.
+	 * Then considers one wallboard after the other and removes it if it separates two different trees.
+	 * Stops once a single tree is left or all wallboards have been considered.
+	 */
+	@Override
+	protected void generatePathways() {
+		int[] edges = initializeEdges();
+		//Mark every cell in maze as a tree
+		initializeTrees();
+
+		Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		for (int i = 0; i < edges.length && this.treeCount > 1; i++) {
+			int edge = edges[i];
+			int cell = edge >> 1;
+			boolean east = (edge & 1) == EDGE_EAST;
+			if (union(cell, east ? cell + 1 : cell + width)) {
+				//Remove the wall between both trees, deletes it from both sides
+				wallboard.setLocationDirection(cell % width, cell / width,
+						east ? CardinalDirection.East : CardinalDirection.South);
+				floorplan.deleteWallboard(wallboard);
+			}
+		}
+	}
+}
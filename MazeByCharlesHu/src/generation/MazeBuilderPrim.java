@@ -1,6 +1,5 @@
 package generation;
 
-import java.util.ArrayList;
 import java.util.logging.Logger;
 
 
@@ -16,6 +15,11 @@ import java.util.logging.Logger;
  * Algorithm leaves wallboards in tact that carry the border flag.
  * Borders are used to keep the outside surrounding of the maze enclosed and 
  * to make sure that rooms retain outside walls and do not end up as open stalls. 
+ * 
+ * The set of candidate wallboards is kept as a packed int array, each candidate 
+ * is encoded as cell index * 4 + direction ordinal with cell index y*width+x.
+ * A candidate is extracted by swapping a random element with the last one,
+ * such that each step takes constant time and allocates no objects.
  *   
  * @author Jones.Andrew, refactored by Peter Kemper
  */
@@ -53,8 +57,8 @@ public class MazeBuilderPrim extends MazeBuilder implements Runnable {
 		
 		// Initialization: an MST of 1 cell with a non-empty set of wallboards
 		// around it that we could tear down to expand the MST
-		final ArrayList<Wallboard> candidates = initMST();
-		assert(!candidates.isEmpty());
+		initMST();
+		assert(candidateCount > 0);
 		
 		// Expanding the MST till all cells are connected.
 		// Since each newly added cell contributes its wallboards that face
@@ -78,20 +82,22 @@ public class MazeBuilderPrim extends MazeBuilder implements Runnable {
 		// After termination, many cells will be marked as visited, but some cells
 		// inside a room may not be marked as such although they belong to the MST.
 		//
-		Wallboard curWallboard;
+		final Wallboard curWallboard = new Wallboard(0, 0, CardinalDirection.East);
 		// We need to consider each candidate wallboard and consider it only once
-		while(!candidates.isEmpty()){
+		while(candidateCount > 0){
 			// in order to have a randomized algorithm,
 			// we randomly select and extract a wallboard from our candidate set
 			// this also reduces the set to make sure we terminate the loop
-			curWallboard = extractWallboardFromCandidateSetRandomly(candidates);
+			final int candidate = extractWallboardFromCandidateSetRandomly();
+			final int cell = candidate >> 2;
+			curWallboard.setLocationDirection(cell % width, cell / width, DIRECTIONS[candidate & 3]);
 			// check if wallboard leads to a new cell that is not connected to the spanning tree yet
 			if (floorplan.canTearDown(curWallboard))
 			{
 				// delete wallboard from maze, note that this takes place from both directions
 				floorplan.deleteWallboard(curWallboard);
 				// add the adjacent cell to the MST and update the list of candidates		
-				addCellToMST(curWallboard.getNeighborX(), curWallboard.getNeighborY(), candidates);
+				addCellToMST(curWallboard.getNeighborX(), curWallboard.getNeighborY());
 				
 				// note that each wallboard can get added to the list of candidates at most once. 
 				// This is important for termination and efficiency
@@ -104,12 +110,14 @@ public class MazeBuilderPrim extends MazeBuilder implements Runnable {
 		// So this must be it.
 	}
 	/**
-	 * Initialize the MST by randomly selecting a cell as the initial, incomplete MST and populate the list 
+	 * Initialize the MST by randomly selecting a cell as the initial, incomplete MST and populate the set 
 	 * of candidate wallboards that could be removed to expand the tree.
-	 * @return a non-empty list of candidate wallboards to expand the MST
 	 */
-	private ArrayList<Wallboard> initMST() {
-		final ArrayList<Wallboard> result = new ArrayList<Wallboard>();
+	private void initMST() {
+		// each wallboard is added at most once from the cell that joins the MST first,
+		// so 4 candidates per cell is an upper bound for the number of candidates
+		candidates = new int[width*height*4];
+		candidateCount = 0;
 		
 		
 		// create an initial list of all wallboards that could be removed
@@ -130,9 +138,7 @@ public class MazeBuilderPrim extends MazeBuilder implements Runnable {
 		// so we settled on the starting cell
 		
 		// we need to mark the cell as being part of the MST and add its wallboards to the list
-		addCellToMST(startX, startY, result);
-		
-		return result;
+		addCellToMST(startX, startY);
 	}
 
 	/**
@@ -140,44 +146,52 @@ public class MazeBuilderPrim extends MazeBuilder implements Runnable {
 	 * that lead to cells outside of the MST to the list of candidates (unless they are borderwalls).
 	 * @param x the x coordinate of interest
 	 * @param y the y coordinate of interest
-	 * @param candidates the new elements should be added to, must not be null
 	 */
-	protected void addCellToMST(int x, int y, final ArrayList<Wallboard> candidates) {
+	protected void addCellToMST(int x, int y) {
 		floorplan.setCellAsVisited(x, y); // the flag is never reset, so this ensure we never go to (x,y) again
-		updateListOfWallboards(x, y, candidates); // checks to see if it has wallboards to new cells, if it does it adds them to the list
+		updateListOfWallboards(x, y); // checks to see if it has wallboards to new cells, if it does it adds them to the list
 	}
 	/**
-	 * Pick a random position in the list of candidates, remove the candidate from the list and return it
-	 * @param candidates is the list of candidates to randomly remove a wall board from
-	 * @return candidate from the list, randomly chosen
+	 * Pick a random position in the set of candidates, remove the candidate from the set and return it.
+	 * The last candidate moves into the free position, so the order of candidates changes.
+	 * @return encoded candidate from the set, randomly chosen
 	 */
-	private Wallboard extractWallboardFromCandidateSetRandomly(final ArrayList<Wallboard> candidates) {
-		return candidates.remove(random.nextIntWithinInterval(0, candidates.size()-1)); 
+	private int extractWallboardFromCandidateSetRandomly() {
+		final int index = random.nextIntWithinInterval(0, candidateCount-1);
+		final int result = candidates[index];
+		candidateCount--;
+		candidates[index] = candidates[candidateCount];
+		return result;
 	}
 	
 
 	/**
-	 * Updates a list of all wallboards that could be removed from the maze based on wallboards towards new cells.
+	 * Updates the set of all wallboards that could be removed from the maze based on wallboards towards new cells.
 	 * For the given x, y coordinates, one checks all four directions
 	 * and for the ones where one can tear down a wallboard, a 
-	 * corresponding wallboard is added to the list of wallboards.
+	 * corresponding encoded wallboard is added to the set of candidates.
 	 * @param x the x coordinate of interest
 	 * @param y the y coordinate of interest
-	 * @param wallboards the new elements should be added to, must not be null
 	 */
-	private void updateListOfWallboards(int x, int y, ArrayList<Wallboard> wallboards) {
+	private void updateListOfWallboards(int x, int y) {
 		if (reusedWallboard == null) {
 			reusedWallboard = new Wallboard(x, y, CardinalDirection.East) ;
 		}
-		for (CardinalDirection cd : CardinalDirection.values()) {
+		final int cell = y*width+x;
+		for (CardinalDirection cd : DIRECTIONS) {
 			reusedWallboard.setLocationDirection(x, y, cd);
 			if (floorplan.canTearDown(reusedWallboard)) // 
 			{
-				wallboards.add(new Wallboard(x, y, cd));
+				candidates[candidateCount++] = cell*4 + cd.ordinal();
 			}
 		}
 	}
 	// exclusively used in updateListOfWallboards
 	Wallboard reusedWallboard; // reuse a wallboard in updateListOfWallboards to avoid repeated object instantiation
+	// candidate wallboards that could be torn down to expand the MST, entries 0..candidateCount-1 are valid
+	private int[] candidates;
+	private int candidateCount;
+	// directions indexed by ordinal to decode candidates
+	private static final CardinalDirection[] DIRECTIONS = CardinalDirection.values();
 
 }
\ No newline at end of file
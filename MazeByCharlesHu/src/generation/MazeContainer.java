@@ -48,6 +48,8 @@ public class MazeContainer implements Maze {
 	// a subset of segments need to be quickly identified for drawing
 	// the BSP tree partitions the set of all segments and provides a binary search tree for the partitions
 	
+	private BSPStatistics bspStatistics ; // figures on the BSP tree, computed on demand if the builder did not provide them
+	
 	private int[] start ; // the starting position (x,y) for the game
 	// this position should be in in range: 0 <= x < width, 0 <= y < height
 	// it should be consistent with mazedists.getStartPosition()
@@ -76,7 +78,7 @@ public class MazeContainer implements Maze {
 	 * @param height is the height of the maze, must conform with Constants.SKILL_Y values
 	 * @param floorplan the floorplan to set, must not be null
 	 * @param mazedists the mazedists to set, must be not null
-	 * @param root the rootnode to set, must be not null
+	 * @param root the rootnode to set, null if the maze is drawn without a BSP tree
 	 * @param startingPositionX is on the horizontal axis, {@code 0 <= x < width}
 	 * @param startingPositionY is on the vertical axis, {@code 0 <= y < height}
 	 * 
@@ -165,7 +167,7 @@ public class MazeContainer implements Maze {
 	/**
 	 * Gives the rootnode for the tree of BSPnodes.
 	 * Warning, returns direct access to internal field.
-	 * @return the rootnode
+	 * @return the rootnode, null if the maze was ordered for the grid renderer
 	 */
 	public BSPNode getRootnode() {
 		assert(isOperational()) : 
@@ -179,6 +181,29 @@ public class MazeContainer implements Maze {
 	 */
 	public void setRootnode(BSPNode rootnode) {
 		this.rootnode = rootnode;
+		bspStatistics = null; // figures for a previous tree do not apply
+	}
+	/**
+	 * Gives figures on the size and shape of the tree of BSPnodes.
+	 * For a generated maze, these are the statistics of the BSPBuilder.
+	 * Otherwise they are computed from the rootnode on first access
+	 * and figures on the generation are unknown.
+	 * @return the statistics for the rootnode, null if there is no tree
+	 */
+	public BSPStatistics getBSPStatistics() {
+		assert(isOperational()) : 
+			"accessing content before object is fully initialized!";
+		if (null == bspStatistics && null != rootnode)
+			bspStatistics = new BSPStatistics(rootnode);
+		return bspStatistics;
+	}
+	/**
+	 * Sets the statistics for the tree of BSPnodes,
+	 * must be called after {@link #setRootnode(BSPNode) setRootnode}.
+	 * @param bspStatistics the statistics of the rootnode, null to compute them on demand
+	 */
+	public void setBSPStatistics(BSPStatistics bspStatistics) {
+		this.bspStatistics = bspStatistics;
 	}
 	/**
 	 * Tells if the given position is inside a room.
@@ -348,8 +373,9 @@ public class MazeContainer implements Maze {
 		if (!(Constants.SKILL_Y[0] <= height && height <= Constants.SKILL_Y[last])) {
 			return false;
 		}
-		// check existence of cells, distances, bsp tree and starting position
-		if (null == floorplan || null == mazedists || null == rootnode || null == start)
+		// check existence of cells, distances and starting position
+		// the bsp tree is optional, the grid renderer draws without it
+		if (null == floorplan || null == mazedists || null == start)
 			return false;
 		// the starting position must be 
 		fullyInitialized = true;
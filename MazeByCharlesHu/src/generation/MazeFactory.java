@@ -1,5 +1,7 @@
 package generation;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
@@ -8,6 +10,12 @@ import java.util.logging.Logger;
  * that computes and delivers the maze. This class operates the worker thread
  * to do the computation in the background. The maze builder classes contribute
  * a run method to execute on the worker thread.
+ * 
+ * Besides the Factory interface, which takes one order at a time, 
+ * the factory offers {@link #orderAsync(Order)} which returns a 
+ * CompletableFuture for the maze. Each asynchronous order gets its
+ * own worker thread, such that callers can chain further work on 
+ * the future instead of blocking in waitTillDelivered.
  */
 public class MazeFactory implements Factory {
 	/**
@@ -44,23 +52,10 @@ public class MazeFactory implements Factory {
 		// idle, so accept order
 		currentOrder = order;
 		// set builder according to order
-		switch (order.getBuilder()) {
-		case DFS :
-			builder = new MazeBuilder();
-			buildOrder();
-			break;
-		case Prim:
-			builder = new MazeBuilderPrim();
-			buildOrder();
-			break;
-		case Boruvka:
-			builder = new MazeBuilderBoruvka();
-			buildOrder();
-			break;
-		default:
-			LOGGER.severe("Missing implementation for requested algorithm: " + order.getBuilder());
+		builder = createBuilder(order);
+		if (null == builder)
 			return false;
-		}
+		buildOrder();
 		return true ;
 	}
 	@Override
@@ -92,6 +87,54 @@ public class MazeFactory implements Factory {
 		builder = null;
 		currentOrder = null;
 	}
+	//////////////////////// Asynchronous interface ///////////////////////////
+	/**
+	 * Takes an order and returns a future for the maze right away.
+	 * The maze is built on a worker thread of its own, independent of 
+	 * the order that is currently processed via the Factory interface,
+	 * so any number of asynchronous orders can be in production at a time.
+	 * The given order still receives progress updates and the delivery 
+	 * of the maze, the future completes with the same maze right after delivery.
+	 * 
+	 * Canceling the future interrupts the worker thread, which makes the 
+	 * builder stop at its next check for an interrupt without delivery.
+	 * The future completes exceptionally if the requested algorithm 
+	 * is not supported or if the maze generation fails, also with an Error.
+	 * Dependent stages run on the worker thread unless an executor is 
+	 * given, e.g. a GUI should use thenAcceptAsync with its event dispatch thread.
+	 * @param order specifies what kind of maze is wanted and gets the maze delivered
+	 * @return future that completes with the delivered maze
+	 */
+	public CompletableFuture<Maze> orderAsync(Order order) {
+		final CompletableFuture<Maze> future = new CompletableFuture<>();
+		final MazeBuilder asyncBuilder = createBuilder(order);
+		if (null == asyncBuilder) {
+			future.completeExceptionally(new IllegalArgumentException("Unsupported algorithm: " + order.getBuilder()));
+			return future;
+		}
+		asyncBuilder.buildOrder(new FutureOrder(order, future));
+		final Thread thread = new Thread(() -> {
+			try {
+				asyncBuilder.run();
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+			} catch (Error e) {
+				// e.g. out of memory for a large maze, the future must not stay incomplete
+				future.completeExceptionally(e);
+				throw e;
+			}
+			// builder stopped without delivery, only happens if it was interrupted
+			future.completeExceptionally(new CancellationException("Maze generation was interrupted"));
+		});
+		// propagate cancellation of the future into the builder
+		future.whenComplete((maze, e) -> {
+			if (future.isCancelled())
+				thread.interrupt();
+		});
+		LOGGER.fine("Starting background thread to build an asynchronous order") ;
+		thread.start();
+		return future;
+	}
 	///////////////////////// private methods ///////////////////////////////////
 	/**
 	 * Provide the builder with necessary input and start its execution
@@ -104,4 +147,78 @@ public class MazeFactory implements Factory {
 		buildThread = new Thread(builder);
 		buildThread.start();
 	}
+	/**
+	 * Creates the maze builder that matches the algorithm of the given order.
+	 * @param order specifies the algorithm
+	 * @return new builder for the order, null if the algorithm is not supported
+	 */
+	static MazeBuilder createBuilder(Order order) {
+		switch (order.getBuilder()) {
+		case DFS :
+			return new MazeBuilder();
+		case Prim:
+			return new MazeBuilderPrim();
+		case Kruskal:
+			return new MazeBuilderKruskal();
+		case Eller:
+			return new MazeBuilderEller();
+		case Boruvka:
+			return new MazeBuilderBoruvka(order.isParallel());
+		default:
+			LOGGER.severe("Missing implementation for requested algorithm: " + order.getBuilder());
+			return null;
+		}
+	}
+	///////////////////////// private classes ///////////////////////////////////
+	/**
+	 * Order that forwards all calls to the order of a client
+	 * and completes a future once the maze is delivered.
+	 */
+	private static final class FutureOrder implements Order {
+		private final Order order;
+		private final CompletableFuture<Maze> future;
+
+		/**
+		 * Constructor
+		 * @param order the order of the client
+		 * @param future completes with the delivered maze
+		 */
+		FutureOrder(Order order, CompletableFuture<Maze> future) {
+			this.order = order;
+			this.future = future;
+		}
+		@Override
+		public int getSkillLevel() {
+			return order.getSkillLevel();
+		}
+		@Override
+		public Builder getBuilder() {
+			return order.getBuilder();
+		}
+		@Override
+		public boolean isPerfect() {
+			return order.isPerfect();
+		}
+		@Override
+		public int getSeed() {
+			return order.getSeed();
+		}
+		@Override
+		public boolean isParallel() {
+			return order.isParallel();
+		}
+		@Override
+		public Renderer getRenderer() {
+			return order.getRenderer();
+		}
+		@Override
+		public void deliver(Maze mazeConfig) {
+			order.deliver(mazeConfig);
+			future.complete(mazeConfig);
+		}
+		@Override
+		public void updateProgress(int percentage) {
+			order.updateProgress(percentage);
+		}
+	}
 }
@@ -0,0 +1,259 @@
+package generation;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import generation.Order.Builder;
+import gui.Constants;
+
+/**
+ * This class keeps mazes ready to be played such that a game can start
+ * without waiting for the maze generation.
+ * Mazes are grouped by the parameters a player can choose: skill level, builder
+ * algorithm and if the maze is perfect. For each such combination, the pool
+ * pre-generates up to a given number of mazes in the background and hands
+ * one out right away on request. Handing out a maze triggers its replacement.
+ *
+ * Each pre-generated maze uses a random seed, so the pool only serves
+ * a game that wants a different maze each time, not a deterministic one.
+ *
+ * The memory cap limits the estimated size of all mazes that are ready
+ * or in production. The estimate is proportional to the number of cells,
+ * see {@link #BYTES_PER_CELL}.
+ *
+ * The pool is thread-safe, mazes are delivered by worker threads
+ * of a ConcurrentMazeFactory and handed out on the thread that asks for them.
+ */
+public class MazePool {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(MazePool.class.getName());
+
+	/**
+	 * Rough estimate of the memory a generated maze needs per cell,
+	 * it covers floorplan, distance matrix, walls and the BSP tree.
+	 */
+	public static final long BYTES_PER_CELL = 64;
+
+	// background generation, mazes for a game are handed out before they are ordered again
+	private final ConcurrentMazeFactory factory;
+	// number of mazes to keep ready for each combination of parameters
+	private final int poolSize;
+	// upper bound for the estimated memory of all ready and pending mazes
+	private final long memoryCap;
+	// delivered orders with a ready maze for each combination of parameters, see key method
+	private final Map<Integer, ArrayDeque<DefaultOrder>> ready = new HashMap<>();
+	// number of mazes in production for each combination of parameters
+	private final Map<Integer, Integer> pending = new HashMap<>();
+	// estimated memory of all ready and pending mazes
+	private long memoryUsage;
+	// seeds for the pre-generated mazes
+	private final Random seeds = new Random();
+
+	//////////////////////// Constructor ////////////////////////////////////////
+	/**
+	 * Constructor for a pool that generates mazes with a single background thread.
+	 * @param poolSize number of mazes to keep ready per skill level, builder and perfect, {@code 0 < poolSize}
+	 * @param memoryCap upper bound for the estimated memory of all mazes in bytes
+	 */
+	public MazePool(int poolSize, long memoryCap) {
+		this(poolSize, memoryCap, 1);
+	}
+	/**
+	 * Constructor
+	 * @param poolSize number of mazes to keep ready per skill level, builder and perfect, {@code 0 < poolSize}
+	 * @param memoryCap upper bound for the estimated memory of all mazes in bytes
+	 * @param workers number of mazes that are generated at the same time, {@code 0 < workers}
+	 */
+	public MazePool(int poolSize, long memoryCap, int workers) {
+		this.poolSize = poolSize;
+		this.memoryCap = memoryCap;
+		// all mazes that the pool may keep could be waiting for a worker at the same time
+		factory = new ConcurrentMazeFactory(workers, (Constants.MAX_SKILL_LEVEL+1)*Builder.values().length*2*poolSize) {
+			@Override
+			protected void orderCompleted(Order order) {
+				release((PoolOrder) order);
+			}
+		};
+	}
+
+	//////////////////////// Pool operations ////////////////////////////////////
+	/**
+	 * Starts to generate mazes for the given parameters in the background
+	 * till the pool holds poolSize of them, unless the memory cap is reached first.
+	 * The method returns right away.
+	 * @param skillLevel the size of the maze, {@literal 0 <= skillLevel <= 15}
+	 * @param builder the builder algorithm
+	 * @param perfect if the maze is perfect
+	 */
+	public synchronized void prefetch(int skillLevel, Builder builder, boolean perfect) {
+		final int key = key(skillLevel, builder, perfect);
+		final long size = estimateMemory(skillLevel);
+		while (count(key) < poolSize && memoryUsage + size <= memoryCap) {
+			final PoolOrder order = new PoolOrder(skillLevel, builder, perfect, seeds.nextInt(), key);
+			if (!factory.order(order))
+				return;
+			pending.merge(key, 1, Integer::sum);
+			memoryUsage += size;
+		}
+	}
+	/**
+	 * Hands out a ready maze for the given parameters and starts
+	 * to generate a replacement in the background.
+	 * A maze is handed out only once, so it can be played right away.
+	 * It comes with its order, which tells the random seed the maze was generated with.
+	 * @param skillLevel the size of the maze, {@literal 0 <= skillLevel <= 15}
+	 * @param builder the builder algorithm
+	 * @param perfect if the maze is perfect
+	 * @return the delivered order of a ready maze, null if none is ready at this point
+	 */
+	public synchronized DefaultOrder take(int skillLevel, Builder builder, boolean perfect) {
+		final ArrayDeque<DefaultOrder> mazes = ready.get(key(skillLevel, builder, perfect));
+		final DefaultOrder order = (null == mazes) ? null : mazes.poll();
+		if (null != order) {
+			memoryUsage -= estimateMemory(skillLevel);
+			LOGGER.fine("Hand out pre-generated maze for skill level " + skillLevel + ", builder " + builder);
+		}
+		// refill asynchronously
+		prefetch(skillLevel, builder, perfect);
+		return order;
+	}
+	/**
+	 * Gives the number of mazes that are ready for the given parameters.
+	 * @param skillLevel the size of the maze, {@literal 0 <= skillLevel <= 15}
+	 * @param builder the builder algorithm
+	 * @param perfect if the maze is perfect
+	 * @return number of ready mazes
+	 */
+	public synchronized int getReadyCount(int skillLevel, Builder builder, boolean perfect) {
+		final ArrayDeque<DefaultOrder> mazes = ready.get(key(skillLevel, builder, perfect));
+		return (null == mazes) ? 0 : mazes.size();
+	}
+	/**
+	 * Gives the estimated memory of all ready mazes and those in production.
+	 * @return estimated memory in bytes, never above the memory cap
+	 */
+	public synchronized long getMemoryUsage() {
+		return memoryUsage;
+	}
+	/**
+	 * Waits till all mazes in production are ready.
+	 */
+	public void waitTillReady() {
+		factory.waitTillDelivered();
+	}
+	/**
+	 * Cancels the generation of all mazes in production.
+	 * Ready mazes stay in the pool, the memory reserved for the canceled ones is released.
+	 */
+	public void cancel() {
+		factory.cancel();
+	}
+	/**
+	 * Stops the background generation and drops all ready mazes.
+	 */
+	public synchronized void shutdown() {
+		factory.shutdown();
+		ready.clear();
+		pending.clear();
+		memoryUsage = 0;
+	}
+
+	///////////////////////// private methods ///////////////////////////////////
+	/**
+	 * Encodes the parameters of a maze into a single integer.
+	 * @param skillLevel the size of the maze
+	 * @param builder the builder algorithm
+	 * @param perfect if the maze is perfect
+	 * @return unique key for the parameters
+	 */
+	private static int key(int skillLevel, Builder builder, boolean perfect) {
+		return ((skillLevel * Builder.values().length + builder.ordinal()) << 1) | (perfect ? 1 : 0);
+	}
+	/**
+	 * Estimates the memory of a maze for the given skill level.
+	 * @param skillLevel the size of the maze
+	 * @return estimated memory in bytes
+	 */
+	private static long estimateMemory(int skillLevel) {
+		return BYTES_PER_CELL * Constants.SKILL_X[skillLevel] * Constants.SKILL_Y[skillLevel];
+	}
+	/**
+	 * Gives the number of mazes that are ready or in production.
+	 * @param key the encoded parameters
+	 * @return number of mazes
+	 */
+	private int count(int key) {
+		final ArrayDeque<DefaultOrder> mazes = ready.get(key);
+		return ((null == mazes) ? 0 : mazes.size()) + pending.getOrDefault(key, 0);
+	}
+	/**
+	 * Adds the order of a delivered maze to the pool.
+	 * Mazes that arrive after a shutdown are dropped.
+	 * @param order the order that got its maze delivered
+	 */
+	private synchronized void add(PoolOrder order) {
+		if (!decrementPending(order.key))
+			return;
+		order.pooled = true;
+		ready.computeIfAbsent(order.key, k -> new ArrayDeque<>()).add(order);
+	}
+	/**
+	 * Releases the reservation of an order that is complete without
+	 * a maze in the pool, i.e., its builder failed or it was canceled.
+	 * @param order the completed order
+	 */
+	private synchronized void release(PoolOrder order) {
+		if (order.pooled || !decrementPending(order.key))
+			return;
+		memoryUsage -= estimateMemory(order.getSkillLevel());
+		LOGGER.fine("Release reservation of an order that got no maze for skill level " + order.getSkillLevel());
+	}
+	/**
+	 * Counts down the mazes in production for the given parameters.
+	 * @param key the encoded parameters
+	 * @return false if there is none, which happens after a shutdown
+	 */
+	private boolean decrementPending(int key) {
+		final Integer count = pending.get(key);
+		if (null == count)
+			return false;
+		if (count > 1)
+			pending.put(key, count - 1);
+		else
+			pending.remove(key);
+		return true;
+	}
+
+	///////////////////////// private classes ///////////////////////////////////
+	/**
+	 * Order for a maze that is put into the pool once it is delivered.
+	 */
+	private final class PoolOrder extends DefaultOrder {
+		private final int key;
+		// set once the delivered maze is in the pool, guarded by the pool
+		private boolean pooled;
+
+		/**
+		 * Constructor
+		 * @param skillLevel the size of the maze
+		 * @param builder the builder algorithm
+		 * @param perfect if the maze is perfect
+		 * @param seed the seed for the random number generator
+		 * @param key the encoded parameters
+		 */
+		PoolOrder(int skillLevel, Builder builder, boolean perfect, int seed, int key) {
+			super(skillLevel, builder, perfect, seed);
+			this.key = key;
+		}
+		@Override
+		public void deliver(Maze maze) {
+			super.deliver(maze);
+			add(this);
+		}
+	}
+}
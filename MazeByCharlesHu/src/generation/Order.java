@@ -40,12 +40,38 @@ public interface Order {
 	 * @return the current setting for the seed value of the random number generator
 	 */
 	int getSeed();
+	/**
+	 * Tells if the maze generation may distribute its work
+	 * across multiple threads. This is helpful for very large
+	 * mazes on machines with many cores. 
+	 * A parallel generation is expected to deliver the same maze
+	 * as a sequential one for the same seed.
+	 * @return true if parallel computation is requested, false otherwise
+	 */
+	boolean isParallel();
+	/**
+	 * Gives the requested renderer for the first person view, 
+	 * possible values are listed in the Renderer enum type.
+	 * The maze generation only builds the BSP tree 
+	 * if the BSP renderer needs it.
+	 * @return the renderer that is expected to draw the maze
+	 */
+	Renderer getRenderer();
+	/**
+	 * Lists the renderers for the first person view.
+	 * BSP draws the walls from a tree of nodes that the maze generation builds,
+	 * which takes a long time for large mazes.
+	 * Grid casts rays through the floorplan and needs no such preprocessing.
+	 */
+	enum Renderer { BSP, Grid } ;
 	/**
 	 * Delivers the produced maze. 
 	 * This method is called by the factory to provide the 
 	 * resulting maze as a MazeConfiguration.
 	 * It is a call back function that is called some time
 	 * later in response to a client's call of the order method.
+	 * It is called on the thread that builds the maze, which is
+	 * usually not the thread that placed the order.
 	 * @param mazeConfig is the maze that is delivered in response to an order
 	 */
 	void deliver(Maze mazeConfig) ;
@@ -55,6 +81,8 @@ public interface Order {
 	 * during production, there is no guarantee on particular values.
 	 * Percentage will be delivered in monotonously increasing order,
 	 * the last call is with a value of 100 after delivery of product.
+	 * Like deliver, it is called on the thread that builds the maze,
+	 * or for a parallel generation on one of its worker threads, one call at a time.
 	 * @param percentage of job completion
 	 */
 	void updateProgress(int percentage) ;
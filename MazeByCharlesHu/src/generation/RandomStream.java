@@ -0,0 +1,76 @@
+package generation;
+
+import java.util.Random;
+
+/**
+ * This class provides a stream of pseudo random numbers for a single maze generation.
+ * Unlike {@link SingleRandom}, there is no process-wide instance: each MazeBuilder
+ * creates its own stream from the seed of its order. So the sequence of random numbers
+ * for one maze depends only on its seed, not on other mazes that are generated
+ * at the same time, and no lock is shared between threads.
+ *
+ * The stream is backed by a {@link Random} of its own. It draws numbers the same way as
+ * SingleRandom, so a builder that uses a stream with a given seed generates the same maze
+ * as it did with the shared generator set to that seed.
+ * An instance is meant to be used by a single thread, namely the one that runs the builder,
+ * such that its generator is never contended.
+ * A computation that needs random numbers in several threads can obtain
+ * independent streams with {@link #split()}.
+ */
+public final class RandomStream {
+	/** internal random number generator, only used by a single thread */
+	private final Random generator;
+
+	/**
+	 * Constructor for a stream that starts with a particular seed value.
+	 * Streams with the same seed deliver the same sequence of numbers.
+	 * @param seed is the seed value for the random number generator
+	 */
+	public RandomStream(final int seed) {
+		this(new Random(seed));
+	}
+
+	/**
+	 * Constructor for a stream with an arbitrary seed value,
+	 * every instance delivers a different sequence of numbers.
+	 */
+	public RandomStream() {
+		this(new Random());
+	}
+
+	/**
+	 * Constructor that wraps the given generator.
+	 * @param generator is the random number generator to use, can not be null
+	 */
+	RandomStream(final Random generator) {
+		this.generator = generator;
+	}
+
+	/**
+	 * Delivers a new stream whose numbers are independent from this one.
+	 * The new stream is determined by the state of this stream,
+	 * so splitting keeps the results reproducible for a given seed.
+	 * @return new stream
+	 */
+	public RandomStream split() {
+		return new RandomStream(new Random(generator.nextLong()));
+	}
+
+	/**
+	 * Delivers a random number.
+	 * @return random integer value
+	 */
+	public int nextInt() {
+		return generator.nextInt();
+	}
+	/**
+	 * Generate an integer random number in interval [lowerBound,upperBound]
+	 * @param lowerBound for the interval of values (inclusive)
+	 * @param upperBound for the interval of values (inclusive, WARNING: unusual)
+	 * @return random number within given range
+	 */
+	public int nextIntWithinInterval(final int lowerBound, final int upperBound) {
+		assert(lowerBound <= upperBound) : "parameter error, lowerbound " + lowerBound + "> upper bound" + upperBound ;
+		return lowerBound + generator.nextInt(upperBound - lowerBound + 1) ;
+	}
+}
@@ -0,0 +1,25 @@
+package generation;
+
+/**
+ * A RowSink receives the rows of a floorplan one after the other
+ * as soon as a builder has finished carving them.
+ * This allows a client to stream a maze, e.g. to a file or to the screen,
+ * while later rows are still being generated.
+ *
+ * Rows are delivered exactly once and in increasing order of their y coordinate.
+ * Once a row is delivered, the builder does not change any wallboard of that row anymore,
+ * with one exception: the exit.
+ * The exit position and distances are determined only after all rows are delivered,
+ * then MazeBuilder.generate tears down a single wallboard on the border of the maze for the exit.
+ * That wallboard may belong to any row that touches the border, so a sink that keeps rows
+ * has to take the exit from the floorplan once the maze is delivered,
+ * see {@link Floorplan#isExitPosition(int, int)}.
+ */
+public interface RowSink {
+	/**
+	 * Receives a finished row of the floorplan.
+	 * @param floorplan the floorplan that holds the row, cells are accessible with {@link Floorplan#getValueOfCell(int, int)}
+	 * @param y the y coordinate of the row, {@code 0 <= y < height}
+	 */
+	void rowCompleted(Floorplan floorplan, int y);
+}
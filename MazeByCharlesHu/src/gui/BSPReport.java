@@ -0,0 +1,146 @@
+package gui;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Random;
+
+import generation.BSPStatistics;
+import generation.DefaultOrder;
+import generation.Floorplan;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+
+/**
+ * Command line report on the BSP trees of mazes and on the cost
+ * of drawing the first person view with them.
+ *
+ * For each maze, it prints the {@link BSPStatistics} of its tree.
+ * It then draws a number of frames from random positions and directions
+ * into an image in memory and prints the average time per frame and
+ * how many nodes, leaves and walls the FirstPersonView visited per frame.
+ * For comparison, it draws the same frames with the GridFirstPersonView,
+ * which needs no tree, and prints its time and how many cells it visited per frame.
+ * A tree whose max depth exceeds twice the depth of a balanced tree
+ * is marked as unbalanced.
+ *
+ * A maze is either given as a skill level, then a maze with rooms is generated
+ * with a fixed seed, or as the name of a maze file in the XML or binary format.
+ */
+public class BSPReport {
+	/**
+	 * Default number of frames drawn per maze.
+	 */
+	private static final int FRAMES = 1000;
+	/**
+	 * Seed for the generated mazes and for the random positions.
+	 */
+	private static final int SEED = 13;
+
+	/**
+	 * Panel that draws into an image in memory instead of the screen.
+	 */
+	private static class ImagePanel extends MazePanel {
+		private static final long serialVersionUID = 1L;
+		private final Graphics2D graphics = new BufferedImage(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+				BufferedImage.TYPE_INT_RGB).createGraphics();
+
+		@Override
+		public Graphics getBufferGraphics() {
+			return graphics;
+		}
+	}
+
+	/**
+	 * Prints the report for a single maze.
+	 * @param name identifies the maze in the report
+	 * @param maze the maze
+	 * @param frames the number of frames to draw
+	 */
+	static void report(String name, Maze maze, int frames) {
+		final BSPStatistics statistics = maze.getBSPStatistics();
+		final boolean unbalanced = statistics.getMaxDepth() > 2*statistics.getMinimalDepth();
+		System.out.println(name + ": " + statistics + (unbalanced ? " UNBALANCED" : ""));
+		if (0 == frames)
+			return;
+		// the seen walls are only recorded for the map, the view needs space for the border walls
+		final FirstPersonView view = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+				Constants.MAP_UNIT, Constants.STEP_SIZE,
+				new Floorplan(maze.getWidth()+1, maze.getHeight()+1), maze.getRootnode());
+		final MazePanel panel = new ImagePanel();
+		final Random random = new Random(SEED);
+		long nodes = 0;
+		long leaves = 0;
+		long walls = 0;
+		final long start = System.nanoTime();
+		for (int i = 0; i < frames; i++) {
+			view.draw(panel, random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight()), 0,
+					90*random.nextInt(4), 0.5f);
+			nodes += view.getTraversedNodeCount();
+			leaves += view.getTraversedLeafCount();
+			walls += view.getTraversedWallCount();
+		}
+		final long time = System.nanoTime() - start;
+		System.out.println(String.format("%s: %.3f ms per frame, per frame visited nodes %.1f, leaves %.1f, walls %.1f",
+				name, time/1e6/frames, (double) nodes/frames, (double) leaves/frames, (double) walls/frames));
+		// same frames without the tree
+		final GridFirstPersonView grid = new GridFirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+				Constants.MAP_UNIT, Constants.STEP_SIZE,
+				new Floorplan(maze.getWidth()+1, maze.getHeight()+1), maze);
+		random.setSeed(SEED);
+		long cells = 0;
+		final long gridStart = System.nanoTime();
+		for (int i = 0; i < frames; i++) {
+			grid.draw(panel, random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight()), 0,
+					90*random.nextInt(4), 0.5f);
+			cells += grid.getTraversedCellCount();
+		}
+		final long gridTime = System.nanoTime() - gridStart;
+		System.out.println(String.format("%s: grid renderer %.3f ms per frame, per frame visited cells %.1f",
+				name, gridTime/1e6/frames, (double) cells/frames));
+	}
+
+	/**
+	 * Prints the report for the given mazes.
+	 * @param args optional -frames followed by the number of frames per maze (default 1000, 0 skips drawing),
+	 * then skill levels 0-15 or maze files, all skill levels if none are given
+	 */
+	public static void main(String[] args) {
+		int frames = FRAMES;
+		int first = 0;
+		if (args.length >= 2 && "-frames".equals(args[0])) {
+			frames = Integer.parseInt(args[1]);
+			first = 2;
+		}
+		if (first == args.length) {
+			args = new String[Constants.SKILL_X.length];
+			for (int skill = 0; skill < args.length; skill++)
+				args[skill] = Integer.toString(skill);
+			first = 0;
+		}
+		final MazeFactory factory = new MazeFactory();
+		for (int i = first; i < args.length; i++) {
+			final String arg = args[i];
+			try {
+				final Maze maze;
+				if (arg.matches("\\d+")) {
+					final DefaultOrder order = new DefaultOrder(Integer.parseInt(arg), Builder.DFS, false, SEED);
+					factory.order(order);
+					factory.waitTillDelivered();
+					maze = order.getMaze();
+				}
+				else if (arg.endsWith(MazeBinaryWriter.EXTENSION)) {
+					maze = new MazeBinaryReader(arg).getMazeConfiguration();
+				}
+				else {
+					maze = new MazeStreamReader(arg).getMazeConfiguration();
+				}
+				report(arg, maze, frames);
+			} catch (IOException e) {
+				System.out.println("Can not read " + arg + ": " + e.getMessage());
+			}
+		}
+	}
+}
@@ -58,6 +58,16 @@ public class Control extends JFrame implements KeyListener {
 	// rooms are an additional feature that generalizes the text book maze generation algorithms
 	// for development it can be useful to turn of the room generation to focus on the standard algorithm
 	private static final boolean DEVELOPMENT_VERSION_MAZE_GENERATION_WITHOUT_ROOMS = false;
+	// while the title screen is shown, mazes are pre-generated for the skill level of the last game
+	// such that the next game can start right away, the pool keeps this many mazes per skill level
+	// and the estimated memory of all of them stays below the cap (in bytes)
+	private static final int MAZE_POOL_SIZE = 1;
+	private static final long MAZE_POOL_MEMORY_CAP = 64L * 1024 * 1024;
+	// in the deterministic setting, the same mazes are generated over and over again,
+	// so generated mazes are kept on disk in this directory and loaded instead,
+	// the files of all of them stay below the budget (in bytes)
+	private static final File MAZE_CACHE_DIRECTORY = new File(System.getProperty("java.io.tmpdir"), "mazecache");
+	private static final long MAZE_CACHE_SIZE_BUDGET = 256L * 1024 * 1024;
 	
 	/**
 	 * The logger is used to track execution and report issues.
@@ -83,6 +93,23 @@ public class Control extends JFrame implements KeyListener {
      * builder, and perfect remain the same.
      */
     boolean deterministic;
+    /**
+     * The pool keeps pre-generated mazes ready such that
+     * a game can start without waiting for the maze generation.
+     * It is only used if the mode is not deterministic.
+     */
+    MazePool mazePool;
+    /**
+     * The skill level of the last game that was started from the title screen,
+     * -1 if there was none yet. The pool only pre-generates mazes for this level.
+     */
+    int lastSkillLevel = -1;
+    /**
+     * The cache keeps generated mazes on disk such that
+     * a maze that is generated again can be loaded instead.
+     * It is only used if the mode is deterministic, null otherwise.
+     */
+    MazeFileCache mazeCache;
     
 	/**
 	 * The current state of the controller and the game.
@@ -129,6 +156,10 @@ public class Control extends JFrame implements KeyListener {
 	    // set to true for testing purposes
 	    // set to false for playing the game
 		deterministic = DEVELOPMENT_VERSION_WITH_DETERMINISTIC_MAZE_GENERATION? true : false;
+		
+		mazePool = new MazePool(MAZE_POOL_SIZE, MAZE_POOL_MEMORY_CAP);
+		// random seeds hardly ever repeat, so only deterministic mazes are worth caching
+		mazeCache = deterministic ? new MazeFileCache(MAZE_CACHE_DIRECTORY, MAZE_CACHE_SIZE_BUDGET) : null;
 	}
 	/**
 	 * Sets the current state to the given one.
@@ -160,6 +191,35 @@ public class Control extends JFrame implements KeyListener {
     	return perfect;
     }
 
+    /**
+     * Gets the pool of pre-generated mazes.
+     * @return the pool
+     */
+    public MazePool getMazePool() {
+    	return mazePool;
+    }
+    /**
+     * Gets the skill level of the last game that was started.
+     * @return the skill level, -1 if no game was started yet
+     */
+    public int getLastSkillLevel() {
+    	return lastSkillLevel;
+    }
+    /**
+     * Sets the skill level of the game that is started.
+     * @param skillLevel the skill level, {@literal 0 <= skillLevel <= 15}
+     */
+    public void setLastSkillLevel(int skillLevel) {
+    	lastSkillLevel = skillLevel;
+    }
+    /**
+     * Gets the cache of generated mazes on disk.
+     * @return the cache, null if the mode is not deterministic
+     */
+    public MazeFileCache getMazeCache() {
+    	return mazeCache;
+    }
+
     /**
      * Gets a reference to the panel to draw on.
      * @return the panel
@@ -320,6 +380,7 @@ public class Control extends JFrame implements KeyListener {
 	    String generation = "DFS";
 	    String driver = "Manual";
 	    String sensors = "1111";
+	    String renderer = "BSP";
 	    
 	    //Parse through command line arguments to find desired parameters based on existence of flags
 	    for (int i = 0; i < args.length; i++) {
@@ -332,6 +393,9 @@ public class Control extends JFrame implements KeyListener {
 	    	if (args[i].equals("-r")) {
 	    		sensors = args[i + 1];
 	    	}
+	    	if (args[i].equals("-v")) {
+	    		renderer = args[i + 1];
+	    	}
 	    }
 	    
 	    
@@ -344,7 +408,13 @@ public class Control extends JFrame implements KeyListener {
 	        ((StateTitle)currentState).setBuilder(Order.Builder.Prim);
 	    	break;
 	    case "Kruskal":
+	    	msg = "Command line input detected: generating random maze with Kruskal's algorithm.";
+	    	((StateTitle)currentState).setBuilder(Order.Builder.Kruskal);
+	    	break;
 	    case "Eller":
+	    	msg = "Command line input detected: generating random maze with Eller's algorithm.";
+	    	((StateTitle)currentState).setBuilder(Order.Builder.Eller);
+	    	break;
 	    case "Boruvka":
 	    	msg = "Command line input detected: generating random maze with Boruvka's algorithm.";
 	    	((StateTitle)currentState).setBuilder(Order.Builder.Boruvka);
@@ -365,6 +435,15 @@ public class Control extends JFrame implements KeyListener {
 	    
 	    LOGGER.fine(msg);
 	    
+	    //Handle input for the renderer of the first person view
+	    if ("Grid".equals(renderer)) {
+	    	LOGGER.fine("Command line input detected: drawing first person view with the grid renderer, no BSP tree is built.");
+	    	((StateTitle)currentState).setRenderer(Order.Renderer.Grid);
+	    }
+	    else if (!"BSP".equals(renderer)) {
+	    	LOGGER.fine("Unknown renderer: " + renderer + " ignored, drawing with the BSP renderer.");
+	    }
+	    
 	    msg = "Error in handling command line input: " + driver;
 	    
 	    //Handle input for driver
@@ -590,11 +669,14 @@ public class Control extends JFrame implements KeyListener {
 	 * The application can be operated in three ways. 
 	 * 1) The intended normal operation is to provide no parameters
 	 * and the maze will be generated by a randomized DFS algorithm (default). 
-	 * 2) If a filename is given that contains a maze stored in xml format. 
+	 * 2) If a filename is given that contains a maze stored in xml format
+	 * or in the binary format of the MazeBinaryWriter (extension .maze). 
 	 * The maze will be loaded from that file. 
 	 * This option is useful during development to test with a particular maze.
 	 * 3) A predefined constant string is given to select a maze
-	 * generation algorithm, currently supported is "Prim".
+	 * generation algorithm, currently supported are "Prim", "Kruskal", "Eller" and "Boruvka".
+	 * 4) The flag -v Grid selects the grid renderer for the first person view,
+	 * which skips building the BSP tree, such that large mazes start right away.
 	 * @param args is optional, first string can be a fixed constant like Prim or
 	 * the name of a file that stores a maze in XML format
 	 */
@@ -660,6 +742,8 @@ public class Control extends JFrame implements KeyListener {
 		setLoggingLevelForIndividualLogger(MazeFactory.class,Level.FINE);
 		setLoggingLevelForIndividualLogger(MazeBuilder.class,Level.FINE);
 		setLoggingLevelForIndividualLogger(MazeBuilderPrim.class,Level.FINE);
+		setLoggingLevelForIndividualLogger(MazeBuilderKruskal.class,Level.FINE);
+		setLoggingLevelForIndividualLogger(MazeBuilderEller.class,Level.FINE);
 		setLoggingLevelForIndividualLogger(SingleRandom.class,Level.FINE);
 	}
 	/**
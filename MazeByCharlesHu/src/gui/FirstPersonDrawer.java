@@ -0,0 +1,23 @@
+package gui;
+
+/**
+ * A first person drawer draws the view at the maze from
+ * the current position in the current direction.
+ * StatePlaying calls it for every frame while the user plays.
+ *
+ * The FirstPersonView draws the walls from a tree of BSP nodes,
+ * the GridFirstPersonView casts rays through the floorplan and
+ * works for mazes that were generated without a BSP tree.
+ */
+public interface FirstPersonDrawer {
+	/**
+	 * Draws the first person view on the buffer image of the panel.
+	 * @param panel for drawing on the buffer image
+	 * @param x coordinate of current position
+	 * @param y coordinate of current position
+	 * @param walkStep counts intermediate steps within a single step forward or backward
+	 * @param ang gives the current viewing angle
+	 * @param percentToExit gives the distance to exit as a percentage
+	 */
+	void draw(MazePanel panel, int x, int y, int walkStep, int ang, float percentToExit);
+}
@@ -5,12 +5,10 @@ package gui;
 
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.util.List;
 import java.util.logging.Logger;
 
-import generation.BSPBranch;
-import generation.BSPLeaf;
 import generation.BSPNode;
+import generation.CompiledBSPTree;
 import generation.Floorplan;
 import generation.Wall;
 import gui.ColorTheme.MazeColors;
@@ -26,7 +24,7 @@ import gui.ColorTheme.MazeColors;
  * Paul Falstad granted permission to modify and use code for teaching purposes.
  * Refactored by Peter Kemper
  */
-public class FirstPersonView {
+public class FirstPersonView implements FirstPersonDrawer {
 	/**
 	 * The logger is used to track execution and report issues.
 	 */
@@ -54,14 +52,15 @@ public class FirstPersonView {
 	private final Floorplan seenWalls;
 	
 	/** 
-	 * The root node to a tree with walls (Wall objects) in its leaves.
+	 * The tree with walls (Wall objects) in its leaves.
 	 * This data structure carries the information about walls
 	 * to draw. Walls are drawn as filled polygons. 
 	 * The content for this tree is determined in MazeBuilder
-	 * when the maze is created. 
+	 * when the maze is created and compiled into arrays
+	 * for a traversal on every frame.
 	 * It also used to decide visibility of walls.
 	 */
-	private final BSPNode bspRoot;
+	private final CompiledBSPTree bspTree;
 	
 	/** 
 	 * The current viewing angle. This information is used in rotations
@@ -134,13 +133,25 @@ public class FirstPersonView {
 	 * @param bspRoot the root node of the bsp tree
 	 */
 	public FirstPersonView(int width, int height, int mapUnit, int stepSize, Floorplan seenWalls, BSPNode bspRoot) {
+		this(width, height, mapUnit, stepSize, seenWalls, new CompiledBSPTree(bspRoot));
+	}
+	/**
+	 * Constructor
+	 * @param width of display
+	 * @param height of display
+	 * @param mapUnit current scaling factor
+	 * @param stepSize size of steps
+	 * @param seenWalls to store which walls were put on display
+	 * @param bspTree the compiled bsp tree
+	 */
+	public FirstPersonView(int width, int height, int mapUnit, int stepSize, Floorplan seenWalls, CompiledBSPTree bspTree) {
 		// store given parameter values
 		viewWidth = width;
 		viewHeight = height;
 		this.mapUnit = mapUnit;
 		this.stepSize = stepSize;
 		this.seenWalls = seenWalls;
-		this.bspRoot = bspRoot; 
+		this.bspTree = bspTree; 
 		// constants and derived values
 		angle = 0; // angle for initial setting of direction is 0 == East, hidden constraint across classes
 		scaleZ = viewHeight/2;
@@ -157,6 +168,7 @@ public class FirstPersonView {
 	 * @param walkStep, only used to set viewX and viewY
 	 * 
 	 */
+	@Override
 	public void draw(MazePanel panel, int x, int y, int walkStep, int ang, float percentToExit) {
 		// obtain a Graphics2D object we can draw on
 		Graphics g = panel.getBufferGraphics() ;
@@ -185,7 +197,25 @@ public class FirstPersonView {
         traverseNodeCounter = traverseWallSectorCounter =
         		drawRectCounter = drawRectLateCounter = drawRectWallCounter = 0;
         //
-        drawAllVisibleSectors(bspRoot);
+        drawAllVisibleSectors(0); // start at the root
+	}
+	/**
+	 * @return the number of BSP nodes the last call of draw visited
+	 */
+	public int getTraversedNodeCount() {
+		return traverseNodeCounter;
+	}
+	/**
+	 * @return the number of BSP leaves the last call of draw visited
+	 */
+	public int getTraversedLeafCount() {
+		return traverseWallSectorCounter;
+	}
+	/**
+	 * @return the number of walls the last call of draw considered for drawing
+	 */
+	public int getTraversedWallCount() {
+		return drawRectCounter;
 	}
 
 
@@ -230,40 +260,39 @@ public class FirstPersonView {
 	/**
 	 * Recursive method to explore tree of BSP nodes and draw all walls in leaf nodes 
 	 * where the bounding box is visible
-	 * @param node is the current node of interest
+	 * @param node is the index of the current node of interest in the compiled tree
 	 */
-	private void drawAllVisibleSectors(BSPNode node) {
+	private void drawAllVisibleSectors(int node) {
 		traverseNodeCounter++; // debug
 		
 		// Anchor, stop recursion at leaf nodes
-		if (node.isIsleaf()) {
-			drawAllWallsOfASector((BSPLeaf) node);
+		if (bspTree.isLeaf(node)) {
+			drawAllWallsOfASector(node);
 			return;
 		}
 		
 		// for intermediate nodes proceed recursively through all visible branches
-		BSPBranch n = (BSPBranch) node;
 		
 		// debug code
 		if (deepDebug) {
 			dbg("                               ".substring(0, nesting) +
-					"traverse_node "+n.getX()+" "+n.getY()+" "+n.getDx()+" "+n.getDy()+" "+
-					n.getLowerBoundX()+" "+n.getLowerBoundY()+" "+n.getUpperBoundX()+" "+n.getUpperBoundY());
+					"traverse_node "+bspTree.getX(node)+" "+bspTree.getY(node)+" "+bspTree.getDx(node)+" "+bspTree.getDy(node)+" "+
+					bspTree.getLowerBoundX(node)+" "+bspTree.getLowerBoundY(node)+" "+bspTree.getUpperBoundX(node)+" "+bspTree.getUpperBoundY(node));
 		}
 		nesting++; // debug
 		
-		final int dot = (viewX-n.getX())*n.getDy() - (viewY-n.getY())*n.getDx();
+		final int dot = (viewX-bspTree.getX(node))*bspTree.getDy(node) - (viewY-bspTree.getY(node))*bspTree.getDx(node);
 		// The type of tree traversal depends on the value of dot
 		// either do right before left or vice versa
 		// but only if node is visible at all
 		
 		// if dot >= 0 consider right node before left node
-		BSPNode right = n.getRightBranch();
+		final int right = bspTree.getRightChild(node);
 		if ((dot >= 0) && (boundingBoxIsVisible(right))) {
 			drawAllVisibleSectors(right);
 		}
 		// consider left node
-		BSPNode left = n.getLeftBranch();
+		final int left = bspTree.getLeftChild(node);
 		if (boundingBoxIsVisible(left))
 			drawAllVisibleSectors(left);
 		// if dot < 0 consider right node now (after left node)
@@ -274,10 +303,10 @@ public class FirstPersonView {
 	}
 	/**
 	 * Decide if the bounding box is visible
-	 * @param node the current node
+	 * @param node index of the current node
 	 * @return true if node should be drawn, false otherwise
 	 */
-	private boolean boundingBoxIsVisible(BSPNode node) {
+	private boolean boundingBoxIsVisible(int node) {
 		
 		if (allVisible) // unused feature, presumably for debugging
 			return true;
@@ -292,10 +321,10 @@ public class FirstPersonView {
 		// to check for an intersection with the range set
 		// calculate 2 intermediate points (p1x,p1y) and (p2x,p2y) first
 		// then derive x1 and x2
-		final int xmin = node.getLowerBoundX() - viewX;
-		final int ymin = node.getLowerBoundY() - viewY;
-		final int xmax = node.getUpperBoundX() - viewX;
-		final int ymax = node.getUpperBoundY() - viewY;
+		final int xmin = bspTree.getLowerBoundX(node) - viewX;
+		final int ymin = bspTree.getLowerBoundY(node) - viewY;
+		final int xmax = bspTree.getUpperBoundX(node) - viewX;
+		final int ymax = bspTree.getUpperBoundY(node) - viewY;
 		// initialize (p1x,p1y) and (p2x,p2y) with bounds
 		int p1x = xmin; 
 		int p2x = xmax;
@@ -359,46 +388,46 @@ public class FirstPersonView {
 	}
 	/**
 	 * Checks if bounding box for current node is out of view.
-	 * @param node the current node
+	 * @param node index of the current node
 	 * @return true if any of the special cases match, false otherwise
 	 */
-	private boolean isOutOfView(BSPNode node) {
-		if (angle >= 45 && angle <= 135 && viewY > node.getUpperBoundY())
+	private boolean isOutOfView(int node) {
+		if (angle >= 45 && angle <= 135 && viewY > bspTree.getUpperBoundY(node))
 			return true;
-		if (angle >= 225 && angle <= 315 && viewY < node.getLowerBoundY())
+		if (angle >= 225 && angle <= 315 && viewY < bspTree.getLowerBoundY(node))
 			return true;
-		if (angle >= 135 && angle <= 225 && viewX < node.getLowerBoundX())
+		if (angle >= 135 && angle <= 225 && viewX < bspTree.getLowerBoundX(node))
 			return true;
-		if ((angle >= 315 || angle <= 45) && viewX > node.getUpperBoundX())
+		if ((angle >= 315 || angle <= 45) && viewX > bspTree.getUpperBoundX(node))
 			return true;
 		return false;
 	}
 
 	/**
 	 * Traverses all walls of this leaf and draws corresponding rectangles on screen
-	 * @param node is the leaf node
+	 * @param node is the index of the leaf node
 	 */
-	private void drawAllWallsOfASector(BSPLeaf node) {
-		List<Wall> allWalls = node.getAllWalls();
+	private void drawAllWallsOfASector(int node) {
 		// debug
 		traverseWallSectorCounter++;
 		if (deepDebug) {
 			dbg("                               ".substring(0, nesting) +
-					"traverseWallSector "+node.getLowerBoundX()+" "+node.getLowerBoundY()+
-					" "+node.getUpperBoundX()+" "+node.getUpperBoundY());
+					"traverseWallSector "+bspTree.getLowerBoundX(node)+" "+bspTree.getLowerBoundY(node)+
+					" "+bspTree.getUpperBoundX(node)+" "+bspTree.getUpperBoundY(node));
 		}
-		// for all walls of this node
-		int i = 0;
-		for (Wall wall: allWalls) {
+		// for all walls of this node, they are consecutive in the compiled tree
+		final int first = bspTree.getFirstWall(node);
+		final int end = bspTree.getEndWall(node);
+		for (int wall = first; wall < end; wall++) {
 			// draw rectangle
 			drawWall(wall);
 			// debug
 			if (deepDebug) {
 				dbg("                               ".substring(0, nesting) +
-						" traverseWallSector(" + i +") "+
-						wall.getStartPositionX()+" "+wall.getStartPositionY()+" "+
-						wall.getExtensionX()+" "+wall.getExtensionY());
-				i++;
+						" traverseWallSector(" + (wall-first) +") "+
+						bspTree.getStartPositionX(wall)+" "+bspTree.getStartPositionY(wall)+" "+
+						(bspTree.getEndPositionX(wall)-bspTree.getStartPositionX(wall))+" "+
+						(bspTree.getEndPositionY(wall)-bspTree.getStartPositionY(wall)));
 			}
 
 		}
@@ -407,18 +436,18 @@ public class FirstPersonView {
 	/**
 	 * Draws wall on screen via graphics attribute gc.
 	 * Helper method for drawAllWallsOfASector.
-	 * @param wall whose seen attribute may be set to true
+	 * @param wall index of the wall in the compiled tree, its seen attribute may be set to true
 	 */
-	private void drawWall(Wall wall) {
+	private void drawWall(int wall) {
 		drawRectCounter++; // debug, counter
 		
 		// some notes: 
 		// perspective centers on (centerX,centerY) = (view_width/2,view_height/2)
 		// initialization part for x1, x2, y11, y12, y21, y22
-		final int ox1 = wall.getStartPositionX() - viewX;
-		final int ox2 = wall.getEndPositionX()   - viewX;
-		final int y1  = wall.getStartPositionY() - viewY;
-		final int y2  = wall.getEndPositionY()   - viewY;
+		final int ox1 = bspTree.getStartPositionX(wall) - viewX;
+		final int ox2 = bspTree.getEndPositionX(wall)   - viewX;
+		final int y1  = bspTree.getStartPositionY(wall) - viewY;
+		final int y2  = bspTree.getEndPositionY(wall)   - viewY;
 		
 		RangePair rp = getNewRangePair(ox1, ox2, y1, y2);
 		if (!rp.clip3d())
@@ -439,14 +468,15 @@ public class FirstPersonView {
 		
 		// moved code for drawing bits and pieces into yet another method to 
 		// gain more clarity on what information is actually needed
-		gc.setColor(ColorTheme.getColor(wall.getColor()));
+		gc.setColor(ColorTheme.getColor(bspTree.getColor(wall)));
 		boolean drawn = drawPolygons(x1, x2, y11, y12, y21, y22);
 		
-		if (drawn && !wall.isSeen()) {
-			wall.setSeen(true); // updates the wall
+		if (drawn && !bspTree.getWall(wall).isSeen()) {
+			Wall seen = bspTree.getWall(wall);
+			seen.setSeen(true); // updates the wall
 			// set the seenWalls bit for all wallboards of a wall
 			// the wall parameter given is not modified
-			seenWalls.addWall(wall, mapUnit); // updates seenWalls
+			seenWalls.addWall(seen, mapUnit); // updates seenWalls
 		}
 	}
 	
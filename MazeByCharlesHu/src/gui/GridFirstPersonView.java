@@ -0,0 +1,375 @@
+package gui;
+
+import java.awt.Graphics;
+import java.util.logging.Logger;
+
+import generation.CardinalDirection;
+import generation.Distance;
+import generation.Floorplan;
+import generation.Maze;
+import generation.Wallboard;
+import gui.ColorTheme.MazeColors;
+
+/**
+ * This class draws the first person view by casting a ray
+ * through the floorplan for each column of the screen.
+ * It is an alternative to the FirstPersonView that needs no
+ * tree of BSP nodes, so a maze ordered for the grid renderer
+ * can skip the BSP phase of the maze generation.
+ * This makes a difference for large mazes where building the tree
+ * takes much longer than the rest of the generation.
+ *
+ * A ray walks from cell to cell with a digital differential analyzer:
+ * it always crosses the nearer of the next vertical and horizontal grid lines
+ * and stops at the first wallboard on its way.
+ * The cost of a frame depends on how far the rays travel,
+ * not on the size of the maze.
+ * Consecutive columns that hit the same wall are drawn as a single polygon.
+ *
+ * The perspective and the background are the same as for the FirstPersonView.
+ * The color of a wallboard is the one of the sequence of wallboards it belongs to,
+ * as for the walls of the ListOfWallsBuilder, but without the random color change
+ * of the maze generation, which is only known to the BSP tree.
+ */
+public class GridFirstPersonView implements FirstPersonDrawer {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(GridFirstPersonView.class.getName());
+
+	// Constants, same as in FirstPersonView
+	final int viewZ = 50;
+	private final int viewWidth;
+	private final int viewHeight;
+	private final int mapUnit;
+	private final int stepSize;
+	private final int scaleZ; // = view_height/2; which is the horizon
+
+	/**
+	 * A data structure to store which wallboards have been visible during
+	 * the game. The Map can color highlight such wallboards.
+	 * A wallboard is stored as in Floorplan.addWall, as the north wallboard
+	 * of the cell below or the west wallboard of the cell to the right.
+	 */
+	private final Floorplan seenWalls;
+	// the maze layout the rays walk through
+	private final Floorplan floorplan;
+	private final Distance dists;
+	private final int width;
+	private final int height;
+	// reused to mark wallboards in seenWalls
+	private final Wallboard seen = new Wallboard(0, 0, CardinalDirection.North);
+
+	/**
+	 * The current position scaled by map_unit and modified by the
+	 * view direction, set in the draw method as in the FirstPersonView.
+	 */
+	private int viewX;
+	private int viewY;
+
+	/**
+	 * The result of the last call of castRay: the cell in front of the wallboard
+	 * that the ray hit, the direction of the wallboard from that cell,
+	 * and the distance along the viewing direction in map units.
+	 */
+	private int hitX;
+	private int hitY;
+	private CardinalDirection hitDirection;
+	private double hitDepth;
+
+	// the color of the last wallboard that colorOf looked up, avoids walking
+	// the same sequence of wallboards again for the next column
+	private int colorX = -1;
+	private int colorY = -1;
+	private CardinalDirection colorDirection;
+	private int color;
+
+	// debug stuff
+	private int traverseCellCounter;
+	private int drawPolygonCounter;
+
+	/**
+	 * Constructor
+	 * @param width of display
+	 * @param height of display
+	 * @param mapUnit current scaling factor
+	 * @param stepSize size of steps
+	 * @param seenWalls to store which walls were put on display
+	 * @param maze provides the floorplan and the distances, it does not need a BSP tree
+	 */
+	public GridFirstPersonView(int width, int height, int mapUnit, int stepSize, Floorplan seenWalls, Maze maze) {
+		viewWidth = width;
+		viewHeight = height;
+		this.mapUnit = mapUnit;
+		this.stepSize = stepSize;
+		this.seenWalls = seenWalls;
+		floorplan = maze.getFloorplan();
+		dists = maze.getMazedists();
+		this.width = maze.getWidth();
+		this.height = maze.getHeight();
+		scaleZ = viewHeight/2;
+	}
+	/**
+	 * Draws the first person view on the screen during the game
+	 * @param panel for drawing on the buffer image
+	 * @param x coordinate of current position, only used to set viewX
+	 * @param y coordinate of current position, only used to set viewY
+	 * @param walkStep, only used to set viewX and viewY
+	 * @param ang gives the current viewing angle
+	 * @param percentToExit gives the distance to exit as a percentage
+	 */
+	@Override
+	public void draw(MazePanel panel, int x, int y, int walkStep, int ang, float percentToExit) {
+		Graphics g = panel.getBufferGraphics() ;
+        if (null == g) {
+            LOGGER.warning("Can't get graphics object to draw on, mitigate this by skipping draw operation") ;
+            return;
+        }
+        // the viewing direction (dirX,dirY) is a unit vector
+        final double dirX = Math.cos(Math.toRadians(ang));
+        final double dirY = Math.sin(Math.toRadians(ang));
+        setView(x, y, walkStep, ang);
+
+        drawBackground(g, percentToExit);
+
+        traverseCellCounter = drawPolygonCounter = 0;
+        // walls are drawn in runs of consecutive columns that hit the same wall
+        // a run starts at column first, runColor is not valid if first < 0
+        int first = -1;
+        int runLine = 0;
+        CardinalDirection runDirection = null;
+        int runColor = 0;
+        int firstTop = 0;
+        int firstBottom = 0;
+        int lastTop = 0;
+        int lastBottom = 0;
+        for (int column = 0; column < viewWidth; column++) {
+        	// the ray through the middle of the column leaves the viewing direction sideways
+        	// by offset, which projects to column as x*scaleZ/z does in the FirstPersonView
+        	final double offset = (column + 0.5 - viewWidth/2) / scaleZ;
+        	// the FirstPersonView clips walls at a depth of 4, so closer walls are not drawn
+        	final boolean hit = castRay(dirX + offset*dirY, dirY - offset*dirX) && hitDepth >= 4;
+        	int line = 0;
+        	int wallColor = 0;
+        	if (hit) {
+        		line = getLine(hitX, hitY, hitDirection);
+        		wallColor = colorOf(hitX, hitY, hitDirection);
+        		markAsSeen(hitX, hitY, hitDirection);
+        	}
+        	// end the current run if this column does not continue its wall
+        	if (first >= 0 && (!hit || line != runLine || hitDirection != runDirection || wallColor != runColor)) {
+        		fillRun(g, first, column-1, runColor, firstTop, firstBottom, lastTop, lastBottom);
+        		first = -1;
+        	}
+        	if (!hit)
+        		continue;
+        	// same projection as the FirstPersonView, z is negative in front of the viewer
+        	final int z = -(int) hitDepth;
+        	lastTop = viewZ*scaleZ/z + (viewHeight/2);
+        	lastBottom = (viewZ-100)*scaleZ/z + (viewHeight/2);
+        	if (first < 0) {
+        		first = column;
+        		runLine = line;
+        		runDirection = hitDirection;
+        		runColor = wallColor;
+        		firstTop = lastTop;
+        		firstBottom = lastBottom;
+        	}
+        }
+        if (first >= 0)
+        	fillRun(g, first, viewWidth-1, runColor, firstTop, firstBottom, lastTop, lastBottom);
+	}
+	/**
+	 * @return the number of cells the rays of the last call of draw walked through
+	 */
+	public int getTraversedCellCount() {
+		return traverseCellCounter;
+	}
+	/**
+	 * @return the number of polygons the last call of draw filled for walls
+	 */
+	public int getDrawnPolygonCount() {
+		return drawPolygonCounter;
+	}
+
+	////////////////////////////// internal, private methods ///////////////////////////////
+	/**
+	 * Updates viewX and viewY based on the given angle and position,
+	 * with the same fixed point computation as the FirstPersonView.
+	 * @param x coordinate of current position
+	 * @param y coordinate of current position
+	 * @param walkStep goes into a scaling factor
+	 * @param angle the current viewing angle
+	 */
+	private void setView(int x, int y, int walkStep, int angle) {
+		final int factor = stepSize*walkStep-Constants.VIEW_OFFSET;
+		final int viewDX = (int) (Math.cos(angle*Math.PI/180)*(1<<16));
+		final int viewDY = (int) (Math.sin(angle*Math.PI/180)*(1<<16));
+		viewX = (x*mapUnit+mapUnit/2) + ((viewDX*factor) >> 16);
+		viewY = (y*mapUnit+mapUnit/2) + ((viewDY*factor) >> 16);
+	}
+	/**
+	 * Draws two solid rectangles to provide a background,
+	 * same as in the FirstPersonView.
+	 * @param graphics to draw on, must be not null
+	 * @param percentToExit gives the distance to exit
+	 */
+	private void drawBackground(Graphics graphics, float percentToExit) {
+		graphics.setColor(ColorTheme.getColor(MazeColors.BACKGROUND_TOP,percentToExit));
+		graphics.fillRect(0, 0, viewWidth, viewHeight/2);
+		graphics.setColor(ColorTheme.getColor(MazeColors.BACKGROUND_BOTTOM,percentToExit));
+		graphics.fillRect(0, viewHeight/2, viewWidth, viewHeight/2);
+	}
+	/**
+	 * Walks along a ray from the current position from cell to cell
+	 * till it hits a wallboard or leaves the maze.
+	 * The direction (rayX,rayY) is scaled such that it advances by 1
+	 * along the viewing direction, so the ray parameter at a hit is its depth.
+	 * On a hit, the fields hitX, hitY, hitDirection and hitDepth are set.
+	 * @param rayX x part of the direction of the ray
+	 * @param rayY y part of the direction of the ray
+	 * @return true if the ray hits a wallboard, false if it leaves the maze, e.g. through the exit
+	 */
+	private boolean castRay(double rayX, double rayY) {
+		int x = Math.floorDiv(viewX, mapUnit);
+		int y = Math.floorDiv(viewY, mapUnit);
+		final int stepX = (rayX > 0) ? 1 : ((rayX < 0) ? -1 : 0);
+		final int stepY = (rayY > 0) ? 1 : ((rayY < 0) ? -1 : 0);
+		// ray parameter to cross the next vertical (nextX) and horizontal (nextY) grid line
+		// and to get from one grid line to the next one (deltaX, deltaY)
+		final double deltaX = (0 == stepX) ? Double.POSITIVE_INFINITY : mapUnit/Math.abs(rayX);
+		final double deltaY = (0 == stepY) ? Double.POSITIVE_INFINITY : mapUnit/Math.abs(rayY);
+		double nextX = (0 == stepX) ? Double.POSITIVE_INFINITY :
+			((stepX > 0 ? x+1 : x)*mapUnit - viewX)/rayX;
+		double nextY = (0 == stepY) ? Double.POSITIVE_INFINITY :
+			((stepY > 0 ? y+1 : y)*mapUnit - viewY)/rayY;
+		// the walk ends once the ray is outside of the maze and moves away from it
+		while (!((x < 0 && stepX <= 0) || (x >= width && stepX >= 0) ||
+				(y < 0 && stepY <= 0) || (y >= height && stepY >= 0))) {
+			traverseCellCounter++; // debug, counter
+			// walls only face into the maze, so a ray from outside passes the border
+			final boolean inside = (0 <= x && x < width && 0 <= y && y < height);
+			if (nextX < nextY) {
+				final CardinalDirection cd = (stepX > 0) ? CardinalDirection.East : CardinalDirection.West;
+				if (inside && floorplan.hasWall(x, y, cd))
+					return setHit(x, y, cd, nextX);
+				x += stepX;
+				nextX += deltaX;
+			}
+			else {
+				final CardinalDirection cd = (stepY > 0) ? CardinalDirection.South : CardinalDirection.North;
+				if (inside && floorplan.hasWall(x, y, cd))
+					return setHit(x, y, cd, nextY);
+				y += stepY;
+				nextY += deltaY;
+			}
+		}
+		return false;
+	}
+	/**
+	 * Stores the given hit in the fields for castRay.
+	 * @param x coordinate of the cell in front of the wallboard
+	 * @param y coordinate of the cell in front of the wallboard
+	 * @param cd direction of the wallboard from the cell
+	 * @param depth distance along the viewing direction
+	 * @return true
+	 */
+	private boolean setHit(int x, int y, CardinalDirection cd, double depth) {
+		hitX = x;
+		hitY = y;
+		hitDirection = cd;
+		hitDepth = depth;
+		return true;
+	}
+	/**
+	 * Gives the grid line of the given wallboard, a y coordinate for a horizontal
+	 * wallboard and an x coordinate for a vertical one.
+	 * @param x coordinate of the cell
+	 * @param y coordinate of the cell
+	 * @param cd direction of the wallboard from the cell
+	 * @return the grid line the wallboard is on
+	 */
+	private int getLine(int x, int y, CardinalDirection cd) {
+		switch (cd) {
+		case North:
+			return y;
+		case South:
+			return y+1;
+		case West:
+			return x;
+		default:
+			return x+1;
+		}
+	}
+	/**
+	 * Determines the color of a wallboard.
+	 * It is the color of the sequence of wallboards that the wallboard belongs to,
+	 * which depends on the distance of the cell where the sequence starts,
+	 * see the SequenceIterator of the Floorplan.
+	 * @param x coordinate of the cell
+	 * @param y coordinate of the cell
+	 * @param cd direction of the wallboard from the cell
+	 * @return the rgb value of the color
+	 */
+	private int colorOf(int x, int y, CardinalDirection cd) {
+		if (x == colorX && y == colorY && cd == colorDirection)
+			return color;
+		colorX = x;
+		colorY = y;
+		colorDirection = cd;
+		if (CardinalDirection.North == cd || CardinalDirection.South == cd) {
+			// a horizontal sequence ends at a west wallboard that crosses it
+			int start = x;
+			while (start > 0 && floorplan.hasWall(start-1, y, cd) && floorplan.hasNoWall(start, y, CardinalDirection.West))
+				start--;
+			color = ColorTheme.getWallColor(dists.getDistanceValue(start, y), 0, 1);
+		}
+		else {
+			// a vertical sequence ends at a north wallboard that crosses it
+			int start = y;
+			while (start > 0 && floorplan.hasWall(x, start-1, cd) && floorplan.hasNoWall(x, start, CardinalDirection.North))
+				start--;
+			color = ColorTheme.getWallColor(dists.getDistanceValue(x, start), 0, 0);
+		}
+		return color;
+	}
+	/**
+	 * Marks the given wallboard as seen for the Map.
+	 * @param x coordinate of the cell
+	 * @param y coordinate of the cell
+	 * @param cd direction of the wallboard from the cell
+	 */
+	private void markAsSeen(int x, int y, CardinalDirection cd) {
+		switch (cd) {
+		case North:
+		case South:
+			seen.setLocationDirection(x, getLine(x, y, cd), CardinalDirection.North);
+			break;
+		default:
+			seen.setLocationDirection(getLine(x, y, cd), y, CardinalDirection.West);
+			break;
+		}
+		seenWalls.addWallboard(seen, false);
+	}
+	/**
+	 * Fills a polygon for a run of columns that show the same wall.
+	 * The polygon covers the columns first to last, its top and bottom edges
+	 * go from the projection in the first column to the one in the last column.
+	 * @param g to draw on
+	 * @param first the first column of the run
+	 * @param last the last column of the run, {@code first <= last}
+	 * @param rgb the color of the wall
+	 * @param firstTop top of the wall in the first column
+	 * @param firstBottom bottom of the wall in the first column
+	 * @param lastTop top of the wall in the last column
+	 * @param lastBottom bottom of the wall in the last column
+	 */
+	private void fillRun(Graphics g, int first, int last, int rgb,
+			int firstTop, int firstBottom, int lastTop, int lastBottom) {
+		drawPolygonCounter++; // debug, counter
+		final int[] xps = { first, first, last+1, last+1 };
+		final int[] yps = { firstTop, firstBottom+1, lastBottom+1, lastTop };
+		g.setColor(ColorTheme.getColor(rgb));
+		g.fillPolygon(xps, yps, 4);
+	}
+}
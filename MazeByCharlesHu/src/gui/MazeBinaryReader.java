@@ -0,0 +1,238 @@
+package gui;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Distance;
+import generation.Floorplan;
+import generation.Maze;
+import generation.MazeContainer;
+import generation.Wall;
+
+/**
+ * This class provides functionality to read the content of a Maze object from a file
+ * in the binary format produced by the MazeBinaryWriter, see there for details of the format.
+ * As the MazeFileReader, it makes all fields of a Maze object accessible
+ * such that it is straightforward to instantiate a Maze object.
+ * The file is read in one go and the packed arrays are copied in bulk.
+ *
+ * For very large mazes, the file can be mapped into memory instead.
+ * The floorplan and the distances then read their values in place from the mapped file,
+ * such that loading does not copy them and the operating system pages them in on demand.
+ * The mapping is private, changes during a game stay in memory and never reach the file.
+ * Only the BSP tree is decoded into objects in both cases.
+ */
+public class MazeBinaryReader {
+
+	/**
+	 * Files of at least this size in bytes are worth mapping into memory,
+	 * for smaller ones copying is as fast and keeps the values in plain arrays.
+	 */
+	public static final long MAP_THRESHOLD = 1 << 20;
+
+	// fields of maze configuration object
+	private int width ;
+	private int height ;
+	private int rooms ;
+	private int[][] dists ;
+	private IntBuffer mappedDists ; // distances read in place if the file is mapped, null otherwise
+	private int expected_partiters ;
+	private Floorplan cells ;
+	private int startx ;
+	private int starty ;
+	private BSPNode root ;
+
+	/**
+	 * Constructor reads maze data from given file. The file format is the binary format produced by the MazeBinaryWriter class.
+	 * @param filename with data of a Maze object
+	 * @throws IOException if the file can not be read, is not in the binary format or has an unsupported version
+	 */
+	public MazeBinaryReader(String filename) throws IOException {
+		this(filename, false);
+	}
+	/**
+	 * Constructor reads maze data from given file. The file format is the binary format produced by the MazeBinaryWriter class.
+	 * @param filename with data of a Maze object
+	 * @param mapped true to map the file into memory and read cells and distances in place, false to copy them,
+	 * a file without write permission is copied as a private mapping needs it
+	 * @throws IOException if the file can not be read, is not in the binary format or has an unsupported version
+	 */
+	public MazeBinaryReader(String filename, boolean mapped) throws IOException {
+		try {
+			// a private mapping needs a channel that is open for writing, otherwise copy the file
+			if (mapped && Files.isWritable(Paths.get(filename))) {
+				// the mapping stays valid after the channel is closed
+				try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+					load(channel.map(MapMode.PRIVATE, 0, channel.size()), true);
+				}
+			}
+			else {
+				load(ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename))), false);
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("Incomplete maze file " + filename, e);
+		}
+	}
+
+	/**
+	 * Provides the data loaded from file wrapped in a Maze.
+	 * @return maze configuration loaded from file
+	 */
+	Maze getMazeConfiguration() {
+		Maze mazeConfig = new MazeContainer() ;
+		mazeConfig.setHeight(getHeight());
+		mazeConfig.setWidth(getWidth());
+		mazeConfig.setFloorplan(getCells());
+		mazeConfig.setMazedists((null != mappedDists) ? new Distance(width, height, mappedDists) : new Distance(getDistances()));
+		mazeConfig.setRootnode(getRootNode());
+		mazeConfig.setStartingPosition(getStartX(), getStartY());
+		return mazeConfig;
+	}
+	/////////////////// set of straightforward get methods //////////////
+	int getWidth() {
+		return width ;
+	}
+	int getHeight() {
+		return height ;
+	}
+	int getRooms() {
+		return rooms ;
+	}
+	int[][] getDistances() {
+		if (null == dists)
+			dists = new Distance(width, height, mappedDists.duplicate()).getAllDistanceValues();
+		return dists ;
+	}
+	int getExpectedPartiters() {
+		return expected_partiters ;
+	}
+	Floorplan getCells() {
+		return cells ;
+	}
+	int getStartX() {
+		return startx ;
+	}
+	int getStartY() {
+		return starty ;
+	}
+	BSPNode getRootNode() {
+		return root ;
+	}
+
+	/**
+	 * Reads all attributes of a maze object from the given buffer.
+	 * @param buffer holds the content of a file
+	 * @param inPlace true to keep cells and distances in the buffer, false to copy them into arrays
+	 * @throws IOException if the content is not in the binary format or has an unsupported version
+	 */
+	private void load(ByteBuffer buffer, boolean inPlace) throws IOException {
+		if (MazeBinaryWriter.MAGIC != buffer.getInt())
+			throw new IOException("Not a binary maze file");
+		final int version = buffer.getInt();
+		if (MazeBinaryWriter.VERSION != version)
+			throw new IOException("Unsupported version " + version + " of binary maze file");
+		width = buffer.getInt();
+		height = buffer.getInt();
+		rooms = buffer.getInt();
+		expected_partiters = buffer.getInt();
+		startx = buffer.getInt();
+		starty = buffer.getInt();
+		if (inPlace) {
+			// views on the two regions, the limits make a truncated file fail here
+			final int cellCount = width*height;
+			cells = new Floorplan(width, height, buffer.slice().asShortBuffer().limit(cellCount).slice());
+			buffer.position(buffer.position() + 2*cellCount);
+			mappedDists = buffer.slice().asIntBuffer().limit(cellCount).slice();
+			buffer.position(buffer.position() + 4*cellCount);
+			loadTree(buffer);
+			return;
+		}
+		// cells
+		final short[] cellValues = new short[width*height];
+		buffer.asShortBuffer().get(cellValues);
+		buffer.position(buffer.position() + 2*cellValues.length);
+		cells = new Floorplan(width, height, cellValues);
+		// distances, the file is row-major, the array is indexed by [x][y]
+		final int[] row = new int[width];
+		dists = new int[width][height];
+		for (int y = 0; y != height; y++) {
+			buffer.asIntBuffer().get(row);
+			buffer.position(buffer.position() + 4*width);
+			for (int x = 0; x != width; x++) {
+				dists[x][y] = row[x];
+			}
+		}
+		loadTree(buffer);
+	}
+	/**
+	 * Reads the BSP tree from the given buffer.
+	 * @param buffer positioned at the node count
+	 * @throws IOException if the file has no BSP tree
+	 */
+	private void loadTree(ByteBuffer buffer) throws IOException {
+		final int[] nodes = new int[MazeBinaryWriter.NODE_SIZE*buffer.getInt()];
+		buffer.asIntBuffer().get(nodes);
+		buffer.position(buffer.position() + 4*nodes.length);
+		final Wall[] walls = new Wall[buffer.getInt()];
+		for (int i = 0; i < walls.length; i++) {
+			walls[i] = readWall(buffer);
+		}
+		if (0 == nodes.length)
+			throw new IOException("Binary maze file has no BSP tree");
+		root = readBSPNode(nodes, walls, 0);
+	}
+	/**
+	 * Builds the BSP tree for the node at the given index from the flattened arrays.
+	 * @param nodes holds NODE_SIZE ints per node in preorder
+	 * @param walls holds the walls of all leaves
+	 * @param index of the node in the nodes array
+	 * @return a new BSPNode, fully initialized with all necessary data
+	 */
+	private static BSPNode readBSPNode(int[] nodes, Wall[] walls, int index) {
+		final int offset = MazeBinaryWriter.NODE_SIZE*index;
+		if (MazeBinaryWriter.LEAF == nodes[offset+4]) {
+			// note xl, yl, xu and yu are computed from the walls within the leaf constructor
+			final int first = nodes[offset];
+			final int n = nodes[offset+1];
+			final ArrayList<Wall> list = new ArrayList<>(n);
+			for (int i = first; i < first + n; i++) {
+				list.add(walls[i]);
+			}
+			return new BSPLeaf(list);
+		}
+		// left child follows directly, right child index is stored
+		BSPNode l = readBSPNode(nodes, walls, index + 1);
+		BSPNode r = readBSPNode(nodes, walls, nodes[offset+4]);
+		return new BSPBranch(nodes[offset], nodes[offset+1], nodes[offset+2], nodes[offset+3], l, r);
+	}
+	/**
+	 * Reads a single wall from the buffer.
+	 * @param buffer positioned at the wall
+	 * @return new wall, fully initialized with all necessary data
+	 */
+	private static Wall readWall(ByteBuffer buffer) {
+		final int x = buffer.getInt();
+		final int y = buffer.getInt();
+		final int dx = buffer.getInt();
+		final int dy = buffer.getInt();
+		final int dist = buffer.getInt();
+		final int cc = 0 ; // use this as a dummy for the constructor, the correct color is explicitly set below
+		Wall result = new Wall(x, y, dx, dy, dist, cc);
+		result.setColor(buffer.getInt());
+		final int flags = buffer.get();
+		result.setPartition(0 != (flags & MazeBinaryWriter.PARTITION));
+		result.setSeen(0 != (flags & MazeBinaryWriter.SEEN));
+		return result;
+	}
+}
@@ -0,0 +1,196 @@
+package gui;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Floorplan;
+import generation.Wall;
+
+/**
+ * This class provides functionality to write a maze configuration to a file in a compact binary format.
+ * It stores the same information as the MazeFileWriter, but as packed arrays
+ * instead of one XML element per value, which makes files much smaller and faster to read.
+ * All methods are static, the MazeBinaryReader reads the format back.
+ *
+ * Format version 1, all numbers are big-endian as written by a DataOutputStream:
+ * <pre>
+ * header:    int MAGIC, int VERSION,
+ *            int width, int height, int rooms, int partiters, int startX, int startY
+ * cells:     width*height shorts, row-major, value of cell (x,y) at index y*width+x
+ * distances: width*height ints, row-major as cells
+ * BSP nodes: int nodeCount, then per node in preorder 5 ints:
+ *            branch: x, y, dx, dy, index of right child (left child follows the branch directly)
+ *            leaf:   index of first wall, number of walls, 0, 0, LEAF
+ * walls:     int wallCount, then per wall 6 ints x, y, dx, dy, distance, color
+ *            and a byte with flags PARTITION and SEEN, leaves refer to consecutive walls
+ * </pre>
+ */
+public class MazeBinaryWriter {
+	/**
+	 * First four bytes of a file, reads "MAZB" in ASCII.
+	 */
+	public static final int MAGIC = 0x4D415A42;
+	/**
+	 * Version of the format that is written.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * File name extension for mazes in the binary format.
+	 */
+	public static final String EXTENSION = ".maze";
+	/**
+	 * Number of ints per BSP node.
+	 */
+	static final int NODE_SIZE = 5;
+	/**
+	 * Marker in the last int of a node record that identifies a leaf.
+	 */
+	static final int LEAF = -1;
+	/**
+	 * Flags for the state of a wall.
+	 */
+	static final int PARTITION = 1;
+	static final int SEEN = 2;
+
+	/**
+	 * Write maze content to a file
+	 * @param filename gives the file name to store the data in
+	 * @param width is the width of the maze
+	 * @param height is the height of the maze
+	 * @param rooms is the number of rooms
+	 * @param expected_partiters is the expected number of partition iterations
+	 * @param root is the root node of the bsp tree
+	 * @param cells is the floor plan for this maze
+	 * @param dists is the distances to the exit
+	 * @param startX is the x coordinate of the starting position
+	 * @param startY is the y coordinate of the starting position
+	 * @throws IOException if the file can not be written
+	 */
+	public static void store(String filename, int width, int height, int rooms,
+			int expected_partiters, BSPNode root, Floorplan cells,
+			int[][] dists, int startX, int startY) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(width);
+			out.writeInt(height);
+			out.writeInt(rooms);
+			out.writeInt(expected_partiters);
+			out.writeInt(startX);
+			out.writeInt(startY);
+			// cells fit into 16 bits, see Floorplan.Encoding
+			for (int y = 0; y != height; y++) {
+				for (int x = 0; x != width; x++) {
+					out.writeShort(cells.getValueOfCell(x, y));
+				}
+			}
+			for (int y = 0; y != height; y++) {
+				for (int x = 0; x != width; x++) {
+					out.writeInt(dists[x][y]);
+				}
+			}
+			// flatten the BSP tree into a node array and a wall array
+			final int[] counts = new int[2];
+			count(root, counts);
+			final int[] nodes = new int[NODE_SIZE*counts[0]];
+			final Wall[] walls = new Wall[counts[1]];
+			flatten(root, nodes, walls, new int[2]);
+			out.writeInt(counts[0]);
+			for (int value : nodes) {
+				out.writeInt(value);
+			}
+			out.writeInt(walls.length);
+			for (Wall wall : walls) {
+				out.writeInt(wall.getStartPositionX());
+				out.writeInt(wall.getStartPositionY());
+				out.writeInt(wall.getExtensionX());
+				out.writeInt(wall.getExtensionY());
+				out.writeInt(wall.getDistance());
+				out.writeInt(wall.getColor());
+				out.writeByte((wall.isPartition() ? PARTITION : 0) | (wall.isSeen() ? SEEN : 0));
+			}
+		}
+	}
+	/**
+	 * Converts a maze file in the XML format of the MazeFileWriter into the binary format.
+	 * @param xmlFilename gives the file to read
+	 * @param binaryFilename gives the file to write
+	 * @throws IOException if the XML file can not be read or the binary file can not be written
+	 */
+	public static void convert(String xmlFilename, String binaryFilename) throws IOException {
+		MazeStreamReader reader = new MazeStreamReader(xmlFilename);
+		store(binaryFilename, reader.getWidth(), reader.getHeight(), reader.getRooms(),
+				reader.getExpectedPartiters(), reader.getRootNode(), reader.getCells(),
+				reader.getDistances(), reader.getStartX(), reader.getStartY());
+	}
+	/**
+	 * Counts the nodes and walls of a BSP tree.
+	 * @param node the root of the tree
+	 * @param counts accumulates the number of nodes at index 0 and the number of walls at index 1
+	 */
+	private static void count(BSPNode node, int[] counts) {
+		counts[0]++;
+		if (node.isIsleaf()) {
+			counts[1] += ((BSPLeaf) node).getAllWalls().size();
+		}
+		else {
+			count(((BSPBranch) node).getLeftBranch(), counts);
+			count(((BSPBranch) node).getRightBranch(), counts);
+		}
+	}
+	/**
+	 * Stores a BSP tree in preorder into the given arrays.
+	 * @param node the root of the tree
+	 * @param nodes receives NODE_SIZE ints per node
+	 * @param walls receives the walls of all leaves
+	 * @param next holds the index of the next free node at index 0 and the next free wall at index 1
+	 */
+	private static void flatten(BSPNode node, int[] nodes, Wall[] walls, int[] next) {
+		final int offset = NODE_SIZE*next[0]++;
+		if (node.isIsleaf()) {
+			final List<Wall> list = ((BSPLeaf) node).getAllWalls();
+			nodes[offset] = next[1];
+			nodes[offset+1] = list.size();
+			nodes[offset+4] = LEAF;
+			for (Wall wall : list) {
+				walls[next[1]++] = wall;
+			}
+		}
+		else {
+			final BSPBranch branch = (BSPBranch) node;
+			nodes[offset] = branch.getX();
+			nodes[offset+1] = branch.getY();
+			nodes[offset+2] = branch.getDx();
+			nodes[offset+3] = branch.getDy();
+			flatten(branch.getLeftBranch(), nodes, walls, next);
+			// the right subtree starts after the complete left subtree
+			nodes[offset+4] = next[0];
+			flatten(branch.getRightBranch(), nodes, walls, next);
+		}
+	}
+
+	/**
+	 * Converts maze files from the XML format into the binary format.
+	 * @param args pairs of file names, an XML file to read followed by a binary file to write
+	 */
+	public static void main(String[] args) {
+		if (0 == args.length || 0 != args.length % 2) {
+			System.out.println("Usage: MazeBinaryWriter input.xml output.maze [input.xml output.maze ...]");
+			return;
+		}
+		for (int i = 0; i < args.length; i += 2) {
+			try {
+				convert(args[i], args[i+1]);
+				System.out.println("Converted " + args[i] + " into " + args[i+1]);
+			} catch (IOException e) {
+				System.out.println("Can not convert " + args[i] + ": " + e.getMessage());
+			}
+		}
+	}
+}
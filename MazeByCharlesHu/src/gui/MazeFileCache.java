@@ -0,0 +1,335 @@
+package gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Logger;
+
+import generation.Factory;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order;
+
+/**
+ * This class is a maze factory that keeps delivered mazes on disk
+ * and loads them instead of generating them again.
+ * The maze generation is deterministic for a given seed, skill level,
+ * builder algorithm and perfect flag, so these parameters identify a maze.
+ * A hash of the parameters gives the name of the file that stores the maze
+ * in the binary format of the MazeBinaryWriter.
+ *
+ * On a cache hit, the maze is loaded with the MazeBinaryReader on a background thread
+ * and delivered to the order. On a miss, the order is handed to a MazeFactory
+ * and the maze is stored right before it is delivered.
+ * A maze ordered for the grid renderer has no BSP tree and is not stored,
+ * but such an order is served with a cached maze if there is one.
+ * The cache stays within a size budget for all its files, it evicts the files
+ * that have not been used for the longest time first.
+ *
+ * As the MazeFactory, the cache takes at most one order at a time.
+ * Control uses a cache in the deterministic mode, where the same mazes are ordered again,
+ * and StateTitle hands it to StateGenerating in place of a MazeFactory.
+ */
+public class MazeFileCache implements Factory {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(MazeFileCache.class.getName());
+
+	/**
+	 * Version of the maze generation, it is part of the hash such that
+	 * files from an older version are not used after the generation changes.
+	 * Version 2: the BSP builder grades every splitter candidate.
+	 * Version 3: the BSP builder partitions merged walls.
+	 */
+	static final int GENERATION_VERSION = 3;
+	/**
+	 * File name extension for cached mazes.
+	 */
+	static final String EXTENSION = MazeBinaryWriter.EXTENSION;
+
+	// directory that holds the cached mazes
+	private final File directory;
+	// upper bound for the total size of all cached mazes in bytes
+	private final long sizeBudget;
+	// generates the mazes that are not in the cache yet
+	private final MazeFactory factory;
+	// loads a cached maze, null if the current order is handed to the factory
+	private Thread loadThread;
+	// serializes evictions, files are written without holding the lock of the cache
+	private final Object evictionLock = new Object();
+	// counters for monitoring
+	private int hits;
+	private int misses;
+
+	//////////////////////// Constructor ////////////////////////////////////////
+	/**
+	 * Constructor
+	 * @param directory holds the cached mazes, is created if it does not exist
+	 * @param sizeBudget upper bound for the total size of all cached mazes in bytes
+	 */
+	public MazeFileCache(File directory, long sizeBudget) {
+		this.directory = directory;
+		this.sizeBudget = sizeBudget;
+		factory = new MazeFactory();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			LOGGER.warning("Can not create cache directory " + directory + ", mazes will not be cached");
+		}
+	}
+
+	//////////////////////// Factory interface //////////////////////////////////
+	@Override
+	public synchronized boolean order(Order order) {
+		// check if cache is busy
+		if (null != loadThread && loadThread.isAlive()) {
+			LOGGER.warning("Refusing to take order, too busy with current order");
+			return false;
+		}
+		final File file = getFile(order);
+		if (file.isFile()) {
+			hits++;
+			LOGGER.fine("Cache hit, load maze from " + file);
+			loadThread = new Thread(() -> load(file, order));
+			loadThread.start();
+			return true;
+		}
+		misses++;
+		loadThread = null;
+		return factory.order(new StoringOrder(order, file));
+	}
+	@Override
+	public synchronized void cancel() {
+		if (null != loadThread) {
+			loadThread.interrupt();
+			loadThread = null;
+		}
+		else {
+			factory.cancel();
+		}
+	}
+	@Override
+	public void waitTillDelivered() {
+		final Thread thread;
+		synchronized (this) {
+			thread = loadThread;
+		}
+		if (null == thread) {
+			factory.waitTillDelivered();
+			return;
+		}
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			LOGGER.severe("Join synchronization with loading thread was interrupted");
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	//////////////////////// Monitoring //////////////////////////////////////////
+	/**
+	 * Gives the number of orders that were served by loading a maze.
+	 * @return number of cache hits
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+	/**
+	 * Gives the number of orders that had to be generated.
+	 * @return number of cache misses
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+	/**
+	 * Gives the total size of all cached mazes.
+	 * @return size in bytes
+	 */
+	public long getSize() {
+		long size = 0;
+		for (File file : listFiles()) {
+			size += file.length();
+		}
+		return size;
+	}
+
+	///////////////////////// private methods ///////////////////////////////////
+	/**
+	 * Gives the file for the maze of the given order.
+	 * The name is a hash of all parameters that determine the maze.
+	 * The parallel flag is not among them, as a parallel generation
+	 * delivers the same maze as a sequential one.
+	 * @param order specifies the maze
+	 * @return file that holds the maze if it is cached
+	 */
+	File getFile(Order order) {
+		final String key = "maze:" + GENERATION_VERSION + ":" + order.getSkillLevel() + ":"
+				+ order.getBuilder() + ":" + order.isPerfect() + ":" + order.getSeed();
+		try {
+			final byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder name = new StringBuilder(2*hash.length + EXTENSION.length());
+			for (byte b : hash) {
+				name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return new File(directory, name.append(EXTENSION).toString());
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+	/**
+	 * Loads the maze from the given file and delivers it to the order.
+	 * If the file can not be read, it is removed and the maze is generated instead.
+	 * Runs on the loading thread.
+	 * @param file holds the maze
+	 * @param order receives the maze
+	 */
+	private void load(File file, Order order) {
+		MazeBinaryReader reader = null;
+		try {
+			reader = new MazeBinaryReader(file.getPath());
+		} catch (IOException e) {
+			LOGGER.warning("Can not read cached maze from " + file + ", generate it instead: " + e.getMessage());
+		}
+		if (Thread.currentThread().isInterrupted())
+			return;
+		if (null == reader) {
+			if (!file.delete())
+				LOGGER.warning("Can not delete " + file);
+			// generate on the factory's thread and wait for it, such that waitTillDelivered covers it
+			if (factory.order(new StoringOrder(order, file)))
+				factory.waitTillDelivered();
+			else
+				LOGGER.severe("Factory refused order for maze that could not be loaded");
+			return;
+		}
+		final Maze maze = reader.getMazeConfiguration();
+		// mark the file as recently used for the eviction order
+		if (!file.setLastModified(System.currentTimeMillis()))
+			LOGGER.fine("Can not update time of last use for " + file);
+		order.updateProgress(100); // Order interface promises to communicate 100% upon delivery
+		order.deliver(maze);
+	}
+	/**
+	 * Stores the given maze in the given file and evicts files
+	 * if the cache exceeds its size budget.
+	 * The maze is written to a temporary file first, such that
+	 * a concurrent reader never sees an incomplete file.
+	 * Runs on the builder thread without the lock of the cache, so order and cancel
+	 * calls from the GUI do not wait for a large file to be written.
+	 * @param file will hold the maze
+	 * @param order that the maze was generated for
+	 * @param maze the maze to store, is skipped if it has no BSP tree
+	 */
+	private void store(File file, Order order, Maze maze) {
+		// the file format holds the tree of BSP nodes, a maze for the grid renderer comes without one
+		if (null == maze.getRootnode()) {
+			LOGGER.fine("Maze has no BSP tree, it is not stored in " + file);
+			return;
+		}
+		final File tmp = new File(directory, file.getName() + ".tmp");
+		final int skill = order.getSkillLevel();
+		final int[] start = maze.getStartingPosition();
+		try {
+			MazeBinaryWriter.store(tmp.getPath(), maze.getWidth(), maze.getHeight(),
+					order.isPerfect() ? 0 : Constants.SKILL_ROOMS[skill], Constants.SKILL_PARTCT[skill],
+					maze.getRootnode(), maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warning("Can not store maze in cache: " + e);
+			if (tmp.exists() && !tmp.delete())
+				LOGGER.warning("Can not delete " + tmp);
+			return;
+		}
+		evict();
+	}
+	/**
+	 * Deletes the least recently used files till the total size
+	 * of the cache is within its budget.
+	 * Evictions run one at a time, such that two of them do not both 
+	 * count and delete the same files.
+	 */
+	private void evict() {
+		synchronized (evictionLock) {
+			final File[] files = listFiles();
+			long size = 0;
+			for (File file : files) {
+				size += file.length();
+			}
+			Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+			for (int i = 0; i < files.length && size > sizeBudget; i++) {
+				final long length = files[i].length();
+				if (files[i].delete()) {
+					LOGGER.fine("Evicted " + files[i] + " from cache");
+					size -= length;
+				}
+			}
+		}
+	}
+	/**
+	 * Lists all cached mazes.
+	 * @return files in the cache directory, empty if there are none
+	 */
+	private File[] listFiles() {
+		final File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+		return (null == files) ? new File[0] : files;
+	}
+
+	///////////////////////// private classes ///////////////////////////////////
+	/**
+	 * Order that forwards all calls to the order of a client
+	 * and stores the maze in the cache right before it is delivered.
+	 */
+	private final class StoringOrder implements Order {
+		private final Order order;
+		private final File file;
+
+		/**
+		 * Constructor
+		 * @param order the order of the client
+		 * @param file will hold the maze
+		 */
+		StoringOrder(Order order, File file) {
+			this.order = order;
+			this.file = file;
+		}
+		@Override
+		public int getSkillLevel() {
+			return order.getSkillLevel();
+		}
+		@Override
+		public Builder getBuilder() {
+			return order.getBuilder();
+		}
+		@Override
+		public boolean isPerfect() {
+			return order.isPerfect();
+		}
+		@Override
+		public int getSeed() {
+			return order.getSeed();
+		}
+		@Override
+		public boolean isParallel() {
+			return order.isParallel();
+		}
+		@Override
+		public Renderer getRenderer() {
+			return order.getRenderer();
+		}
+		@Override
+		public void deliver(Maze mazeConfig) {
+			store(file, order, mazeConfig);
+			order.deliver(mazeConfig);
+		}
+		@Override
+		public void updateProgress(int percentage) {
+			order.updateProgress(percentage);
+		}
+	}
+}
@@ -0,0 +1,406 @@
+package gui;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Distance;
+import generation.Floorplan;
+import generation.Maze;
+import generation.MazeContainer;
+import generation.Wall;
+
+/**
+ * This class provides functionality to read the content of a Maze object from a file
+ * in the XML format produced by the MazeFileWriter or the MazeStreamWriter.
+ * As the MazeFileReader, it makes all fields of a Maze object accessible
+ * such that it is straightforward to instantiate a Maze object.
+ *
+ * Unlike the MazeFileReader, it does not build a document tree and does not search it by element name.
+ * It streams through the file in a single pass with a StAX parser and stores each value
+ * as soon as its element ends, so besides the maze itself it only needs memory for the current BSP node.
+ * The elements of a BSP node and of a wall are expected next to each other
+ * and the nodes in preorder, which is how the writers produce them.
+ */
+public class MazeStreamReader {
+
+	// fields of maze configuration object
+	private int width ;
+	private int height ;
+	private int rooms ;
+	private int[][] dists ;
+	private int expected_partiters ;
+	private Floorplan cells ;
+	private short[] cellValues ; // cells in row-major order while the file is read
+	private int startx ;
+	private int starty ;
+	private BSPNode root ;
+
+	// the BSP node that is currently read, its elements carry this number
+	private int number = -1 ;
+	private boolean isleaf ;
+	private boolean hasIsleaf ;
+	private int x, y, dx, dy ;
+	private ArrayList<Wall> walls = new ArrayList<>() ;
+	// the wall that is currently read, its elements carry this index
+	private int wallIndex = -1 ;
+	private final int[] wall = new int[WALL_FIELDS] ;
+	private boolean seen ;
+	private boolean partition ;
+	// branches whose right child is not complete yet, innermost on top
+	private final ArrayDeque<PendingBranch> pending = new ArrayDeque<>() ;
+
+	// indices into the wall array
+	private static final int WALL_X = 0 ;
+	private static final int WALL_Y = 1 ;
+	private static final int WALL_DX = 2 ;
+	private static final int WALL_DY = 3 ;
+	private static final int WALL_DIST = 4 ;
+	private static final int WALL_COLOR = 5 ;
+	private static final int WALL_FIELDS = 6 ;
+
+	/**
+	 * Constructor reads maze data from given file. The file format is the XML format produced by the MazeFileWriter class.
+	 * @param filename with data of a Maze object
+	 * @throws IOException if the file can not be read or is not a complete maze in the XML format
+	 */
+	public MazeStreamReader(String filename) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(filename))) {
+			load(in);
+		} catch (XMLStreamException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			throw new IOException("Can not read maze from " + filename + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Provides the data loaded from file wrapped in a Maze.
+	 * @return maze configuration loaded from file
+	 */
+	Maze getMazeConfiguration() {
+		Maze mazeConfig = new MazeContainer() ;
+		mazeConfig.setHeight(getHeight());
+		mazeConfig.setWidth(getWidth());
+		mazeConfig.setFloorplan(getCells());
+		mazeConfig.setMazedists(new Distance(getDistances()));
+		mazeConfig.setRootnode(getRootNode());
+		mazeConfig.setStartingPosition(getStartX(), getStartY());
+		return mazeConfig;
+	}
+	/////////////////// set of straightforward get methods //////////////
+	int getWidth() {
+		return width ;
+	}
+	int getHeight() {
+		return height ;
+	}
+	int getRooms() {
+		return rooms ;
+	}
+	int[][] getDistances() {
+		return dists ;
+	}
+	int getExpectedPartiters() {
+		return expected_partiters ;
+	}
+	Floorplan getCells() {
+		return cells ;
+	}
+	int getStartX() {
+		return startx ;
+	}
+	int getStartY() {
+		return starty ;
+	}
+	BSPNode getRootNode() {
+		return root ;
+	}
+
+	/**
+	 * Reads all attributes of a maze object from the given stream in a single pass.
+	 * @param in provides the content of a file
+	 * @throws XMLStreamException if the content is not well-formed XML
+	 * @throws IOException if the content is not a complete maze
+	 */
+	private void load(InputStream in) throws XMLStreamException, IOException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		// maze files never need a DTD, do not resolve anything outside of the file
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		XMLStreamReader reader = factory.createXMLStreamReader(in);
+		try {
+			while (reader.hasNext()) {
+				// the maze element holds all values, each value has an element of its own without children
+				if (XMLStreamConstants.START_ELEMENT == reader.next() && !"Maze".equals(reader.getLocalName())) {
+					final String name = reader.getLocalName();
+					readElement(name, reader.getElementText());
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		finishNode();
+		if (null == cellValues || null == dists || null == root || !pending.isEmpty())
+			throw new IOException("Incomplete maze file");
+		cells = new Floorplan(width, height, cellValues);
+		cellValues = null;
+	}
+	/**
+	 * Stores the value of a single element.
+	 * Element names are either plain names like sizeX, names with a single index
+	 * like cell_12 or names with a node number and a wall index like xSeg_7_0.
+	 * @param name of the element
+	 * @param text of the element
+	 * @throws IOException if cells or distances come before the size of the maze
+	 */
+	private void readElement(String name, String text) throws IOException {
+		final int underscore = name.indexOf('_');
+		if (underscore < 0) {
+			readMazeField(name, text);
+			return;
+		}
+		final String prefix = name.substring(0, underscore);
+		final int second = name.indexOf('_', underscore + 1);
+		if (second < 0) {
+			final int index = Integer.parseInt(name.substring(underscore + 1));
+			readIndexedField(prefix, index, text);
+		}
+		else {
+			final int node = Integer.parseInt(name.substring(underscore + 1, second));
+			final int index = Integer.parseInt(name.substring(second + 1));
+			readWallField(prefix, node, index, text);
+		}
+	}
+	/**
+	 * Stores a value of the maze that is not indexed.
+	 * @param name of the element
+	 * @param text of the element
+	 */
+	private void readMazeField(String name, String text) {
+		switch (name) {
+		case "sizeX":
+			width = Integer.parseInt(text);
+			break;
+		case "sizeY":
+			height = Integer.parseInt(text);
+			break;
+		case "roomNum":
+			rooms = Integer.parseInt(text);
+			break;
+		case "partiters":
+			expected_partiters = Integer.parseInt(text);
+			break;
+		case "startX":
+			startx = Integer.parseInt(text);
+			break;
+		case "startY":
+			starty = Integer.parseInt(text);
+			break;
+		default:
+			// unknown elements are ignored as in the MazeFileReader
+			break;
+		}
+	}
+	/**
+	 * Stores a cell, a distance or a field of a BSP node.
+	 * Cells and distances are numbered column by column, number x*height+y is cell (x,y).
+	 * @param prefix of the element name
+	 * @param index number of the cell or of the BSP node
+	 * @param text of the element
+	 * @throws IOException if cells or distances come before the size of the maze
+	 */
+	private void readIndexedField(String prefix, int index, String text) throws IOException {
+		switch (prefix) {
+		case "cell":
+			if (null == cellValues)
+				cellValues = new short[checkedSize()];
+			// the floorplan is row-major
+			cellValues[(index % height)*width + index/height] = (short) Integer.parseInt(text);
+			return;
+		case "dists":
+			if (null == dists && 0 < checkedSize())
+				dists = new int[width][height];
+			dists[index/height][index % height] = Integer.parseInt(text);
+			return;
+		default:
+			break;
+		}
+		startNode(index);
+		switch (prefix) {
+		case "isleafBSPNode":
+			isleaf = Boolean.parseBoolean(text);
+			hasIsleaf = true;
+			break;
+		case "xBSPNode":
+			x = Integer.parseInt(text);
+			break;
+		case "yBSPNode":
+			y = Integer.parseInt(text);
+			break;
+		case "dxBSPNode":
+			dx = Integer.parseInt(text);
+			break;
+		case "dyBSPNode":
+			dy = Integer.parseInt(text);
+			break;
+		case "numSeg":
+			walls.ensureCapacity(Integer.parseInt(text));
+			break;
+		default:
+			// bounds are recomputed in the BSPNode constructors
+			break;
+		}
+	}
+	/**
+	 * Stores a field of a wall in a leaf node.
+	 * @param prefix of the element name
+	 * @param node number of the BSP node
+	 * @param index of the wall in the leaf
+	 * @param text of the element
+	 * @throws IOException if the file is inconsistent
+	 */
+	private void readWallField(String prefix, int node, int index, String text) throws IOException {
+		startNode(node);
+		if (index != wallIndex) {
+			finishWall();
+			wallIndex = index;
+		}
+		switch (prefix) {
+		case "xSeg":
+			wall[WALL_X] = Integer.parseInt(text);
+			break;
+		case "ySeg":
+			wall[WALL_Y] = Integer.parseInt(text);
+			break;
+		case "dxSeg":
+			wall[WALL_DX] = Integer.parseInt(text);
+			break;
+		case "dySeg":
+			wall[WALL_DY] = Integer.parseInt(text);
+			break;
+		case "distSeg":
+			wall[WALL_DIST] = Integer.parseInt(text);
+			break;
+		case "colSeg":
+			wall[WALL_COLOR] = Integer.parseInt(text);
+			break;
+		case "seenSeg":
+			seen = Boolean.parseBoolean(text);
+			break;
+		case "partitionSeg":
+			partition = Boolean.parseBoolean(text);
+			break;
+		default:
+			break;
+		}
+	}
+	/**
+	 * Gives the number of cells of the maze.
+	 * @return width times height
+	 * @throws IOException if the size of the maze is not known yet
+	 */
+	private int checkedSize() throws IOException {
+		if (width <= 0 || height <= 0)
+			throw new IOException("Maze file gives cells before the size of the maze");
+		return width*height;
+	}
+	/**
+	 * Makes the node with the given number the current node.
+	 * The previous node is complete at this point as its elements are next to each other.
+	 * @param node number of the BSP node
+	 * @throws IOException if the file is inconsistent
+	 */
+	private void startNode(int node) throws IOException {
+		if (node == number)
+			return;
+		finishNode();
+		number = node;
+	}
+	/**
+	 * Adds the wall that has been read to the list of walls of the current leaf.
+	 */
+	private void finishWall() {
+		if (wallIndex < 0)
+			return;
+		final int cc = 0 ; // use this as a dummy for the constructor, the correct color is explicitly set below
+		Wall result = new Wall(wall[WALL_X], wall[WALL_Y], wall[WALL_DX], wall[WALL_DY], wall[WALL_DIST], cc);
+		result.setColor(wall[WALL_COLOR]);
+		result.setSeen(seen);
+		result.setPartition(partition);
+		walls.add(result);
+		wallIndex = -1;
+		seen = false;
+		partition = false;
+	}
+	/**
+	 * Completes the current node. A branch waits for its children on the stack,
+	 * a leaf is built and attached to its parent.
+	 * @throws IOException if the file is inconsistent
+	 */
+	private void finishNode() throws IOException {
+		if (number < 0)
+			return;
+		if (!hasIsleaf) {
+			// a node without the isleaf element marks a missing child, the MazeFileWriter never writes such nodes
+			throw new IOException("Maze file has an incomplete BSP node " + number);
+		}
+		if (isleaf) {
+			finishWall();
+			// the leaf keeps the list, the next leaf starts a new one
+			final BSPLeaf leaf = new BSPLeaf(walls);
+			walls = new ArrayList<>();
+			attach(leaf);
+		}
+		else {
+			pending.push(new PendingBranch(x, y, dx, dy));
+		}
+		number = -1;
+		hasIsleaf = false;
+	}
+	/**
+	 * Attaches a complete subtree to the innermost pending branch.
+	 * A branch that receives its right child is complete as well and
+	 * is attached to its own parent in turn.
+	 * @param node root of a complete subtree
+	 * @throws IOException if the file has more than one tree
+	 */
+	private void attach(BSPNode node) throws IOException {
+		while (!pending.isEmpty()) {
+			final PendingBranch parent = pending.peek();
+			if (null == parent.left) {
+				parent.left = node;
+				return;
+			}
+			pending.pop();
+			node = new BSPBranch(parent.x, parent.y, parent.dx, parent.dy, parent.left, node);
+		}
+		if (null != root)
+			throw new IOException("Maze file has more than one BSP tree");
+		root = node;
+	}
+
+	/**
+	 * Branch node whose children are still being read.
+	 */
+	private static final class PendingBranch {
+		final int x, y, dx, dy;
+		BSPNode left;
+
+		PendingBranch(int x, int y, int dx, int dy) {
+			this.x = x;
+			this.y = y;
+			this.dx = dx;
+			this.dy = dy;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package gui;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Floorplan;
+import generation.Wall;
+
+/**
+ * This class provides functionality to write a maze configuration to a file in the XML format
+ * of the MazeFileWriter. It writes the same elements in the same order,
+ * such that both writers produce identical files.
+ *
+ * Unlike the MazeFileWriter, it does not build a document tree in memory before it is serialized.
+ * Each element is written to the file with a StAX writer as soon as its value is known.
+ * All methods are static, the MazeStreamReader and the MazeFileReader read the format back.
+ */
+public class MazeStreamWriter {
+	/**
+	 * XML declaration as written by the Transformer of the MazeFileWriter.
+	 */
+	private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+
+	/**
+	 * Write maze content to a file
+	 * @param filename gives the file name to store the data in
+	 * @param width is the width of the maze
+	 * @param height is the height of the maze
+	 * @param rooms is the number of rooms
+	 * @param expected_partiters is the expected number of partition iterations
+	 * @param root is the root node of the bsp tree
+	 * @param cells is the floor plan for this maze
+	 * @param dists is the distances to the exit
+	 * @param startX is the x coordinate of the starting position
+	 * @param startY is the y coordinate of the starting position
+	 * @throws IOException if the file can not be written
+	 */
+	public static void store(String filename, int width, int height, int rooms,
+			int expected_partiters, BSPNode root, Floorplan cells,
+			int[][] dists, int startX, int startY) throws IOException {
+		try (Writer out = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(filename)), StandardCharsets.UTF_8)) {
+			// the declaration is written directly as the StAX writer has no standalone attribute
+			out.write(DECLARATION);
+			XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+			xml.writeStartElement("Maze");
+			// store fields of Maze class
+			writeElement(xml, "sizeX", width);
+			writeElement(xml, "sizeY", height);
+			writeElement(xml, "roomNum", rooms);
+			writeElement(xml, "partiters", expected_partiters);
+			// cells
+			int number = 0;
+			for (int x = 0; x != width; x++) {
+				for (int y = 0; y != height; y++) {
+					writeElement(xml, "cell_" + number, cells.getValueOfCell(x, y));
+					number++;
+				}
+			}
+			// distances
+			number = 0;
+			for (int x = 0; x != width; x++) {
+				for (int y = 0; y != height; y++) {
+					writeElement(xml, "dists_" + number, dists[x][y]);
+					number++;
+				}
+			}
+			// start position
+			writeElement(xml, "startX", startX);
+			writeElement(xml, "startY", startY);
+			// BSPnodes
+			if (null != root)
+				writeBSPNode(xml, root, 0);
+			else
+				System.out.println("MazeStreamWriter.store: root node of BSP tree is null");
+			xml.writeEndElement();
+			xml.flush();
+			xml.close();
+		} catch (XMLStreamException e) {
+			throw new IOException("Can not write maze to " + filename, e);
+		}
+	}
+	/**
+	 * Writes a BSP node including its subtrees or walls.
+	 * The numbering matches with BSPNode.store, nodes are numbered in preorder.
+	 * @param xml writer for the file
+	 * @param node the node to write
+	 * @param number is an index number for this node in the XML format
+	 * @return the highest used index number
+	 * @throws XMLStreamException if the file can not be written
+	 */
+	private static int writeBSPNode(XMLStreamWriter xml, BSPNode node, int number) throws XMLStreamException {
+		writeElement(xml, "xlBSPNode_" + number, node.getLowerBoundX());
+		writeElement(xml, "ylBSPNode_" + number, node.getLowerBoundY());
+		writeElement(xml, "xuBSPNode_" + number, node.getUpperBoundX());
+		writeElement(xml, "yuBSPNode_" + number, node.getUpperBoundY());
+		writeElement(xml, "isleafBSPNode_" + number, node.isIsleaf());
+		if (node.isIsleaf()) {
+			final List<Wall> walls = ((BSPLeaf) node).getAllWalls();
+			writeElement(xml, "numSeg_" + number, walls.size());
+			int i = 0;
+			for (Wall wall : walls) {
+				writeWall(xml, wall, number + "_" + i);
+				i++;
+			}
+			return number;
+		}
+		final BSPBranch branch = (BSPBranch) node;
+		writeElement(xml, "xBSPNode_" + number, branch.getX());
+		writeElement(xml, "yBSPNode_" + number, branch.getY());
+		writeElement(xml, "dxBSPNode_" + number, branch.getDx());
+		writeElement(xml, "dyBSPNode_" + number, branch.getDy());
+		// the right branch continues with the number after the last one of the left branch
+		number = writeBSPNode(xml, branch.getLeftBranch(), number + 1);
+		return writeBSPNode(xml, branch.getRightBranch(), number + 1);
+	}
+	/**
+	 * Writes a single wall, in the same order as Wall.storeWall.
+	 * @param xml writer for the file
+	 * @param wall the wall to write
+	 * @param suffix number of the leaf and index of the wall, separated by an underscore
+	 * @throws XMLStreamException if the file can not be written
+	 */
+	private static void writeWall(XMLStreamWriter xml, Wall wall, String suffix) throws XMLStreamException {
+		writeElement(xml, "distSeg_" + suffix, wall.getDistance());
+		writeElement(xml, "dxSeg_" + suffix, wall.getExtensionX());
+		writeElement(xml, "dySeg_" + suffix, wall.getExtensionY());
+		writeElement(xml, "partitionSeg_" + suffix, wall.isPartition());
+		writeElement(xml, "seenSeg_" + suffix, wall.isSeen());
+		writeElement(xml, "xSeg_" + suffix, wall.getStartPositionX());
+		writeElement(xml, "ySeg_" + suffix, wall.getStartPositionY());
+		writeElement(xml, "colSeg_" + suffix, wall.getColor());
+	}
+	/**
+	 * Writes an element with the given name and value.
+	 * @param xml writer for the file
+	 * @param name specifies the XML element to write to
+	 * @param value is the content for the XML element
+	 * @throws XMLStreamException if the file can not be written
+	 */
+	private static void writeElement(XMLStreamWriter xml, String name, int value) throws XMLStreamException {
+		xml.writeStartElement(name);
+		xml.writeCharacters(Integer.toString(value));
+		xml.writeEndElement();
+	}
+	/**
+	 * Writes an element with the given name and value.
+	 * @param xml writer for the file
+	 * @param name specifies the XML element to write to
+	 * @param value is the content for the XML element
+	 * @throws XMLStreamException if the file can not be written
+	 */
+	private static void writeElement(XMLStreamWriter xml, String name, boolean value) throws XMLStreamException {
+		xml.writeStartElement(name);
+		xml.writeCharacters(Boolean.toString(value));
+		xml.writeEndElement();
+	}
+}
@@ -1,5 +1,7 @@
 package gui;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.logging.Logger;
 
 import generation.DefaultOrder;
@@ -67,6 +69,12 @@ public class StateGenerating extends DefaultOrder implements State {
      */
     private String filename;
     
+    /**
+     * A maze that has been generated in advance.
+     * If it is set, the maze is played right away instead of ordering one from the factory.
+     */
+    private Maze prefetchedMaze;
+    
     // about the maze and its generation
     // this information is stored in the super class DefaultOrder
     // private int seed; // the seed value used for the random number generator
@@ -138,16 +146,53 @@ public class StateGenerating extends DefaultOrder implements State {
     }
     
 
+    /**
+     * Sets the factory that produces the maze, e.g., a MazeFileCache
+     * that loads a maze which has been generated before.
+     * It must be set before {@link #start(Control, MazePanel) start}
+     * is called or it will have no effect for this round of the game.
+     * @param factory the factory to order the maze from, not null
+     */
+    public void setFactory(Factory factory) {
+    	assert !started: "factory handed too late to be effective.";
+    	assert null != factory : "StateGenerating.setFactory: factory must be present";
+    	
+    	this.factory = factory;
+    }
+
+    /**
+     * Sets a maze that has been generated in advance
+     * such that it can be played without waiting for the factory.
+     * It must be set before {@link #start(Control, MazePanel) start}
+     * is called or it will have no effect for this round of the game.
+     * @param maze a complete maze that matches the settings of this order,
+     * can be null, in which case the maze is generated as usual
+     */
+    public void setPrefetchedMaze(Maze maze) {
+    	assert !started: "prefetched maze handed too late to be effective.";
+    	
+    	this.prefetchedMaze = maze;
+    }
+
     /**
      * Loads maze from file and returns a corresponding maze configuration.
+     * Files with the extension of the binary format are read with the MazeBinaryReader,
+     * large ones are mapped into memory, all others with the MazeStreamReader for the XML format.
      * @param filename, not null
-     * @return the maze that has been loaded from the given file
+     * @return the maze that has been loaded from the given file, null if the file can not be read
      */
     private Maze loadMazeConfigurationFromFile(String filename) {
-        // load maze from file
-        MazeFileReader mfr = new MazeFileReader(filename) ;
-        // obtain MazeConfiguration
-        return mfr.getMazeConfiguration();
+    	try {
+    		if (filename.endsWith(MazeBinaryWriter.EXTENSION)) {
+    			final boolean mapped = new File(filename).length() >= MazeBinaryReader.MAP_THRESHOLD;
+    			return new MazeBinaryReader(filename, mapped).getMazeConfiguration();
+    		}
+    		// load maze from file in a single pass
+    		return new MazeStreamReader(filename).getMazeConfiguration();
+    	} catch (IOException e) {
+    		LOGGER.severe("Can not load maze from " + filename + ": " + e.getMessage());
+    		return null;
+    	}
     }
     /**
      * Start the maze generation.
@@ -166,13 +211,22 @@ public class StateGenerating extends DefaultOrder implements State {
         super.updateProgress(0);
         // if given a filename, load maze from file
         // otherwise, show view and order maze from factory
+        Maze loaded = null;
         if (filename != null) {
             // load maze from file
-        	// TODO: add progress reporting to MazeFileReader
-            // push results into controller, imitating maze factory delivery
-            deliver(loadMazeConfigurationFromFile(filename));
+        	// TODO: add progress reporting to MazeStreamReader
+            loaded = loadMazeConfigurationFromFile(filename);
             // reset filename, next round will be generated again
             filename = null;  
+        }
+        if (loaded != null) {
+            // push results into controller, imitating maze factory delivery
+            deliver(loaded);
+        } else if (prefetchedMaze != null) {
+        	// maze is ready already, push it into controller, imitating maze factory delivery
+        	Maze maze = prefetchedMaze;
+        	prefetchedMaze = null;
+        	deliver(maze);
         } else {
             // common case: generate maze with some algorithm
             assert null != factory : "StateGenerating.start: factory must be present";
@@ -46,8 +46,9 @@ public class StatePlaying implements State {
 	 * The first person view determines what is seen on the screen with a first person perspective.
 	 * This includes the background of two rectangles that cover the whole area.
 	 * Drawing polygons for walls is the main contribution.
+	 * It is a GridFirstPersonView if the maze comes without a tree of BSP nodes.
 	 */
-	private FirstPersonView firstPersonView;
+	private FirstPersonDrawer firstPersonView;
 	/**
 	 * The view determines what is seen on the screen for a top view.
 	 * Drawing the maze from above as a lines for walls, the current position and direction, 
@@ -243,9 +244,17 @@ public class StatePlaying implements State {
 		cr.setPositionAndSize(Constants.VIEW_WIDTH/2,
 				(int)(0.1*Constants.VIEW_HEIGHT),35);
 
-		firstPersonView = new FirstPersonView(Constants.VIEW_WIDTH,
-				Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
-				Constants.STEP_SIZE, seenCells, maze.getRootnode()) ;
+		// a maze ordered for the grid renderer has no BSP tree
+		if (null == maze.getRootnode()) {
+			firstPersonView = new GridFirstPersonView(Constants.VIEW_WIDTH,
+					Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
+					Constants.STEP_SIZE, seenCells, maze) ;
+		}
+		else {
+			firstPersonView = new FirstPersonView(Constants.VIEW_WIDTH,
+					Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
+					Constants.STEP_SIZE, seenCells, maze.getRootnode()) ;
+		}
 		
 		mapView = new Map(seenCells, 15, maze) ;
 		// draw the initial screen for this state
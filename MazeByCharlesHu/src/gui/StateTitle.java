@@ -3,8 +3,10 @@ package gui;
 import java.util.Random;
 import java.util.logging.Logger;
 
+import generation.DefaultOrder;
 import generation.Order;
 import generation.Order.Builder;
+import generation.Order.Renderer;
 import gui.Constants.UserInput;
 
 /**
@@ -84,6 +86,12 @@ public class StateTitle implements State {
      */
     Order.Builder builder;
     
+    /**
+     * The renderer for the first person view. For the grid renderer,
+     * mazes are generated without a tree of BSP nodes.
+     */
+    Order.Renderer renderer;
+    
     /** 
      * Started is used to enforce ordering constraint on method calls.
      * start() must be called before keyDown()
@@ -115,6 +123,7 @@ public class StateTitle implements State {
     	filename = null; // no information yet, provided by set method if at all
     	
     	builder = Builder.DFS; //default generation method
+    	renderer = Renderer.BSP; //default renderer
     	
     	// The specific value used here does not matter.
     	// It is independent from others.
@@ -148,6 +157,15 @@ public class StateTitle implements State {
     public void setBuilder(Builder builder) {
         this.builder = builder; 
     }
+    /**
+     * Sets the renderer for the first person view.
+     * The pool of pre-generated mazes is only used with the BSP renderer,
+     * its mazes come with a BSP tree that the grid renderer does not need.
+     * @param renderer the renderer, BSP is the default
+     */
+    public void setRenderer(Renderer renderer) {
+        this.renderer = renderer; 
+    }
     /**
      * The method provides an appropriate response to user keyboard input. 
      * The control calls this method to communicate input and delegate its handling.
@@ -199,8 +217,10 @@ public class StateTitle implements State {
     	// 3) the size of the maze or skill level
     	// 4) which seed to use for the random number generation
         nextState.setBuilder(builder); 
+        nextState.setRenderer(renderer);
         nextState.setPerfect(control.isPerfect());
         nextState.setSkillLevel(skillLevel);
+        control.setLastSkillLevel(skillLevel);
         if (!control.isDeterministic()) {
         	//LOGGER.severe("Assignment: implement code such that a repeated generation creates different mazes! Program stops!");
 			//System.exit(0) ;
@@ -210,7 +230,23 @@ public class StateTitle implements State {
         	Random random = new Random();
         	seed = random.nextInt();
         }
+        // a maze with a random seed may already be waiting in the pool
+        if (!control.isDeterministic() && null != control.getMazePool() && Renderer.BSP == renderer) {
+        	DefaultOrder pooled = control.getMazePool().take(skillLevel, builder, control.isPerfect());
+        	if (null != pooled) {
+        		// the seed has to match the maze that is played
+        		seed = pooled.getSeed();
+        		nextState.setPrefetchedMaze(pooled.getMaze());
+        	}
+        	// the game starts now, background generation would compete with it,
+        	// the next title screen prefetches again
+        	control.getMazePool().cancel();
+        }
         nextState.setSeed(seed);
+        // a deterministic maze may have been generated and stored before
+        if (control.isDeterministic() && null != control.getMazeCache()) {
+        	nextState.setFactory(control.getMazeCache());
+        }
         
         LOGGER.fine("Control switches from title to generating screen, maze will be newly generated for size " + skillLevel);
         
@@ -259,6 +295,13 @@ public class StateTitle implements State {
         view.redrawTitle(panel,filename);
         panel.update(); // as drawing is complete, make screen update happen
         
+        // while the user picks a skill level, generate a maze for the level of the last game in the background,
+        // which is the one the user most likely picks again
+        if (filename == null && !control.isDeterministic() && null != control.getMazePool() && Renderer.BSP == renderer
+        		&& 0 <= control.getLastSkillLevel()) {
+        	control.getMazePool().prefetch(control.getLastSkillLevel(), builder, control.isPerfect());
+        }
+        
         if (filename != null) {
             // wait 3 sec to give user
         	// a chance to read the title screen message
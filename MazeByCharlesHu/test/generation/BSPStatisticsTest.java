@@ -0,0 +1,93 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Order.Builder;
+
+class BSPStatisticsTest {
+
+	/**
+	 * Goal: Check the figures for a small tree
+	 * Test fixture: Will need a branch with a leaf of one wall and a branch with leaves of two and three walls
+	 * Functionality: Will compute the statistics of the tree
+	 * Check: Counts, depths and walls per leaf should match the tree, figures on the generation should be unknown
+	 */
+	@Test
+	void testSmallTree() {
+		BSPNode inner = new BSPBranch(0, 0, 0, 128, leaf(2), leaf(3));
+		BSPNode root = new BSPBranch(0, 0, 128, 0, leaf(1), inner);
+		BSPStatistics statistics = new BSPStatistics(root);
+		assertEquals(5, statistics.getNodeCount());
+		assertEquals(3, statistics.getLeafCount());
+		assertEquals(2, statistics.getMaxDepth());
+		assertEquals(5.0/3, statistics.getAverageDepth(), 1e-9);
+		assertEquals(2, statistics.getMinimalDepth());
+		assertEquals(6, statistics.getWallCount());
+		assertEquals(1, statistics.getMinWallsPerLeaf());
+		assertEquals(3, statistics.getMaxWallsPerLeaf());
+		assertEquals(2.0, statistics.getAverageWallsPerLeaf(), 1e-9);
+		assertEquals(BSPStatistics.UNKNOWN, statistics.getSplitCount());
+		assertEquals(BSPStatistics.UNKNOWN, statistics.getPartitionIterations());
+	}
+
+	/**
+	 * Goal: Check if a generated maze comes with the statistics of the BSPBuilder
+	 * Test fixture: Will need a maze with rooms generated by the mazeFactory
+	 * Functionality: Will compare the statistics of the maze with the ones computed from its tree
+	 * Check: The figures on the tree should match, the split count and partition iterations should be known
+	 */
+	@Test
+	void testGeneratedMazeHasBuilderStatistics() {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(4, Builder.DFS, false, 3);
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		BSPStatistics statistics = maze.getBSPStatistics();
+		BSPStatistics computed = new BSPStatistics(maze.getRootnode());
+		assertEquals(computed.getNodeCount(), statistics.getNodeCount());
+		assertEquals(computed.getMaxDepth(), statistics.getMaxDepth());
+		assertEquals(computed.getWallCount(), statistics.getWallCount());
+		assertTrue(statistics.getSplitCount() >= 0);
+		assertEquals(statistics.getWallCount(), statistics.getInitialWallCount() + statistics.getSplitCount());
+		assertTrue(statistics.getPartitionIterations() > 0);
+	}
+
+	/**
+	 * Goal: Check if the statistics follow a change of the tree in a maze container
+	 * Test fixture: Will need a maze generated by the mazeFactory and a tree of a single leaf
+	 * Functionality: Will replace the tree of the maze with the leaf
+	 * Check: The statistics should describe the leaf
+	 */
+	@Test
+	void testStatisticsFollowRootnode() {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(1);
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		assertTrue(maze.getBSPStatistics().getNodeCount() > 1);
+		maze.setRootnode(leaf(2));
+		assertEquals(1, maze.getBSPStatistics().getNodeCount());
+		assertEquals(0, maze.getBSPStatistics().getMaxDepth());
+		assertEquals(BSPStatistics.UNKNOWN, maze.getBSPStatistics().getSplitCount());
+	}
+
+	/**
+	 * Creates a leaf with the given number of walls.
+	 * @param walls number of walls, at least 1
+	 * @return the leaf
+	 */
+	private BSPLeaf leaf(int walls) {
+		Wall[] list = new Wall[walls];
+		for (int i = 0; i < walls; i++) {
+			list[i] = new Wall(0, 128*i, 128, 0, 1, 0);
+		}
+		return new BSPLeaf(List.of(list));
+	}
+}
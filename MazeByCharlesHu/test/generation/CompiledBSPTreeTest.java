@@ -0,0 +1,94 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Order.Builder;
+
+class CompiledBSPTreeTest {
+
+	/**
+	 * Goal: Check if the compiled tree holds the same nodes and walls as the BSP tree
+	 * Test fixture: Will need a maze with rooms generated by the mazeFactory
+	 * Functionality: Will compile the BSP tree of the maze
+	 * Check: Structure, bounds, splitters and walls of each node should match in preorder
+	 */
+	@Test
+	void testCompiledTreeMatchesBSPTree() {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(4, Builder.DFS, false, 3);
+		factory.order(order);
+		factory.waitTillDelivered();
+		BSPNode root = order.getMaze().getRootnode();
+		CompiledBSPTree tree = new CompiledBSPTree(root);
+		assertEquals(tree.getNodeCount(), assertSameNode(root, tree, 0));
+		// the last node in preorder is a leaf and ends the packed wall array
+		assertEquals(tree.getWallCount(), tree.getEndWall(tree.getNodeCount()-1));
+	}
+
+	/**
+	 * Goal: Check if a tree that consists of a single leaf can be compiled
+	 * Test fixture: Will need a leaf with two walls
+	 * Functionality: Will compile the leaf
+	 * Check: There should be one leaf node with both walls
+	 */
+	@Test
+	void testSingleLeaf() {
+		Wall first = new Wall(0, 0, 128, 0, 1, 0);
+		Wall second = new Wall(128, 0, 0, 128, 1, 0);
+		CompiledBSPTree tree = new CompiledBSPTree(new BSPLeaf(List.of(first, second)));
+		assertEquals(1, tree.getNodeCount());
+		assertTrue(tree.isLeaf(0));
+		assertEquals(0, tree.getFirstWall(0));
+		assertEquals(2, tree.getEndWall(0));
+		assertSame(second, tree.getWall(1));
+		assertEquals(128, tree.getEndPositionX(1));
+		assertEquals(128, tree.getEndPositionY(1));
+		assertEquals(0, tree.getLowerBoundX(0));
+		assertEquals(128, tree.getUpperBoundY(0));
+	}
+
+	/**
+	 * Checks that the subtree with the given root matches the compiled tree at the given index
+	 * @param node root of a subtree
+	 * @param tree the compiled tree
+	 * @param index of the subtree in the compiled tree
+	 * @return index after the last node of the subtree
+	 */
+	private int assertSameNode(BSPNode node, CompiledBSPTree tree, int index) {
+		assertEquals(node.isIsleaf(), tree.isLeaf(index));
+		assertEquals(node.getLowerBoundX(), tree.getLowerBoundX(index));
+		assertEquals(node.getLowerBoundY(), tree.getLowerBoundY(index));
+		assertEquals(node.getUpperBoundX(), tree.getUpperBoundX(index));
+		assertEquals(node.getUpperBoundY(), tree.getUpperBoundY(index));
+		if (node.isIsleaf()) {
+			List<Wall> walls = ((BSPLeaf) node).getAllWalls();
+			assertEquals(walls.size(), tree.getEndWall(index) - tree.getFirstWall(index));
+			int w = tree.getFirstWall(index);
+			for (Wall wall : walls) {
+				assertSame(wall, tree.getWall(w));
+				assertEquals(wall.getStartPositionX(), tree.getStartPositionX(w));
+				assertEquals(wall.getStartPositionY(), tree.getStartPositionY(w));
+				assertEquals(wall.getEndPositionX(), tree.getEndPositionX(w));
+				assertEquals(wall.getEndPositionY(), tree.getEndPositionY(w));
+				assertEquals(wall.getColor(), tree.getColor(w));
+				w++;
+			}
+			return index + 1;
+		}
+		BSPBranch branch = (BSPBranch) node;
+		assertEquals(branch.getX(), tree.getX(index));
+		assertEquals(branch.getY(), tree.getY(index));
+		assertEquals(branch.getDx(), tree.getDx(index));
+		assertEquals(branch.getDy(), tree.getDy(index));
+		assertEquals(index + 1, tree.getLeftChild(index));
+		int right = assertSameNode(branch.getLeftBranch(), tree, index + 1);
+		assertEquals(right, tree.getRightChild(index));
+		return assertSameNode(branch.getRightBranch(), tree, right);
+	}
+}
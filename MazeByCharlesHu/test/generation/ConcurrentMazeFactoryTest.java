@@ -0,0 +1,131 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Order.Builder;
+
+class ConcurrentMazeFactoryTest extends MazeFactoryTest {
+	/**
+	 *Creates a maze using the default algorithm by queuing a build order via a concurrentMazeFactory
+	 * @param skillLevel as an integer to indicate desired maze size
+	 * @return Generated maze based on the desired maze size using the default maze generation algorithm
+	 */
+	@Override
+	protected Maze createNewMaze(int skillLevel) {
+		ConcurrentMazeFactory mazeFactory = new ConcurrentMazeFactory(2, 4);
+		DefaultOrder order = new DefaultOrder(skillLevel);
+		mazeFactory.order(order);
+		mazeFactory.waitTillDelivered();
+		mazeFactory.shutdown();
+		return order.getMaze();
+	}
+
+	/**
+	 * Goal: Check if the factory delivers more orders than it has workers
+	 * Test fixture: Will need a concurrentMazeFactory with few workers and a queue for all orders
+	 * Functionality: Will order mazes of different algorithms and seeds, then wait for all of them
+	 * Check: Every order should be accepted and get a maze delivered, counters should match
+	 */
+	@Test
+	void deliversAllOrders() {
+		ConcurrentMazeFactory mazeFactory = new ConcurrentMazeFactory(3, 10);
+		DefaultOrder[] orders = new DefaultOrder[10];
+		for (int i = 0; i < orders.length; i++) {
+			orders[i] = new DefaultOrder(2, Builder.values()[i % Builder.values().length], i % 2 == 0, i);
+			assertTrue(mazeFactory.order(orders[i]));
+		}
+		mazeFactory.waitTillDelivered();
+		for (DefaultOrder order : orders) {
+			assertNotNull(order.getMaze());
+			assertEquals(100, order.getProgress());
+		}
+		assertEquals(10, mazeFactory.getDeliveredCount());
+		assertEquals(0, mazeFactory.getQueueDepth());
+		assertTrue(mazeFactory.getThroughput() > 0);
+		mazeFactory.shutdown();
+	}
+
+	/**
+	 * Goal: Check if the queue of orders is bounded
+	 * Test fixture: Will need a concurrentMazeFactory with a single worker and room for a single waiting order
+	 * Functionality: Will place three orders for large mazes right after each other
+	 * Check: At most two orders fit into the factory, so the third one should be refused
+	 */
+	@Test
+	void refusesOrdersWhenQueueIsFull() {
+		ConcurrentMazeFactory mazeFactory = new ConcurrentMazeFactory(1, 1);
+		assertTrue(mazeFactory.order(new DefaultOrder(15)));
+		mazeFactory.order(new DefaultOrder(15));
+		assertFalse(mazeFactory.order(new DefaultOrder(15)));
+		assertTrue(mazeFactory.getQueueDepth() <= 1);
+		mazeFactory.shutdown();
+	}
+
+	/**
+	 * Goal: Check if a single order can be canceled
+	 * Test fixture: Will need a concurrentMazeFactory with a single worker such that the second order has to wait
+	 * Functionality: Will place two orders, cancel the second one and wait for the first one
+	 * Check: First order should get a maze, second order should not get any and should not be canceled twice
+	 */
+	@Test
+	void cancelsSingleOrder() {
+		ConcurrentMazeFactory mazeFactory = new ConcurrentMazeFactory(1, 2);
+		DefaultOrder first = new DefaultOrder(3);
+		DefaultOrder second = new DefaultOrder(3);
+		assertTrue(mazeFactory.order(first));
+		assertTrue(mazeFactory.order(second));
+		assertTrue(mazeFactory.cancel(second));
+		assertFalse(mazeFactory.cancel(second));
+		mazeFactory.waitTillDelivered();
+		assertNotNull(first.getMaze());
+		assertNull(second.getMaze());
+		assertEquals(1, mazeFactory.getDeliveredCount());
+		assertEquals(1, mazeFactory.getCanceledCount());
+		mazeFactory.shutdown();
+	}
+
+	/**
+	 * Goal: Check if waiting for a canceled order only returns after its builder has stopped
+	 * Test fixture: Will need an order that keeps its builder busy for a while on the first progress update,
+	 * regardless of interrupts
+	 * Functionality: Will cancel the order while its builder is busy and wait for the factory
+	 * Check: The builder should not be busy anymore once waiting returns, and the order should count as canceled
+	 */
+	@Test
+	void waitsForCanceledOrderToStop() throws InterruptedException {
+		final CountDownLatch started = new CountDownLatch(1);
+		final AtomicBoolean busy = new AtomicBoolean();
+		DefaultOrder order = new DefaultOrder(3) {
+			@Override
+			public void updateProgress(int percentage) {
+				if (0 == started.getCount())
+					return;
+				busy.set(true);
+				started.countDown();
+				final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+				while (System.nanoTime() < end) {
+					Thread.onSpinWait();
+				}
+				busy.set(false);
+			}
+		};
+		ConcurrentMazeFactory mazeFactory = new ConcurrentMazeFactory(1, 1);
+		assertTrue(mazeFactory.order(order));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		assertTrue(mazeFactory.cancel(order));
+		mazeFactory.waitTillDelivered();
+		assertFalse(busy.get());
+		assertEquals(1, mazeFactory.getCanceledCount());
+		mazeFactory.shutdown();
+	}
+}
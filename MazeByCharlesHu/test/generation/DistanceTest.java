@@ -0,0 +1,285 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the distance computation of a maze. They do not depend on the builder
+ * algorithm, so they run once instead of once for each builder test that extends MazeFactoryTest.
+ */
+class DistanceTest {
+	/**
+	 * Creates a maze by queuing a build order via mazeFactory
+	 * @param skillLevel as an integer to indicate desired maze size
+	 * @param builder the builder algorithm
+	 * @param perfect true for a maze without rooms, false for a maze with rooms
+	 * @return Generated maze for the given seed
+	 */
+	private Maze createNewMaze(int skillLevel, Order.Builder builder, boolean perfect) {
+		MazeFactory mazeFactory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(skillLevel, builder, perfect, 13);
+		mazeFactory.order(order);
+		mazeFactory.waitTillDelivered();
+		return order.getMaze();
+	}
+
+	/**
+	 * Goal: Check if the breadth-first search gives the same distances, exit and starting position as a plain reference search
+	 * Test fixture: Will need perfect mazes and mazes with rooms provided by MazeBuilder, queued using MazeFactory
+	 * Functionality: Will compute distances for each floorplan with a reference search that uses a queue of positions
+	 * and the wallboard checks of the floorplan, picks the exit and the starting position the same way as Distance does
+	 * Check: Distance values, exit and starting positions of the maze should match the reference
+	 */
+	@Test
+	void testDistancesMatchReferenceSearch() {
+		for (Order.Builder builder : new Order.Builder[] {Order.Builder.DFS, Order.Builder.Prim}) {
+			for (boolean perfect : new boolean[] {true, false}) {
+				Maze maze = createNewMaze(4, builder, perfect);
+				Floorplan floorplan = maze.getFloorplan();
+				int width = maze.getWidth();
+				int height = maze.getHeight();
+				//The exit is the position on the border that is farthest from the center
+				int[][] fromCenter = referenceDistances(floorplan, width, height, width/2, height/2);
+				int[] exit = new int[2];
+				int max = 0;
+				for (int x = 0; x < width; x++) {
+					max = keepMax(fromCenter, x, 0, max, exit);
+					max = keepMax(fromCenter, x, height-1, max, exit);
+				}
+				for (int y = 0; y < height; y++) {
+					max = keepMax(fromCenter, 0, y, max, exit);
+					max = keepMax(fromCenter, width-1, y, max, exit);
+				}
+				int[][] expected = referenceDistances(floorplan, width, height, exit[0], exit[1]);
+				//The starting position is the first position with the largest distance
+				int[] start = new int[2];
+				max = 0;
+				for (int x = 0; x < width; x++) {
+					for (int y = 0; y < height; y++) {
+						max = keepMax(expected, x, y, max, start);
+					}
+				}
+				String message = builder + (perfect ? " perfect" : " with rooms");
+				assertTrue(Arrays.deepEquals(expected, maze.getMazedists().getAllDistanceValues()), message);
+				assertArrayEquals(exit, maze.getExitPosition(), message);
+				assertArrayEquals(start, maze.getStartingPosition(), message);
+				//A second computation on the same floorplan gives the same result
+				Distance distance = new Distance(width, height);
+				assertArrayEquals(exit, distance.computeDistances(floorplan));
+				assertTrue(Arrays.deepEquals(expected, distance.getAllDistanceValues()), message);
+				assertArrayEquals(start, distance.getStartPosition(), message);
+			}
+		}
+	}
+
+	/**
+	 * Goal: Check if the parallel distance computation gives the same result as the sequential one
+	 * Test fixture: Will need a fully generated instance of the maze provided by MazeBuilder, queued using MazeFactory;
+	 * also an open floorplan without any walls, whose frontiers are large enough to be expanded in parallel
+	 * Functionality: Will compute distances for both floorplans once sequentially and once in parallel
+	 * Check: Distance values, exit and starting positions should be equal
+	 */
+	@Test
+	void testParallelDistancesMatchSequential() {
+		Maze mazeSize8 = createNewMaze(8, Order.Builder.DFS, true);
+		Floorplan openFloorplan = new Floorplan(new int[300][300]);
+		for (Floorplan floorplan : new Floorplan[] {mazeSize8.getFloorplan(), openFloorplan}) {
+			int width = (floorplan == openFloorplan) ? 300 : mazeSize8.getWidth();
+			int height = (floorplan == openFloorplan) ? 300 : mazeSize8.getHeight();
+			Distance sequential = new Distance(width, height);
+			Distance parallel = new Distance(width, height);
+			assertArrayEquals(sequential.computeDistances(floorplan, false), parallel.computeDistances(floorplan, true));
+			assertTrue(Arrays.deepEquals(sequential.getAllDistanceValues(), parallel.getAllDistanceValues()));
+			assertArrayEquals(sequential.getStartPosition(), parallel.getStartPosition());
+		}
+	}
+
+	/**
+	 * Goal: Check if an incremental distance update gives the same result as a full computation
+	 * Test fixture: Will need a fully generated instance of the maze provided by MazeBuilder, queued using MazeFactory
+	 * Functionality: Will remove some interior wallboards to create shortcuts, update distances, then put the wallboards back and update again
+	 * Check: After each update, distances should match a full computation for the same exit, 
+	 * reported cells should be exactly the ones whose distance changed, and finally all distances should be as before
+	 */
+	@Test
+	void testIncrementalDistancesMatchRecompute() {
+		Maze mazeSize3 = createNewMaze(3, Order.Builder.DFS, true);
+		Floorplan floorplan = mazeSize3.getFloorplan();
+		Distance distance = mazeSize3.getMazedists();
+		int width = mazeSize3.getWidth();
+		int height = mazeSize3.getHeight();
+		int[] exit = distance.getExitPosition();
+		int[][] original = copyOf(distance.getAllDistanceValues());
+		//Collect some interior wallboards that are up and can be torn down
+		List<Wallboard> wallboards = new ArrayList<>();
+		for (int i = 1; i < width - 1 && wallboards.size() < 5; i += 3) {
+			for (int j = 1; j < height - 1 && wallboards.size() < 5; j += 4) {
+				Wallboard wallboard = new Wallboard(i, j, CardinalDirection.East);
+				if (floorplan.hasWall(i, j, CardinalDirection.East) && !floorplan.isPartOfBorder(wallboard)) {
+					wallboards.add(wallboard);
+				}
+			}
+		}
+		assertFalse(wallboards.isEmpty());
+		//Removing wallboards can only shorten distances
+		for (Wallboard wallboard : wallboards) {
+			floorplan.deleteWallboard(wallboard);
+		}
+		List<int[]> changed = distance.updateDistances(floorplan, wallboards);
+		Distance expected = new Distance(width, height);
+		expected.computeDistances(floorplan, exit[0], exit[1]);
+		assertTrue(Arrays.deepEquals(expected.getAllDistanceValues(), distance.getAllDistanceValues()));
+		assertChangedCells(original, distance.getAllDistanceValues(), changed);
+		//Putting the wallboards back should restore all distances
+		int[][] shortened = copyOf(distance.getAllDistanceValues());
+		for (Wallboard wallboard : wallboards) {
+			floorplan.addWallboard(wallboard, true);
+		}
+		changed = distance.updateDistances(floorplan, wallboards);
+		assertTrue(Arrays.deepEquals(original, distance.getAllDistanceValues()));
+		assertChangedCells(shortened, distance.getAllDistanceValues(), changed);
+		assertArrayEquals(exit, distance.getExitPosition());
+	}
+
+	/**
+	 * Goal: Check if the starting position stays reachable after a dead end is closed off
+	 * Test fixture: Will need a fully generated instance of the maze provided by MazeBuilder, queued using MazeFactory
+	 * Functionality: Will put up a wallboard at the only opening of the dead end that is farthest from the exit,
+	 * update distances and ask for the starting position
+	 * Check: The dead end should be unreachable, the starting position should be another cell
+	 * with the maximum distance of all reachable cells
+	 */
+	@Test
+	void testStartPositionAfterClosingDeadEnd() {
+		Maze mazeSize3 = createNewMaze(3, Order.Builder.DFS, true);
+		Floorplan floorplan = mazeSize3.getFloorplan();
+		Distance distance = mazeSize3.getMazedists();
+		//Find the dead end with the largest distance, it has a single opening to a neighbor
+		int[] deadEnd = null;
+		CardinalDirection opening = null;
+		for (int x = 0; x < mazeSize3.getWidth(); x++) {
+			for (int y = 0; y < mazeSize3.getHeight(); y++) {
+				if (distance.isExitPosition(x, y))
+					continue;
+				List<CardinalDirection> open = new ArrayList<>();
+				for (CardinalDirection cd : CardinalDirection.values()) {
+					if (floorplan.hasNoWall(x, y, cd))
+						open.add(cd);
+				}
+				if (1 == open.size() && (null == deadEnd || 
+						distance.getDistanceValue(x, y) > distance.getDistanceValue(deadEnd[0], deadEnd[1]))) {
+					deadEnd = new int[] {x, y};
+					opening = open.get(0);
+				}
+			}
+		}
+		assertNotNull(deadEnd);
+		Wallboard wallboard = new Wallboard(deadEnd[0], deadEnd[1], opening);
+		floorplan.addWallboard(wallboard, true);
+		distance.updateDistances(floorplan, List.of(wallboard));
+		assertEquals(Distance.INFINITY, distance.getDistanceValue(deadEnd[0], deadEnd[1]));
+		//The starting position is the farthest cell that can still reach the exit
+		int[] start = distance.getStartPosition();
+		assertFalse(Arrays.equals(deadEnd, start));
+		int max = 0;
+		for (int[] column : distance.getAllDistanceValues()) {
+			for (int value : column) {
+				if (Distance.INFINITY != value)
+					max = Math.max(max, value);
+			}
+		}
+		assertEquals(max, distance.getMaxDistance());
+		assertEquals(max, distance.getDistanceValue(start[0], start[1]));
+	}
+
+	/**
+	 * Computes distances to the given position with a plain breadth-first search over positions
+	 * @param floorplan the floorplan of the maze
+	 * @param width width of the maze
+	 * @param height height of the maze
+	 * @param ax x coordinate of the position to compute distances to
+	 * @param ay y coordinate of the position to compute distances to
+	 * @return distance of each position, 1 at the given position, INFINITY if not reachable
+	 */
+	private int[][] referenceDistances(Floorplan floorplan, int width, int height, int ax, int ay) {
+		int[][] dists = new int[width][height];
+		for (int[] column : dists) {
+			Arrays.fill(column, Distance.INFINITY);
+		}
+		dists[ax][ay] = 1;
+		ArrayDeque<int[]> queue = new ArrayDeque<>();
+		queue.add(new int[] {ax, ay});
+		while (!queue.isEmpty()) {
+			int[] position = queue.poll();
+			for (CardinalDirection cd : CardinalDirection.values()) {
+				int[] dxy = cd.getDxDyDirection();
+				int x = position[0] + dxy[0];
+				int y = position[1] + dxy[1];
+				if (0 <= x && x < width && 0 <= y && y < height && floorplan.hasNoWall(position[0], position[1], cd)
+						&& Distance.INFINITY == dists[x][y]) {
+					dists[x][y] = dists[position[0]][position[1]] + 1;
+					queue.add(new int[] {x, y});
+				}
+			}
+		}
+		return dists;
+	}
+
+	/**
+	 * Memorizes the given position if its distance is finite and above the given maximum
+	 * @param dists distance values
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param max the maximum so far
+	 * @param result the position with the maximum so far
+	 * @return the new maximum
+	 */
+	private int keepMax(int[][] dists, int x, int y, int max, int[] result) {
+		if (dists[x][y] > max && Distance.INFINITY != dists[x][y]) {
+			result[0] = x;
+			result[1] = y;
+			return dists[x][y];
+		}
+		return max;
+	}
+
+	/**
+	 * Checks that the given list holds exactly the positions whose value differs between both arrays
+	 * @param before distance values before an update
+	 * @param after distance values after an update
+	 * @param changed positions reported as changed by the update
+	 */
+	private void assertChangedCells(int[][] before, int[][] after, List<int[]> changed) {
+		int differences = 0;
+		for (int i = 0; i < before.length; i++) {
+			for (int j = 0; j < before[i].length; j++) {
+				if (before[i][j] != after[i][j]) {
+					differences++;
+				}
+			}
+		}
+		assertEquals(differences, changed.size());
+		for (int[] position : changed) {
+			assertNotEquals(before[position[0]][position[1]], after[position[0]][position[1]]);
+		}
+	}
+
+	/**
+	 * Copies a 2D array of distance values
+	 * @param distances array to copy
+	 * @return a deep copy of the array
+	 */
+	private int[][] copyOf(int[][] distances) {
+		int[][] copy = new int[distances.length][];
+		for (int i = 0; i < distances.length; i++) {
+			copy[i] = distances[i].clone();
+		}
+		return copy;
+	}
+}
@@ -4,6 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -391,7 +395,7 @@ public class FloorplanTest{
 	/** 
 	 * Test case: Correctness of the markAreaAsRoom method 
 	 * <p>
-	 * Method under test: markAreaAsRoom(int rw, int rh, int rx, int ry, int rxl, int ryl, Random r) 
+	 * Method under test: markAreaAsRoom(int rw, int rh, int rx, int ry, int rxl, int ryl, RandomStream random) 
 	 * Method under test: isInRoom(int x, int y) 
 	 * <p>
 	 * Correct behavior: 
@@ -404,16 +408,17 @@ public class FloorplanTest{
 	 */
 	@Test
 	public final void testMarkAreaAsRoom() {
+		RandomStream random = new RandomStream(13);
 		Floorplan C = new Floorplan(10,10);
 		C.initialize();
-		C.markAreaAsRoom(4,4, 1,1, 4,4);
+		C.markAreaAsRoom(4,4, 1,1, 4,4, random);
 		assertTrue(C.areaOverlapsWithRoom(1,1,5,5));
 		assertFalse(C.areaOverlapsWithRoom(6,6,8,8));
 		assertTrue(C.isInRoom(3, 3));
 		assertFalse(C.isInRoom(4, 8));
 
 		Floorplan cell1 = new Floorplan(10, 10);
-		cell1.markAreaAsRoom(5, 5, 2, 2, 7, 7);
+		cell1.markAreaAsRoom(5, 5, 2, 2, 7, 7, random);
 		for(int x = 2; x < 8; x++){
 			for(int y = 2; y < 8; y++){
 				assertTrue(cell1.isInRoom(x, y));
@@ -423,7 +428,7 @@ public class FloorplanTest{
 
 		Floorplan cell2 = new Floorplan(10, 10);
 		cell2.initialize();
-		cell2.markAreaAsRoom(5, 5, 1, 1, 6, 6);
+		cell2.markAreaAsRoom(5, 5, 1, 1, 6, 6, random);
 		Wallboard wallboard = new Wallboard(5, 5, CardinalDirection.getDirection(0, 1)) ;
 		assertTrue(cell2.canTearDown(wallboard));
 		wallboard.setLocationDirection(5, 5, CardinalDirection.South);
@@ -532,6 +537,111 @@ public class FloorplanTest{
 		cell1.initialize();
 		assertEquals(cell1.toString(), cell1.toString(), " i:0 j:0=511\n"); 
 	}
+	/**
+	 * Test case: Check if the encodings deliver the same cell values
+	 * <p>
+	 * Method under test: Floorplan(int w, int h, Encoding encoding), getEncoding(), getValueOfCell(int x, int y), equals()
+	 * <p>
+	 * Correct behavior: a floorplan with encoding INT and one with encoding SHORT
+	 * hold the same values after the same operations and are equal.
+	 */
+	@Test
+	public final void testEncodingsMatch() {
+		Floorplan intCells = new Floorplan(5, 3, Floorplan.Encoding.INT);
+		Floorplan shortCells = new Floorplan(5, 3, Floorplan.Encoding.SHORT);
+		assertEquals(Floorplan.Encoding.INT, intCells.getEncoding());
+		assertEquals(Floorplan.Encoding.SHORT, shortCells.getEncoding());
+		for (Floorplan f : new Floorplan[] {intCells, shortCells}) {
+			f.initialize();
+			f.markAreaAsRoom(2, 1, 1, 1, 2, 1, new RandomStream(13));
+			f.deleteWallboard(new Wallboard(4, 2, CardinalDirection.West));
+		}
+		for (int x = 0; x < 5; x++) {
+			for (int y = 0; y < 3; y++) {
+				assertEquals(intCells.getValueOfCell(x, y), shortCells.getValueOfCell(x, y));
+			}
+		}
+		assertTrue(intCells.isInRoom(2, 1));
+		assertTrue(intCells.equals(shortCells));
+		assertTrue(shortCells.equals(intCells));
+		shortCells.setCellAsVisited(0, 0);
+		assertFalse(intCells.equals(shortCells));
+	}
+	/**
+	 * Test case: Check if a floorplan reads and writes cells in place in a buffer
+	 * <p>
+	 * Method under test: Floorplan(int w, int h, ShortBuffer input), initialize(), equals()
+	 * <p>
+	 * Correct behavior: the floorplan has encoding SHORT, changes show up in the buffer 
+	 * and it equals a floorplan with encoding INT that had the same operations.
+	 */
+	@Test
+	public final void testMappedEncoding() {
+		ShortBuffer buffer = ByteBuffer.allocateDirect(2*5*3).asShortBuffer();
+		Floorplan mapped = new Floorplan(5, 3, buffer);
+		Floorplan intCells = new Floorplan(5, 3);
+		assertEquals(Floorplan.Encoding.SHORT, mapped.getEncoding());
+		mapped.initialize();
+		intCells.initialize();
+		assertTrue(mapped.equals(intCells));
+		assertTrue(intCells.equals(mapped));
+		mapped.setCellAsVisited(3, 2);
+		assertEquals(mapped.getValueOfCell(3, 2), buffer.get(2*5+3));
+		assertFalse(mapped.equals(intCells));
+		intCells.setCellAsVisited(3, 2);
+		assertTrue(mapped.equals(intCells));
+	}
+	/**
+	 * Test case: Check if cells are stored in row-major order
+	 * <p>
+	 * Method under test: Floorplan(int w, int h, short[] input), Floorplan(int[][] input), getValueOfCell(int x, int y)
+	 * <p>
+	 * Correct behavior: cell (x,y) is at index y*width+x of the given array,
+	 * a floorplan from a matrix with the same values is equal.
+	 */
+	@Test
+	public final void testRowMajorIndexing() {
+		short[] values = new short[5*3];
+		int[][] matrix = new int[5][3];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (short) (i | Floorplan.CW_VISITED);
+			matrix[i % 5][i / 5] = i | Floorplan.CW_VISITED;
+		}
+		Floorplan compact = new Floorplan(5, 3, values);
+		for (int x = 0; x < 5; x++) {
+			for (int y = 0; y < 3; y++) {
+				assertEquals(y*5+x | Floorplan.CW_VISITED, compact.getValueOfCell(x, y));
+			}
+		}
+		assertTrue(compact.equals(new Floorplan(matrix)));
+		compact.setCellAsVisited(4, 1);
+		// the given array is shared, not copied
+		assertEquals(1*5+4, values[1*5+4]);
+	}
+	/**
+	 * Test case: Check if a position outside of the floorplan is rejected
+	 * <p>
+	 * Method under test: getValueOfCell(int x, int y)
+	 * <p>
+	 * Correct behavior: an x beyond the width does not wrap around to the next row,
+	 * every position outside throws an IndexOutOfBoundsException for each encoding.
+	 */
+	@Test
+	public final void testPositionOutsideOfFloorplan() {
+		Floorplan[] floorplans = {new Floorplan(5, 3), new Floorplan(5, 3, Floorplan.Encoding.SHORT),
+				new Floorplan(5, 3, ShortBuffer.allocate(5*3))};
+		int[][] positions = {{5, 0}, {-1, 1}, {0, 3}, {0, -1}};
+		for (Floorplan f : floorplans) {
+			for (int[] p : positions) {
+				try {
+					f.getValueOfCell(p[0], p[1]);
+					fail("Position (" + p[0] + "," + p[1] + ") should be outside of floorplan");
+				} catch (IndexOutOfBoundsException e) {
+					// expected
+				}
+			}
+		}
+	}
 	/**
 	 * Test method for {@link generation.CardinalDirection#getCWConstantForDirection()}.
 	 */
@@ -0,0 +1,134 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Order.Builder;
+
+class ListOfWallsBuilderTest {
+
+	/**
+	 * Goal: Check if walls that continue each other are merged
+	 * Test fixture: Will need two walls of south wallboards and two walls of north wallboards
+	 * that continue each other, and a wall that faces the other way
+	 * Functionality: Will merge the list of walls
+	 * Check: Each pair should become one wall from the start of the first part to the end of the last part,
+	 * the wall that faces the other way should remain as is
+	 */
+	@Test
+	void testMergeContinuedWalls() {
+		ListOfWallsBuilder builder = new ListOfWallsBuilder(4, 4, null, null, 0);
+		Wall opposite = new Wall(0, 128, 128, 0, 1, 0);
+		List<Wall> walls = List.of(
+				new Wall(0, 0, 128, 0, 1, 0), new Wall(128, 0, 256, 0, 1, 0), // south: (0,0) to (384,0)
+				new Wall(256, 128, -128, 0, 1, 0), new Wall(512, 128, -256, 0, 1, 0), // north: (512,128) to (128,128)
+				opposite);
+		List<Wall> merged = builder.mergeCollinearWalls(walls);
+		assertEquals(3, merged.size());
+		assertEquals(new Wall(0, 0, 384, 0, 1, 0), merged.get(0));
+		assertEquals(new Wall(512, 128, -384, 0, 1, 0), merged.get(1));
+		assertSame(opposite, merged.get(2));
+	}
+
+	/**
+	 * Goal: Check if walls of different colors are not merged
+	 * Test fixture: Will need two walls that continue each other but have different colors
+	 * Functionality: Will merge the list of walls
+	 * Check: Both walls should remain as they are
+	 */
+	@Test
+	void testKeepWallsOfDifferentColor() {
+		ListOfWallsBuilder builder = new ListOfWallsBuilder(4, 4, null, null, 0);
+		Wall first = new Wall(0, 0, 0, 128, 1, 0);
+		Wall second = new Wall(0, 128, 0, 128, 2, 0);
+		second.setColor(first.getColor() + 1);
+		List<Wall> merged = builder.mergeCollinearWalls(List.of(first, second));
+		assertEquals(2, merged.size());
+		assertSame(first, merged.get(0));
+		assertSame(second, merged.get(1));
+	}
+
+	/**
+	 * Goal: Check if merging the walls of a maze keeps all wallboards
+	 * Test fixture: Will need the walls of a maze with rooms
+	 * Functionality: Will merge the list of walls
+	 * Check: There should be fewer walls with the same total length for each direction
+	 */
+	@Test
+	void testMergeKeepsLengthPerDirection() {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(5, Builder.DFS, false, 7);
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		ListOfWallsBuilder builder = new ListOfWallsBuilder(maze.getWidth(), maze.getHeight(), maze.getFloorplan(),
+				maze.getMazedists(), 0);
+		List<Wall> walls = builder.generateWalls();
+		List<Wall> merged = builder.mergeCollinearWalls(walls);
+		assertTrue(merged.size() < walls.size());
+		assertEquals(lengthPerDirection(walls), lengthPerDirection(merged));
+	}
+
+	/**
+	 * Goal: Check if a piece of a merged wall is cut back into the walls it was merged from
+	 * Test fixture: Will need two walls of north wallboards that continue each other and a third one
+	 * on the same line that does not continue them
+	 * Functionality: Will merge the walls, split the merged wall like a splitter would and restore one of the pieces
+	 * Check: The piece should become the parts of both walls that it covers and keep its partition bit,
+	 * the third wall should remain as is
+	 */
+	@Test
+	void testRestoreSegmentsOfPiece() {
+		ListOfWallsBuilder builder = new ListOfWallsBuilder(8, 4, null, null, 0);
+		Wall separate = new Wall(768, 128, -128, 0, 1, 0);
+		List<Wall> merged = builder.mergeCollinearWalls(List.of(
+				new Wall(256, 128, -128, 0, 1, 0), new Wall(512, 128, -256, 0, 1, 0), separate));
+		assertEquals(new Wall(512, 128, -384, 0, 1, 0), merged.get(0));
+		// a vertical splitter at x=320 cuts the merged wall from (512,128) to (128,128)
+		Wall piece = new Wall(320, 128, -192, 0, 1, 0);
+		piece.setPartition(true);
+		Wall first = new Wall(256, 128, -128, 0, 1, 0);
+		first.setPartition(true);
+		Wall second = new Wall(320, 128, -64, 0, 1, 0);
+		second.setPartition(true);
+		assertEquals(List.of(first, second), builder.restoreSegments(List.of(piece)));
+		assertSame(separate, builder.restoreSegments(List.of(separate)).get(0));
+	}
+
+	/**
+	 * Goal: Check if merged walls of a maze are restored to the walls of the maze
+	 * Test fixture: Will need the walls of a maze with rooms
+	 * Functionality: Will merge the list of walls and restore the merged list
+	 * Check: The restored list should match the walls of the maze
+	 */
+	@Test
+	void testRestoreSegmentsOfMaze() {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(5, Builder.DFS, false, 7);
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		ListOfWallsBuilder builder = new ListOfWallsBuilder(maze.getWidth(), maze.getHeight(), maze.getFloorplan(),
+				maze.getMazedists(), 0);
+		List<Wall> walls = builder.generateWalls();
+		assertEquals(walls, builder.restoreSegments(builder.mergeCollinearWalls(walls)));
+	}
+
+	/**
+	 * @param walls list of walls
+	 * @return sum of the lengths of walls with a positive and a negative extension in x and y direction
+	 */
+	private List<Integer> lengthPerDirection(List<Wall> walls) {
+		int[] sums = new int[4];
+		for (Wall wall : walls) {
+			int index = (wall.getExtensionX() != 0 ? 0 : 2) + (wall.getExtensionX() + wall.getExtensionY() > 0 ? 0 : 1);
+			sums[index] += wall.getLength();
+		}
+		return List.of(sums[0], sums[1], sums[2], sums[3]);
+	}
+}
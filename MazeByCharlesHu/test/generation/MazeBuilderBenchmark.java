@@ -0,0 +1,172 @@
+package generation;
+
+import java.lang.reflect.Method;
+
+import generation.Order.Builder;
+
+/**
+ * Benchmark for the pathway generation of the maze builders.
+ * For each skill level 0-15, it measures the time and the memory allocated
+ * by the current thread for generatePathways, the step that carves the maze,
+ * averaged over a number of runs after some warm-up runs.
+ * Rooms and the distance computation are not included.
+ * For the DFS builder, the previous version of generatePathways with a direction matrix
+ * runs side by side with the current one, so both can be compared on the same JVM.
+ * Note that the previous version runs on the current Floorplan and Wallboard,
+ * so it only shows the difference that is due to the carver itself.
+ *
+ * This is not a JUnit test, run it as a Java application on the class path:
+ * the optional first argument selects the builder (default DFS),
+ * the optional second argument the number of measured runs per skill level (default 5).
+ * The allocated memory is read from the thread bean of the JDK management extension,
+ * which is looked up by reflection, so the maze module does not depend on it.
+ */
+public class MazeBuilderBenchmark {
+
+	/**
+	 * Creates a builder for the given algorithm.
+	 * @param builder the algorithm
+	 * @return a new builder for the algorithm
+	 */
+	static MazeBuilder createBuilder(Builder builder) {
+		switch (builder) {
+		case Prim:
+			return new MazeBuilderPrim();
+		case Kruskal:
+			return new MazeBuilderKruskal();
+		case Eller:
+			return new MazeBuilderEller();
+		case Boruvka:
+			return new MazeBuilderBoruvka();
+		default:
+			return new MazeBuilder();
+		}
+	}
+
+	/**
+	 * Generates pathways for a perfect maze of the given skill level.
+	 * @param mazeBuilder the builder to run
+	 * @param builder the algorithm
+	 * @param skillLevel the size of the maze
+	 * @param seed the seed for the random number generator
+	 * @param allocated holds the number of bytes allocated by generatePathways after the call
+	 * @return the time spent in generatePathways in nanoseconds
+	 */
+	static long run(MazeBuilder mazeBuilder, Builder builder, int skillLevel, int seed, long[] allocated) {
+		mazeBuilder.buildOrder(new DefaultOrder(skillLevel, builder, true, seed));
+		mazeBuilder.floorplan.initialize();
+		long bytesBefore = getAllocatedBytes();
+		long start = System.nanoTime();
+		mazeBuilder.generatePathways();
+		long time = System.nanoTime() - start;
+		allocated[0] = getAllocatedBytes() - bytesBefore;
+		return time;
+	}
+
+	/**
+	 * Gives the number of bytes allocated by the current thread so far.
+	 * @return number of bytes, -1 if the JVM does not support the measurement
+	 */
+	static long getAllocatedBytes() {
+		try {
+			final Object bean = Class.forName("java.lang.management.ManagementFactory")
+					.getMethod("getThreadMXBean").invoke(null);
+			final Method allocatedBytes = Class.forName("com.sun.management.ThreadMXBean")
+					.getMethod("getThreadAllocatedBytes", long.class);
+			return (Long) allocatedBytes.invoke(bean, Thread.currentThread().getId());
+		} catch (ReflectiveOperationException | IllegalArgumentException e) {
+			// management modules not resolved or thread bean of another vendor
+			return -1;
+		}
+	}
+
+	/**
+	 * Measures generatePathways for the given skill level, averaged over the given number of runs.
+	 * @param previous true for the previous DFS version, false for the builder of the algorithm
+	 * @param builder the algorithm
+	 * @param skillLevel the size of the maze
+	 * @param runs the number of measured runs
+	 * @return time per run in milliseconds and allocated kilobytes per run
+	 */
+	static String measure(boolean previous, Builder builder, int skillLevel, int runs) {
+		long[] allocated = new long[1];
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			run(previous ? new PreviousMazeBuilder() : createBuilder(builder), builder, skillLevel, i, allocated);
+		}
+		long time = 0;
+		long bytes = 0;
+		for (int i = 0; i < runs; i++) {
+			time += run(previous ? new PreviousMazeBuilder() : createBuilder(builder), builder, skillLevel, 13 + i, allocated);
+			bytes += allocated[0];
+		}
+		return String.format("%.3f", time / 1e6 / runs) + "\t" + bytes / 1024 / runs;
+	}
+
+	public static void main(String[] args) {
+		Builder builder = (args.length > 0) ? Builder.valueOf(args[0]) : Builder.DFS;
+		int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+		boolean compare = (Builder.DFS == builder);
+		java.util.logging.LogManager.getLogManager().reset();
+		System.out.println("builder " + builder + ", " + runs + " runs per skill level");
+		System.out.println("skill\tcells\tms/run\tKB/run" + (compare ? "\tprevious ms/run\tprevious KB/run" : ""));
+		for (int skillLevel = 0; skillLevel <= gui.Constants.MAX_SKILL_LEVEL; skillLevel++) {
+			System.out.println(skillLevel + "\t" + gui.Constants.SKILL_X[skillLevel] * gui.Constants.SKILL_Y[skillLevel]
+					+ "\t" + measure(false, builder, skillLevel, runs) 
+					+ (compare ? "\t" + measure(true, builder, skillLevel, runs) : ""));
+		}
+	}
+
+	/**
+	 * DFS builder with the previous version of generatePathways, which keeps the direction
+	 * each cell was entered through in a matrix of CardinalDirection objects
+	 * and takes (dx,dy) steps from a new array each time.
+	 * It delivers the same pathways as the current version for the same seed.
+	 */
+	static class PreviousMazeBuilder extends MazeBuilder {
+		@Override
+		protected void generatePathways() {
+			int x = random.nextIntWithinInterval(0, width-1);
+			int y = 0; 
+			final int firstx = x; 
+			final int firsty = y;
+			
+			CardinalDirection[][] origcds = new CardinalDirection[width][height]; 
+			CardinalDirection cd = CardinalDirection.East;
+			CardinalDirection origcd = cd;
+			
+			floorplan.setCellAsVisited(x, y); 
+			Wallboard wallboard = new Wallboard(x, y, cd);
+			while (true) { 
+				wallboard.setLocationDirection(x, y, cd);
+				if (!floorplan.canTearDown(wallboard)) {
+					cd = cd.rotateClockwise();
+					if (origcd == cd) {				
+						if (x == firstx && y == firsty)
+							break; 			
+						int[] dxy = origcds[x][y].getDxDyDirection();
+						x -= dxy[0];
+						y -= dxy[1];
+						if (null == origcds[x][y]) {
+							// Happens at starting position
+							cd = cd.randomDirection(random) ;
+						}
+						else
+							cd = origcds[x][y] ;
+						cd = cd.rotateClockwise();
+						origcd = cd;
+					}
+				} else {
+					floorplan.deleteWallboard(wallboard);
+					int[] dxy = cd.getDxDyDirection();
+					x += dxy[0];
+					y += dxy[1];
+					floorplan.setCellAsVisited(x, y);
+					origcds[x][y] = cd;
+					cd = cd.randomDirection(random);
+					origcd = cd;
+				}
+			}
+		}
+	}
+}
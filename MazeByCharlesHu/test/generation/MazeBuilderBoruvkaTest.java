@@ -1,6 +1,7 @@
 package generation;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -117,4 +118,34 @@ class MazeBuilderBoruvkaTest extends MazeFactoryTest {
 		assertEquals(0, mazeSize3.getEdgeWeight(30, 30, CardinalDirection.North));
 		assertEquals(0, mazeSize3.getEdgeWeight(0, 0, CardinalDirection.North));
 	}
+	
+	/**
+	 * Goal: Check if parallel mode delivers the same maze as sequential mode
+	 * Test fixture: Will need two instances of MazeBuilderBoruvka, one sequential and one parallel, with the same order
+	 * Functionality: Will test if the parallel rounds tear down exactly the same walls as the sequential rounds
+	 * Check: For the same seed, the floorplans of both mazes should be equal, with and without rooms
+	 */
+	@Test
+	void parallelMatchesSequential() {
+		for (int skillLevel : new int[] {0, 3, 8}) {
+			for (boolean perfect : new boolean[] {true, false}) {
+				MazeBuilderBoruvka sequential = new MazeBuilderBoruvka(false);
+				sequential.buildOrder(new DefaultOrder(skillLevel, Builder.Boruvka, perfect, 13));
+				sequential.floorplan.initialize();
+				if (!perfect) {
+					sequential.generateRooms();
+				}
+				sequential.generate();
+				MazeBuilderBoruvka parallel = new MazeBuilderBoruvka(true);
+				parallel.buildOrder(new DefaultOrder(skillLevel, Builder.Boruvka, perfect, 13, true));
+				parallel.floorplan.initialize();
+				if (!perfect) {
+					parallel.generateRooms();
+				}
+				parallel.generate();
+				//Same seed, same weights, unique spanning tree: same walls must be torn down
+				assertTrue(sequential.floorplan.equals(parallel.floorplan));
+			}
+		}
+	}
 }
@@ -0,0 +1,81 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Order.Builder;
+
+class MazeBuilderEllerTest extends MazeFactoryTest {
+	/**
+	 * Creates a maze using Eller's algorithm by queuing a build order via mazeFactory
+	 * @param skillLevel as an integer to indicate desired maze size
+	 * @return Generated maze based on the desired maze size using the Eller maze generation algorithm
+	 */
+	@Override
+	protected Maze createNewMaze(int skillLevel) {
+		MazeFactory mazeFactory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(skillLevel, Builder.Eller, true, 13);
+		mazeFactory.order(order);
+		mazeFactory.waitTillDelivered();
+		return order.getMaze();
+	}
+	
+	/**
+	 * Goal: Check if rows are streamed in order
+	 * Test fixture: Will need instance of MazeBuilderEller with a RowSink that records the rows it receives
+	 * Functionality: Will test if every row is handed to the sink exactly once and from top to bottom, also with rooms
+	 * Check: The recorded rows should be 0,1,...,height-1
+	 */
+	@Test
+	void rowsCompletedInOrder() {
+		for (boolean perfect : new boolean[] {true, false}) {
+			MazeBuilderEller builder = new MazeBuilderEller();
+			builder.buildOrder(new DefaultOrder(6, Builder.Eller, perfect, 13));
+			List<Integer> rows = new ArrayList<Integer>();
+			builder.setRowSink((floorplan, y) -> rows.add(y));
+			builder.floorplan.initialize();
+			if (!perfect) {
+				builder.generateRooms();
+			}
+			builder.generate();
+			//Every row once, from top to bottom
+			assertEquals(builder.height, rows.size());
+			for (int y = 0; y < rows.size(); y++) {
+				assertEquals(y, rows.get(y).intValue());
+			}
+		}
+	}
+
+	/**
+	 * Goal: Check if delivered rows are not changed anymore, except for the exit
+	 * Test fixture: Will need instance of MazeBuilderEller with a RowSink that copies the cells of each row it receives
+	 * Functionality: Will generate a maze with rooms and compare the copies with the final floorplan
+	 * Check: Only the exit cell may differ from its copy
+	 */
+	@Test
+	void rowsUnchangedExceptExit() {
+		MazeBuilderEller builder = new MazeBuilderEller();
+		builder.buildOrder(new DefaultOrder(6, Builder.Eller, false, 13));
+		int[][] copies = new int[builder.height][builder.width];
+		builder.setRowSink((floorplan, y) -> {
+			for (int x = 0; x < builder.width; x++) {
+				copies[y][x] = floorplan.getValueOfCell(x, y);
+			}
+		});
+		builder.floorplan.initialize();
+		builder.generateRooms();
+		builder.generate();
+		for (int y = 0; y < builder.height; y++) {
+			for (int x = 0; x < builder.width; x++) {
+				if (copies[y][x] != builder.floorplan.getValueOfCell(x, y)) {
+					assertTrue(builder.floorplan.isExitPosition(x, y), "cell (" + x + "," + y + ") changed after delivery");
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package generation;
+
+import generation.Order.Builder;
+
+class MazeBuilderPrimTest extends MazeFactoryTest {
+	/**
+	 * Creates a maze using Prim's algorithm by queuing a build order via mazeFactory
+	 * @param skillLevel as an integer to indicate desired maze size
+	 * @return Generated maze based on the desired maze size using the Prim maze generation algorithm
+	 */
+	@Override
+	protected Maze createNewMaze(int skillLevel) {
+		MazeFactory mazeFactory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(skillLevel, Builder.Prim, true, 13);
+		mazeFactory.order(order);
+		mazeFactory.waitTillDelivered();
+		return order.getMaze();
+	}
+}
@@ -0,0 +1,246 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for features of the MazeFactory and its orders that do not depend
+ * on the builder algorithm, so they run once with the default builder
+ * instead of once for each builder test that extends MazeFactoryTest.
+ */
+class MazeFactoryOrderTest {
+	/**
+	 * Goal: Check if the parallel BSP construction gives the same tree as the sequential one
+	 * Test fixture: Will need two orders for the same maze with rooms, one sequential and one parallel,
+	 * large enough that subtrees are built concurrently
+	 * Functionality: Will generate both mazes with the mazeFactory
+	 * Check: Both BSP trees should have the same splitters and walls, progress should never decrease
+	 */
+	@Test
+	void testParallelBSPTreeMatchesSequential() {
+		MazeFactory mazeFactory = new MazeFactory();
+		DefaultOrder sequential = new DefaultOrder(8, Order.Builder.DFS, false, 13, false);
+		mazeFactory.order(sequential);
+		mazeFactory.waitTillDelivered();
+		List<Integer> percentages = new ArrayList<>();
+		DefaultOrder parallel = new DefaultOrder(8, Order.Builder.DFS, false, 13, true) {
+			@Override
+			public void updateProgress(int percentage) {
+				synchronized (percentages) {
+					percentages.add(percentage);
+				}
+				super.updateProgress(percentage);
+			}
+		};
+		mazeFactory.order(parallel);
+		mazeFactory.waitTillDelivered();
+		assertSameTree(sequential.getMaze().getRootnode(), parallel.getMaze().getRootnode());
+		synchronized (percentages) {
+			for (int i = 1; i < percentages.size(); i++) {
+				assertTrue(percentages.get(i-1) <= percentages.get(i));
+			}
+		}
+	}
+	
+	/**
+	 * Goal: Check if canceling a parallel order stops the BSP construction on all threads
+	 * Test fixture: Will need a concurrentMazeFactory, whose worker goes on with a cleared interrupt status
+	 * after a cancel, and a parallel order for a large maze that counts progress updates from the ForkJoinPool
+	 * Functionality: Will cancel the order while a task on the ForkJoinPool reports progress, wait for the factory
+	 * and then for the ForkJoinPool to run out of work
+	 * Check: No maze should be delivered and tasks that were left over should not report progress anymore
+	 * @throws InterruptedException if interrupted while waiting for the maze generation
+	 */
+	@Test
+	void testParallelOrderCancel() throws InterruptedException {
+		final CountDownLatch forked = new CountDownLatch(1);
+		final CountDownLatch canceled = new CountDownLatch(1);
+		final AtomicInteger updates = new AtomicInteger();
+		DefaultOrder order = new DefaultOrder(12, Order.Builder.DFS, false, 13, true) {
+			@Override
+			public void updateProgress(int percentage) {
+				if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+					updates.incrementAndGet();
+					// hold the first task on the ForkJoinPool till the order is canceled
+					if (0 < forked.getCount()) {
+						forked.countDown();
+						try {
+							canceled.await(30, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				}
+				super.updateProgress(percentage);
+			}
+		};
+		ConcurrentMazeFactory mazeFactory = new ConcurrentMazeFactory(1, 1);
+		assertTrue(mazeFactory.order(order));
+		assertTrue(forked.await(30, TimeUnit.SECONDS));
+		assertTrue(mazeFactory.cancel(order));
+		canceled.countDown();
+		mazeFactory.waitTillDelivered();
+		final int updatesAtCancel = updates.get();
+		assertTrue(ForkJoinPool.commonPool().awaitQuiescence(30, TimeUnit.SECONDS));
+		// a task may have been in the middle of an update when the builder stopped
+		assertTrue(updates.get() - updatesAtCancel <= 1, (updates.get() - updatesAtCancel) + " updates after cancel");
+		assertNull(order.getMaze());
+		mazeFactory.shutdown();
+	}
+	
+	/**
+	 * Goal: Check if an asynchronous order completes its future with the delivered maze
+	 * Test fixture: Will need a mazeFactory and a default order placed via orderAsync
+	 * Functionality: Will chain a stage on the future that reads the width of the maze and wait for it
+	 * Check: Future should hold the same maze the order got delivered and the chained stage should see it
+	 * @throws ExecutionException if the maze generation fails
+	 * @throws InterruptedException if interrupted while waiting for the maze
+	 */
+	@Test
+	void testOrderAsyncCompletesWithDeliveredMaze() throws InterruptedException, ExecutionException {
+		MazeFactory mazeFactory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(2);
+		CompletableFuture<Maze> future = mazeFactory.orderAsync(order);
+		CompletableFuture<Integer> width = future.thenApply(Maze::getWidth);
+		Maze maze = future.get();
+		assertSame(order.getMaze(), maze);
+		assertEquals(maze.getWidth(), (int) width.get());
+		assertEquals(100, order.getProgress());
+	}
+	
+	/**
+	 * Goal: Check if canceling the future of an asynchronous order stops the maze generation
+	 * Test fixture: Will need a mazeFactory and an order for a large maze placed via orderAsync
+	 * Functionality: Will cancel the future right away and then place a second asynchronous order
+	 * Check: Future should be canceled, the second order should still be delivered
+	 * @throws ExecutionException if the maze generation fails
+	 * @throws InterruptedException if interrupted while waiting for the maze
+	 */
+	@Test
+	void testOrderAsyncCancel() throws InterruptedException, ExecutionException {
+		MazeFactory mazeFactory = new MazeFactory();
+		CompletableFuture<Maze> future = mazeFactory.orderAsync(new DefaultOrder(15));
+		assertTrue(future.cancel(true));
+		assertTrue(future.isCancelled());
+		assertThrows(CancellationException.class, () -> future.join());
+		assertNotNull(mazeFactory.orderAsync(new DefaultOrder(1)).get());
+	}
+	
+	/**
+	 * Goal: Check if an asynchronous order whose generation fails with an Error completes its future
+	 * Test fixture: Will need a mazeFactory and an order placed via orderAsync that throws an Error on its first progress update
+	 * Functionality: Will wait for the future
+	 * Check: Future should complete exceptionally with the Error instead of staying incomplete
+	 */
+	@Test
+	void testOrderAsyncCompletesOnError() {
+		MazeFactory mazeFactory = new MazeFactory();
+		CompletableFuture<Maze> future = mazeFactory.orderAsync(new DefaultOrder(2) {
+			@Override
+			public void updateProgress(int percentage) {
+				throw new OutOfMemoryError("Simulated failure of the maze generation");
+			}
+		});
+		ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(30, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof OutOfMemoryError);
+	}
+	
+	/**
+	 * Goal: Check if an order for the grid renderer skips the BSP tree but delivers the same maze
+	 * Test fixture: Will need a maze with rooms ordered for the BSP renderer and the same maze ordered for the grid renderer
+	 * Functionality: Will compare both mazes
+	 * Check: The grid maze should have no tree and no statistics, floorplan, distances and start should be the same
+	 */
+	@Test
+	void testGridOrderSkipsBSPTree() {
+		MazeFactory mazeFactory = new MazeFactory();
+		DefaultOrder bsp = new DefaultOrder(4, Order.Builder.DFS, false, 11);
+		mazeFactory.order(bsp);
+		mazeFactory.waitTillDelivered();
+		DefaultOrder grid = new DefaultOrder(4, Order.Builder.DFS, false, 11);
+		grid.setRenderer(Order.Renderer.Grid);
+		mazeFactory.order(grid);
+		mazeFactory.waitTillDelivered();
+		assertEquals(100, grid.getProgress());
+		assertNotNull(bsp.getMaze().getRootnode());
+		assertNull(grid.getMaze().getRootnode());
+		assertNull(grid.getMaze().getBSPStatistics());
+		assertTrue(bsp.getMaze().getFloorplan().equals(grid.getMaze().getFloorplan()));
+		assertArrayEquals(bsp.getMaze().getMazedists().getAllDistanceValues(),
+				grid.getMaze().getMazedists().getAllDistanceValues());
+		assertArrayEquals(bsp.getMaze().getStartingPosition(), grid.getMaze().getStartingPosition());
+	}
+	
+	/**
+	 * Goal: Check if mazes that are generated at the same time do not influence each other
+	 * Test fixture: Will need several fully generated instances of the maze provided by MazeBuilder, queued using MazeFactory in parallel threads
+	 * Functionality: Will generate the same order in four threads at the same time and once more on its own
+	 * Check: As each builder has its own random number stream, all floorplans should be equal
+	 * @throws ExecutionException if a maze generation fails
+	 * @throws InterruptedException if interrupted while waiting for a maze
+	 */
+	@Test
+	void testConcurrentGenerationIsReproducible() throws InterruptedException, ExecutionException {
+		Maze expected = createNewMaze();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Maze>> mazes = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				mazes.add(executor.submit(() -> createNewMaze()));
+			}
+			for (Future<Maze> maze : mazes) {
+				assertTrue(expected.getFloorplan().equals(maze.get().getFloorplan()));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Creates a maze of skill level 4 with the default order by queuing it via mazeFactory
+	 * @return Generated maze
+	 */
+	private Maze createNewMaze() {
+		MazeFactory mazeFactory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(4);
+		mazeFactory.order(order);
+		mazeFactory.waitTillDelivered();
+		return order.getMaze();
+	}
+	
+	/**
+	 * Checks that two BSP trees have the same structure, splitters and walls
+	 * @param expected root of the first tree
+	 * @param actual root of the second tree
+	 */
+	private void assertSameTree(BSPNode expected, BSPNode actual) {
+		assertEquals(expected.isIsleaf(), actual.isIsleaf());
+		if (expected.isIsleaf()) {
+			assertEquals(((BSPLeaf) expected).getAllWalls(), ((BSPLeaf) actual).getAllWalls());
+			return;
+		}
+		BSPBranch branch = (BSPBranch) expected;
+		BSPBranch other = (BSPBranch) actual;
+		assertEquals(branch.getX(), other.getX());
+		assertEquals(branch.getY(), other.getY());
+		assertEquals(branch.getDx(), other.getDx());
+		assertEquals(branch.getDy(), other.getDy());
+		assertSameTree(branch.getLeftBranch(), other.getLeftBranch());
+		assertSameTree(branch.getRightBranch(), other.getRightBranch());
+	}
+}
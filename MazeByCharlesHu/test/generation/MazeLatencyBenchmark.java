@@ -0,0 +1,56 @@
+package generation;
+
+import java.util.concurrent.ExecutionException;
+
+import generation.Order.Builder;
+
+/**
+ * Benchmark for the end-to-end latency of a maze order.
+ * For each skill level 0-15, it measures the time from placing an order
+ * with the MazeFactory till the maze is delivered, averaged over a number
+ * of runs after some warm-up runs. This includes rooms, pathways, distances
+ * and the BSP tree, i.e. everything a player waits for.
+ *
+ * This is not a JUnit test, run it as a Java application:
+ * the optional first argument selects the builder (default DFS),
+ * the optional second argument the number of measured runs per skill level (default 5).
+ */
+public class MazeLatencyBenchmark {
+
+	/**
+	 * Orders a maze of the given skill level and waits for its delivery.
+	 * @param factory the factory that takes the order
+	 * @param builder the algorithm
+	 * @param skillLevel the size of the maze
+	 * @param seed the seed for the random number generator
+	 * @return the time from order to delivery in nanoseconds
+	 * @throws ExecutionException if the maze generation fails
+	 * @throws InterruptedException if interrupted while waiting for the maze
+	 */
+	static long run(MazeFactory factory, Builder builder, int skillLevel, int seed) throws InterruptedException, ExecutionException {
+		long start = System.nanoTime();
+		factory.orderAsync(new DefaultOrder(skillLevel, builder, false, seed)).get();
+		return System.nanoTime() - start;
+	}
+
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+		Builder builder = (args.length > 0) ? Builder.valueOf(args[0]) : Builder.DFS;
+		int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+		java.util.logging.LogManager.getLogManager().reset();
+		MazeFactory factory = new MazeFactory();
+		System.out.println("builder " + builder + ", " + runs + " runs per skill level");
+		System.out.println("skill\tcells\tms/order");
+		for (int skillLevel = 0; skillLevel <= gui.Constants.MAX_SKILL_LEVEL; skillLevel++) {
+			// warm up the JIT compiler
+			for (int i = 0; i < 3; i++) {
+				run(factory, builder, skillLevel, i);
+			}
+			long time = 0;
+			for (int i = 0; i < runs; i++) {
+				time += run(factory, builder, skillLevel, 13 + i);
+			}
+			System.out.println(skillLevel + "\t" + gui.Constants.SKILL_X[skillLevel] * gui.Constants.SKILL_Y[skillLevel]
+					+ "\t" + String.format("%.3f", time / 1e6 / runs));
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Order.Builder;
+
+class MazePoolTest {
+
+	/**
+	 * Goal: Check if prefetched mazes are handed out and replaced
+	 * Test fixture: Will need a mazePool that keeps two mazes per setting and has plenty of memory
+	 * Functionality: Will prefetch mazes for one setting, wait for them and take one
+	 * Check: Pool should hold two mazes of the right size, taking one should start a replacement
+	 */
+	@Test
+	void handsOutPrefetchedMaze() {
+		MazePool pool = new MazePool(2, Long.MAX_VALUE);
+		pool.prefetch(2, Builder.Prim, true);
+		pool.waitTillReady();
+		assertEquals(2, pool.getReadyCount(2, Builder.Prim, true));
+		assertEquals(0, pool.getReadyCount(2, Builder.DFS, true));
+		DefaultOrder order = pool.take(2, Builder.Prim, true);
+		assertNotNull(order);
+		Maze maze = order.getMaze();
+		assertNotNull(maze);
+		assertEquals(gui.Constants.SKILL_X[2], maze.getWidth());
+		assertEquals(2, order.getSkillLevel());
+		pool.waitTillReady();
+		assertEquals(2, pool.getReadyCount(2, Builder.Prim, true));
+		pool.shutdown();
+	}
+
+	/**
+	 * Goal: Check if the pool gives nothing for a setting it has not prefetched
+	 * Test fixture: Will need an empty mazePool
+	 * Functionality: Will take a maze right away
+	 * Check: There should be no maze, but one should be generated for the next request
+	 */
+	@Test
+	void takeFromEmptyPoolStartsGeneration() {
+		MazePool pool = new MazePool(1, Long.MAX_VALUE);
+		assertNull(pool.take(1, Builder.DFS, false));
+		pool.waitTillReady();
+		assertNotNull(pool.take(1, Builder.DFS, false));
+		pool.shutdown();
+	}
+
+	/**
+	 * Goal: Check if the pool respects its memory cap
+	 * Test fixture: Will need a mazePool whose cap fits a single maze of skill level 3
+	 * Functionality: Will prefetch two mazes for skill level 3 and one for skill level 4
+	 * Check: Only one maze should be generated, memory usage should stay below the cap
+	 */
+	@Test
+	void staysBelowMemoryCap() {
+		long cap = MazePool.BYTES_PER_CELL * gui.Constants.SKILL_X[3] * gui.Constants.SKILL_Y[3];
+		MazePool pool = new MazePool(2, cap);
+		pool.prefetch(3, Builder.DFS, true);
+		pool.prefetch(4, Builder.DFS, true);
+		pool.waitTillReady();
+		assertEquals(1, pool.getReadyCount(3, Builder.DFS, true));
+		assertEquals(0, pool.getReadyCount(4, Builder.DFS, true));
+		assertTrue(pool.getMemoryUsage() <= cap);
+		pool.shutdown();
+	}
+
+	/**
+	 * Goal: Check if the pool releases the reservation of mazes that are not delivered
+	 * Test fixture: Will need a mazePool with a single worker and room for a few large mazes
+	 * Functionality: Will prefetch large mazes, cancel their generation right away, then prefetch a small maze
+	 * Check: The canceled orders should free their memory, such that the small maze gets generated
+	 */
+	@Test
+	void releasesCanceledOrders() {
+		long cap = 3 * MazePool.BYTES_PER_CELL * gui.Constants.SKILL_X[12] * gui.Constants.SKILL_Y[12];
+		MazePool pool = new MazePool(3, cap);
+		pool.prefetch(12, Builder.DFS, true);
+		assertEquals(cap, pool.getMemoryUsage());
+		pool.cancel();
+		pool.waitTillReady();
+		assertEquals(pool.getReadyCount(12, Builder.DFS, true) * cap / 3, pool.getMemoryUsage());
+		pool.prefetch(1, Builder.DFS, true);
+		pool.waitTillReady();
+		assertTrue(pool.getReadyCount(1, Builder.DFS, true) > 0);
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,71 @@
+package generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import generation.Order.Builder;
+
+class SplitterIndexTest {
+
+	/**
+	 * Goal: Check if the index gives the same grades as Wall.calculateGrade
+	 * Test fixture: Will need the walls of a maze with rooms, in slices of less than 100 walls
+	 * such that calculateGrade considers all walls
+	 * Functionality: Will grade each wall of a slice with the index and with calculateGrade
+	 * Check: Both grades should match for every wall
+	 */
+	@Test
+	void testGradeMatchesCalculateGrade() {
+		List<Wall> walls = generateWalls(5);
+		assertTrue(walls.size() > 99);
+		for (int from = 0; from < walls.size(); from += 37) {
+			List<Wall> slice = walls.subList(from, Math.min(walls.size(), from + 99));
+			SplitterIndex index = new SplitterIndex(slice);
+			for (Wall wall : slice) {
+				assertEquals(wall.calculateGrade(slice), index.calculateGrade(wall));
+			}
+		}
+	}
+
+	/**
+	 * Goal: Check if the index gives the same grades as Wall.calculateGrade for walls that were split
+	 * Test fixture: Will need the walls of a maze with rooms, split by a splitter in the middle
+	 * Functionality: Will grade each wall of both sides with the index and with calculateGrade
+	 * Check: Both grades should match for every wall, walls on the line of the splitter included
+	 */
+	@Test
+	void testGradeMatchesCalculateGradeAfterSplit() {
+		List<Wall> walls = generateWalls(2);
+		Wall splitter = walls.get(walls.size()/2);
+		List<Wall> left = new ArrayList<>();
+		List<Wall> right = new ArrayList<>();
+		splitter.splitWalls(walls, left, right, 0);
+		for (List<Wall> side : List.of(left, right)) {
+			List<Wall> slice = side.subList(0, Math.min(side.size(), 99));
+			SplitterIndex index = new SplitterIndex(slice);
+			for (Wall wall : slice) {
+				assertEquals(wall.calculateGrade(slice), index.calculateGrade(wall));
+			}
+		}
+	}
+
+	/**
+	 * Creates the list of walls for a maze as the BSPBuilder does.
+	 * @param skill the skill level of the maze
+	 * @return the walls of the maze
+	 */
+	private List<Wall> generateWalls(int skill) {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(skill, Builder.DFS, false, 7);
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		return new ListOfWallsBuilder(maze.getWidth(), maze.getHeight(), maze.getFloorplan(),
+				maze.getMazedists(), 0).generateWalls();
+	}
+}
@@ -0,0 +1,127 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import org.junit.jupiter.api.Test;
+
+import generation.CardinalDirection;
+import generation.DefaultOrder;
+import generation.Floorplan;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+import gui.ColorTheme.MazeColors;
+
+class GridFirstPersonViewTest {
+	/**
+	 * Panel that draws into an image in memory instead of the screen.
+	 */
+	private static class ImagePanel extends MazePanel {
+		private static final long serialVersionUID = 1L;
+		private final BufferedImage image = new BufferedImage(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		private final Graphics graphics = image.createGraphics();
+
+		@Override
+		public Graphics getBufferGraphics() {
+			return graphics;
+		}
+		/**
+		 * @return the rgb values of all pixels of the image
+		 */
+		int[] getPixels() {
+			return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		}
+	}
+
+	/**
+	 * Creates a maze with rooms and a BSP tree.
+	 * @return the maze
+	 */
+	private Maze createMaze() {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(3, Builder.DFS, false, 9);
+		factory.order(order);
+		factory.waitTillDelivered();
+		return order.getMaze();
+	}
+
+	/**
+	 * Goal: Check if the grid renderer shows walls where the FirstPersonView shows them
+	 * Test fixture: Will need a maze with a BSP tree, a FirstPersonView and a GridFirstPersonView
+	 * Functionality: Will draw both views from every cell in every direction
+	 * Check: Wall and background pixels should only differ at the edges of walls, less than 1 percent of a frame
+	 */
+	@Test
+	void testSameWallsAsFirstPersonView() {
+		Maze maze = createMaze();
+		FirstPersonView bsp = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
+				Constants.STEP_SIZE, new Floorplan(maze.getWidth()+1, maze.getHeight()+1), maze.getRootnode());
+		GridFirstPersonView grid = new GridFirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
+				Constants.STEP_SIZE, new Floorplan(maze.getWidth()+1, maze.getHeight()+1), maze);
+		ImagePanel expected = new ImagePanel();
+		ImagePanel actual = new ImagePanel();
+		int top = ColorTheme.getColor(MazeColors.BACKGROUND_TOP, 0.5f).getRGB() & 0xffffff;
+		int bottom = ColorTheme.getColor(MazeColors.BACKGROUND_BOTTOM, 0.5f).getRGB() & 0xffffff;
+		for (int x = 0; x < maze.getWidth(); x++) {
+			for (int y = 0; y < maze.getHeight(); y++) {
+				for (int angle = 0; angle < 360; angle += 90) {
+					bsp.draw(expected, x, y, 0, angle, 0.5f);
+					grid.draw(actual, x, y, 0, angle, 0.5f);
+					int[] e = expected.getPixels();
+					int[] a = actual.getPixels();
+					int differences = 0;
+					for (int i = 0; i < e.length; i++) {
+						int ei = e[i] & 0xffffff;
+						int ai = a[i] & 0xffffff;
+						if ((ei != top && ei != bottom) != (ai != top && ai != bottom))
+							differences++;
+					}
+					assertTrue(differences < Constants.VIEW_WIDTH*Constants.VIEW_HEIGHT/100,
+							differences + " pixels differ at (" + x + "," + y + ") for angle " + angle);
+				}
+			}
+		}
+		assertTrue(grid.getTraversedCellCount() > 0);
+	}
+
+	/**
+	 * Goal: Check if the grid renderer only marks wallboards of the maze as seen
+	 * Test fixture: Will need a maze and a GridFirstPersonView with an empty floorplan for the seen walls
+	 * Functionality: Will draw the view from the starting position in every direction
+	 * Check: Some wallboards should be marked and each of them should be a wallboard of the maze
+	 */
+	@Test
+	void testMarksSeenWallboards() {
+		Maze maze = createMaze();
+		Floorplan seen = new Floorplan(maze.getWidth()+1, maze.getHeight()+1);
+		GridFirstPersonView grid = new GridFirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
+				Constants.STEP_SIZE, seen, maze);
+		int[] start = maze.getStartingPosition();
+		for (int angle = 0; angle < 360; angle += 90) {
+			grid.draw(new ImagePanel(), start[0], start[1], 0, angle, 0.5f);
+		}
+		Floorplan floorplan = maze.getFloorplan();
+		int marked = 0;
+		for (int x = 0; x <= maze.getWidth(); x++) {
+			for (int y = 0; y <= maze.getHeight(); y++) {
+				// a horizontal wallboard is marked for the cell below, a vertical one for the cell to the right
+				if (seen.hasWall(x, y, CardinalDirection.North)) {
+					marked++;
+					assertTrue(y < maze.getHeight() ? floorplan.hasWall(x, y, CardinalDirection.North) :
+						floorplan.hasWall(x, y-1, CardinalDirection.South));
+				}
+				if (seen.hasWall(x, y, CardinalDirection.West)) {
+					marked++;
+					assertTrue(x < maze.getWidth() ? floorplan.hasWall(x, y, CardinalDirection.West) :
+						floorplan.hasWall(x-1, y, CardinalDirection.East));
+				}
+			}
+		}
+		assertTrue(marked > 0);
+	}
+}
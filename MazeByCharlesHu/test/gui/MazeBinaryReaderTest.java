@@ -0,0 +1,164 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.CardinalDirection;
+import generation.DefaultOrder;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Wallboard;
+
+class MazeBinaryReaderTest {
+	/**
+	 * Maze file in the XML format that comes with the tests
+	 */
+	private static final String XML_FILE = "test/data/input.xml";
+
+	/**
+	 * Directory for binary files, provided by JUnit and removed after each test
+	 */
+	@TempDir
+	File directory;
+
+	/**
+	 * Goal: Check if the converter from XML to the binary format keeps all data
+	 * Test fixture: Will need the XML file from the test data and a mazeBinaryReader
+	 * Functionality: Will convert the XML file and read both files
+	 * Check: All fields and the complete BSP tree should match and the binary file should be smaller
+	 * @throws IOException if a file can not be read or written
+	 */
+	@Test
+	void testConvertedFileMatchesXml() throws IOException {
+		File binary = new File(directory, "input" + MazeBinaryWriter.EXTENSION);
+		MazeBinaryWriter.convert(XML_FILE, binary.getPath());
+		MazeFileReader xml = new MazeFileReader(XML_FILE);
+		MazeBinaryReader reader = new MazeBinaryReader(binary.getPath());
+		assertEquals(xml.getWidth(), reader.getWidth());
+		assertEquals(xml.getHeight(), reader.getHeight());
+		assertEquals(xml.getRooms(), reader.getRooms());
+		assertEquals(xml.getExpectedPartiters(), reader.getExpectedPartiters());
+		assertEquals(xml.getStartX(), reader.getStartX());
+		assertEquals(xml.getStartY(), reader.getStartY());
+		assertTrue(xml.getCells().equals(reader.getCells()));
+		assertArrayEquals(xml.getDistances(), reader.getDistances());
+		assertSameTree(xml.getRootNode(), reader.getRootNode());
+		assertTrue(binary.length() < new File(XML_FILE).length());
+	}
+
+	/**
+	 * Goal: Check if a generated maze survives a round trip through the binary format
+	 * Test fixture: Will need a maze generated by the mazeFactory
+	 * Functionality: Will store the maze, read it back and store it again
+	 * Check: Floorplan, distances and tree should match and both files should be identical
+	 * @throws IOException if a file can not be read or written
+	 */
+	@Test
+	void testRoundTripOfGeneratedMaze() throws IOException {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(5);
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		File first = new File(directory, "first" + MazeBinaryWriter.EXTENSION);
+		File second = new File(directory, "second" + MazeBinaryWriter.EXTENSION);
+		MazeBinaryWriter.store(first.getPath(), maze.getWidth(), maze.getHeight(), 0, 0, maze.getRootnode(),
+				maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(),
+				maze.getStartingPosition()[0], maze.getStartingPosition()[1]);
+		MazeBinaryReader reader = new MazeBinaryReader(first.getPath());
+		Maze loaded = reader.getMazeConfiguration();
+		assertTrue(maze.getFloorplan().equals(loaded.getFloorplan()));
+		assertArrayEquals(maze.getMazedists().getAllDistanceValues(), loaded.getMazedists().getAllDistanceValues());
+		assertArrayEquals(maze.getStartingPosition(), loaded.getStartingPosition());
+		assertSameTree(maze.getRootnode(), loaded.getRootnode());
+		MazeBinaryWriter.store(second.getPath(), reader.getWidth(), reader.getHeight(), 0, 0, reader.getRootNode(),
+				reader.getCells(), reader.getDistances(), reader.getStartX(), reader.getStartY());
+		assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+	}
+
+	/**
+	 * Goal: Check if a mapped file gives the same maze as a copied one
+	 * Test fixture: Will need a maze generated by the mazeFactory and stored in the binary format
+	 * Functionality: Will read the file once with copies and once mapped into memory
+	 * Check: Floorplan, distances, exit, start and tree should match, a change to the mapped floorplan should not reach the file
+	 * @throws IOException if a file can not be read or written
+	 */
+	@Test
+	void testMappedFileMatchesCopiedFile() throws IOException {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(3);
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		File file = new File(directory, "mapped" + MazeBinaryWriter.EXTENSION);
+		MazeBinaryWriter.store(file.getPath(), maze.getWidth(), maze.getHeight(), 0, 0, maze.getRootnode(),
+				maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(),
+				maze.getStartingPosition()[0], maze.getStartingPosition()[1]);
+		byte[] content = Files.readAllBytes(file.toPath());
+		Maze copied = new MazeBinaryReader(file.getPath()).getMazeConfiguration();
+		Maze mapped = new MazeBinaryReader(file.getPath(), true).getMazeConfiguration();
+		assertTrue(copied.getFloorplan().equals(mapped.getFloorplan()));
+		assertArrayEquals(copied.getMazedists().getExitPosition(), mapped.getMazedists().getExitPosition());
+		assertArrayEquals(copied.getMazedists().getStartPosition(), mapped.getMazedists().getStartPosition());
+		assertEquals(copied.getMazedists().getMaxDistance(), mapped.getMazedists().getMaxDistance());
+		assertArrayEquals(copied.getMazedists().getAllDistanceValues(), mapped.getMazedists().getAllDistanceValues());
+		assertSameTree(copied.getRootnode(), mapped.getRootnode());
+		// the mapping is private, the file keeps its content
+		Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		if (mapped.getFloorplan().hasWall(0, 0, CardinalDirection.East))
+			mapped.getFloorplan().deleteWallboard(wallboard);
+		else
+			mapped.getFloorplan().addWallboard(wallboard, true);
+		assertTrue(!copied.getFloorplan().equals(mapped.getFloorplan()));
+		assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+	}
+
+	/**
+	 * Goal: Check if the reader rejects files in other formats
+	 * Test fixture: Will need the XML file from the test data
+	 * Functionality: Will read the XML file with the mazeBinaryReader
+	 * Check: An IOException should be thrown
+	 */
+	@Test
+	void testRejectsXmlFile() {
+		assertThrows(IOException.class, () -> new MazeBinaryReader(XML_FILE));
+	}
+
+	/**
+	 * Checks that two BSP trees have the same structure, splitters and walls
+	 * @param expected root of the first tree
+	 * @param actual root of the second tree
+	 */
+	private void assertSameTree(BSPNode expected, BSPNode actual) {
+		assertEquals(expected.isIsleaf(), actual.isIsleaf());
+		assertEquals(expected.getLowerBoundX(), actual.getLowerBoundX());
+		assertEquals(expected.getUpperBoundX(), actual.getUpperBoundX());
+		assertEquals(expected.getLowerBoundY(), actual.getLowerBoundY());
+		assertEquals(expected.getUpperBoundY(), actual.getUpperBoundY());
+		if (expected.isIsleaf()) {
+			// wall equality covers position, distance, color and flags
+			assertEquals(((BSPLeaf) expected).getAllWalls(), ((BSPLeaf) actual).getAllWalls());
+			return;
+		}
+		BSPBranch branch = (BSPBranch) expected;
+		BSPBranch other = (BSPBranch) actual;
+		assertEquals(branch.getX(), other.getX());
+		assertEquals(branch.getY(), other.getY());
+		assertEquals(branch.getDx(), other.getDx());
+		assertEquals(branch.getDy(), other.getDy());
+		assertSameTree(branch.getLeftBranch(), other.getLeftBranch());
+		assertSameTree(branch.getRightBranch(), other.getRightBranch());
+	}
+}
@@ -0,0 +1,119 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.DefaultOrder;
+import generation.Maze;
+import generation.Order.Builder;
+import generation.Order.Renderer;
+
+class MazeFileCacheTest {
+	/**
+	 * Directory for the cached mazes, provided by JUnit and removed after each test
+	 */
+	@TempDir
+	File directory;
+
+	/**
+	 * Goal: Check if a cached maze is loaded and matches the generated one
+	 * Test fixture: Will need a mazeFileCache without a size limit
+	 * Functionality: Will order the same maze twice, the first order generates it, the second one loads it
+	 * Check: There should be one miss and one hit and both mazes should have the same floorplan and distances
+	 */
+	@Test
+	void testHitDeliversSameMaze() {
+		MazeFileCache cache = new MazeFileCache(directory, Long.MAX_VALUE);
+		DefaultOrder generated = new DefaultOrder(3, Builder.Prim, false, 7);
+		assertTrue(cache.order(generated));
+		cache.waitTillDelivered();
+		DefaultOrder loaded = new DefaultOrder(3, Builder.Prim, false, 7);
+		assertTrue(cache.order(loaded));
+		cache.waitTillDelivered();
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertEquals(100, loaded.getProgress());
+		assertTrue(generated.getMaze().getFloorplan().equals(loaded.getMaze().getFloorplan()));
+		assertArrayEquals(generated.getMaze().getMazedists().getAllDistanceValues(),
+				loaded.getMaze().getMazedists().getAllDistanceValues());
+		assertArrayEquals(generated.getMaze().getStartingPosition(), loaded.getMaze().getStartingPosition());
+	}
+
+	/**
+	 * Goal: Check if the cache stays within its size budget
+	 * Test fixture: Will need a mazeFileCache with room for about one and a half mazes
+	 * Functionality: Will order two mazes of the same size with different seeds
+	 * Check: Only the second maze should remain on disk
+	 */
+	@Test
+	void testEvictsLeastRecentlyUsed() {
+		MazeFileCache unlimited = new MazeFileCache(directory, Long.MAX_VALUE);
+		DefaultOrder first = new DefaultOrder(2, Builder.DFS, true, 1);
+		unlimited.order(first);
+		unlimited.waitTillDelivered();
+		long size = unlimited.getSize();
+
+		MazeFileCache cache = new MazeFileCache(directory, size + size/2);
+		DefaultOrder second = new DefaultOrder(2, Builder.DFS, true, 2);
+		cache.order(second);
+		cache.waitTillDelivered();
+		assertTrue(cache.getSize() <= size + size/2);
+		assertTrue(cache.getFile(second).isFile());
+		assertTrue(!cache.getFile(first).exists());
+	}
+
+	/**
+	 * Goal: Check if a generated maze is stored without the lock of the cache
+	 * Test fixture: Will need a mazeFileCache without a size limit and an order that signals its delivery
+	 * Functionality: Will hold the lock of the cache, as a long call from the GUI would, while the maze is generated and stored
+	 * Check: The maze should be stored and delivered while the lock is held
+	 * @throws InterruptedException if interrupted while waiting for the delivery
+	 */
+	@Test
+	void testStoresWithoutLockOfCache() throws InterruptedException {
+		MazeFileCache cache = new MazeFileCache(directory, Long.MAX_VALUE);
+		CountDownLatch delivered = new CountDownLatch(1);
+		DefaultOrder order = new DefaultOrder(4, Builder.DFS, false, 5) {
+			@Override
+			public void deliver(Maze mazeConfig) {
+				super.deliver(mazeConfig);
+				delivered.countDown();
+			}
+		};
+		synchronized (cache) {
+			assertTrue(cache.order(order));
+			assertTrue(delivered.await(30, TimeUnit.SECONDS));
+		}
+		cache.waitTillDelivered();
+		assertTrue(cache.getFile(order).isFile());
+	}
+
+	/**
+	 * Goal: Check if a maze for the grid renderer is delivered but not stored
+	 * Test fixture: Will need a mazeFileCache without a size limit
+	 * Functionality: Will order a maze for the grid renderer
+	 * Check: The maze should be delivered without a BSP tree and the cache should stay empty
+	 */
+	@Test
+	void testGridMazeIsNotStored() {
+		MazeFileCache cache = new MazeFileCache(directory, Long.MAX_VALUE);
+		DefaultOrder order = new DefaultOrder(2, Builder.DFS, false, 5);
+		order.setRenderer(Renderer.Grid);
+		assertTrue(cache.order(order));
+		cache.waitTillDelivered();
+		assertNotNull(order.getMaze());
+		assertNull(order.getMaze().getRootnode());
+		assertTrue(!cache.getFile(order).exists());
+		assertEquals(0, cache.getSize());
+	}
+}
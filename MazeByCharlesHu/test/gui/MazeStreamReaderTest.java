@@ -0,0 +1,143 @@
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.DefaultOrder;
+import generation.Maze;
+import generation.MazeFactory;
+
+class MazeStreamReaderTest {
+	/**
+	 * Maze file in the XML format that comes with the tests
+	 */
+	private static final String XML_FILE = "test/data/input.xml";
+
+	/**
+	 * Directory for written files, provided by JUnit and removed after each test
+	 */
+	@TempDir
+	File directory;
+
+	/**
+	 * Goal: Check if the streaming reader gives the same data as the MazeFileReader
+	 * Test fixture: Will need the XML file from the test data
+	 * Functionality: Will read the file with the mazeFileReader and the mazeStreamReader
+	 * Check: All fields and the complete BSP tree should match
+	 * @throws IOException if the file can not be read
+	 */
+	@Test
+	void testReadsSameMazeAsFileReader() throws IOException {
+		MazeFileReader dom = new MazeFileReader(XML_FILE);
+		MazeStreamReader reader = new MazeStreamReader(XML_FILE);
+		assertEquals(dom.getWidth(), reader.getWidth());
+		assertEquals(dom.getHeight(), reader.getHeight());
+		assertEquals(dom.getRooms(), reader.getRooms());
+		assertEquals(dom.getExpectedPartiters(), reader.getExpectedPartiters());
+		assertEquals(dom.getStartX(), reader.getStartX());
+		assertEquals(dom.getStartY(), reader.getStartY());
+		assertTrue(dom.getCells().equals(reader.getCells()));
+		assertArrayEquals(dom.getDistances(), reader.getDistances());
+		assertSameTree(dom.getRootNode(), reader.getRootNode());
+	}
+
+	/**
+	 * Goal: Check if the test data survives a round trip through the streaming reader and writer
+	 * Test fixture: Will need the XML file from the test data
+	 * Functionality: Will read the file with the mazeStreamReader and write it with the mazeStreamWriter
+	 * Check: Both files should be identical
+	 * @throws IOException if a file can not be read or written
+	 */
+	@Test
+	void testRoundTripOfTestData() throws IOException {
+		MazeStreamReader reader = new MazeStreamReader(XML_FILE);
+		File copy = new File(directory, "copy.xml");
+		MazeStreamWriter.store(copy.getPath(), reader.getWidth(), reader.getHeight(), reader.getRooms(),
+				reader.getExpectedPartiters(), reader.getRootNode(), reader.getCells(), reader.getDistances(),
+				reader.getStartX(), reader.getStartY());
+		assertArrayEquals(Files.readAllBytes(new File(XML_FILE).toPath()), Files.readAllBytes(copy.toPath()));
+	}
+
+	/**
+	 * Goal: Check if the streaming writer produces the same file as the MazeFileWriter
+	 * Test fixture: Will need a maze generated by the mazeFactory
+	 * Functionality: Will store the maze with both writers and read it back with the mazeStreamReader
+	 * Check: Both files should be identical and the maze read back should match the generated one
+	 * @throws IOException if a file can not be read or written
+	 */
+	@Test
+	void testWritesSameFileAsFileWriter() throws IOException {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(2);
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		File dom = new File(directory, "dom.xml");
+		File stream = new File(directory, "stream.xml");
+		int[] start = maze.getStartingPosition();
+		MazeFileWriter.store(dom.getPath(), maze.getWidth(), maze.getHeight(), 0, 0, maze.getRootnode(),
+				maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		MazeStreamWriter.store(stream.getPath(), maze.getWidth(), maze.getHeight(), 0, 0, maze.getRootnode(),
+				maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		assertArrayEquals(Files.readAllBytes(dom.toPath()), Files.readAllBytes(stream.toPath()));
+		Maze loaded = new MazeStreamReader(stream.getPath()).getMazeConfiguration();
+		assertTrue(maze.getFloorplan().equals(loaded.getFloorplan()));
+		assertArrayEquals(maze.getMazedists().getAllDistanceValues(), loaded.getMazedists().getAllDistanceValues());
+		assertArrayEquals(start, loaded.getStartingPosition());
+		assertSameTree(maze.getRootnode(), loaded.getRootnode());
+	}
+
+	/**
+	 * Goal: Check if the reader rejects files that do not hold a complete maze
+	 * Test fixture: Will need the XML file from the test data, cut off in the middle
+	 * Functionality: Will read the incomplete file with the mazeStreamReader
+	 * Check: An IOException should be thrown
+	 * @throws IOException if the incomplete file can not be written
+	 */
+	@Test
+	void testRejectsIncompleteFile() throws IOException {
+		byte[] content = Files.readAllBytes(new File(XML_FILE).toPath());
+		File incomplete = new File(directory, "incomplete.xml");
+		Files.write(incomplete.toPath(), Arrays.copyOf(content, content.length/2));
+		assertThrows(IOException.class, () -> new MazeStreamReader(incomplete.getPath()));
+	}
+
+	/**
+	 * Checks that two BSP trees have the same structure, splitters and walls
+	 * @param expected root of the first tree
+	 * @param actual root of the second tree
+	 */
+	private void assertSameTree(BSPNode expected, BSPNode actual) {
+		assertEquals(expected.isIsleaf(), actual.isIsleaf());
+		assertEquals(expected.getLowerBoundX(), actual.getLowerBoundX());
+		assertEquals(expected.getUpperBoundX(), actual.getUpperBoundX());
+		assertEquals(expected.getLowerBoundY(), actual.getLowerBoundY());
+		assertEquals(expected.getUpperBoundY(), actual.getUpperBoundY());
+		if (expected.isIsleaf()) {
+			// wall equality covers position, distance, color and flags
+			assertEquals(((BSPLeaf) expected).getAllWalls(), ((BSPLeaf) actual).getAllWalls());
+			return;
+		}
+		BSPBranch branch = (BSPBranch) expected;
+		BSPBranch other = (BSPBranch) actual;
+		assertEquals(branch.getX(), other.getX());
+		assertEquals(branch.getY(), other.getY());
+		assertEquals(branch.getDx(), other.getDx());
+		assertEquals(branch.getDy(), other.getDy());
+		assertSameTree(branch.getLeftBranch(), other.getLeftBranch());
+		assertSameTree(branch.getRightBranch(), other.getRightBranch());
+	}
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 import generation.CardinalDirection;
+import generation.RandomStream;
 import gui.Robot.Direction;
 import gui.Robot.Turn;
 
@@ -149,7 +150,7 @@ class ReliableRobotTest extends RobotTest {
 		
 		//Check movement energy use
 		// 2 single movements for 6 energy each & 1 double movement for 12 energy, 24 energy overall
-		controller.getMaze().getFloorplan().markAreaAsRoom(3, 3, 1, 1, 3, 3);
+		controller.getMaze().getFloorplan().markAreaAsRoom(3, 3, 1, 1, 3, 3, new RandomStream(13));
 		robot.setBatteryLevel(24);
 		controller.setCurrentDirection(CardinalDirection.East);
 		controller.setCurrentPosition(1, 1);
@@ -360,7 +361,7 @@ class ReliableRobotTest extends RobotTest {
 		ReliableRobot robot = new ReliableRobot();
 		robot.setController(controller);
 		//Set up position & direction
-		controller.getMaze().getFloorplan().markAreaAsRoom(3, 3, 1, 1, 3, 3);
+		controller.getMaze().getFloorplan().markAreaAsRoom(3, 3, 1, 1, 3, 3, new RandomStream(13));
 		controller.setCurrentPosition(1, 1);
 		controller.setCurrentDirection(CardinalDirection.East);
 		
@@ -504,7 +505,7 @@ class ReliableRobotTest extends RobotTest {
 		assertTrue(robot.isAtExit());
 		//Test room check
 		//Force set a room
-		controller.getMaze().getFloorplan().markAreaAsRoom(1, 1, 2, 2, 2, 2);
+		controller.getMaze().getFloorplan().markAreaAsRoom(1, 1, 2, 2, 2, 2, new RandomStream(13));
 		controller.setCurrentPosition(2, 2);
 		assertTrue(robot.isInsideRoom());
 	}
@@ -548,7 +549,7 @@ class ReliableRobotTest extends RobotTest {
 		robot.addDistanceSensor(sensorL, Direction.LEFT);
 		
 		//Test legal distance call on all sensors
-		controller.getMaze().getFloorplan().markAreaAsRoom(2, 2, 2, 2, 3, 3);
+		controller.getMaze().getFloorplan().markAreaAsRoom(2, 2, 2, 2, 3, 3, new RandomStream(13));
 		controller.setCurrentPosition(2, 2);
 		controller.setCurrentDirection(CardinalDirection.North);
 		assertEquals(0, robot.distanceToObstacle(Direction.FORWARD));